@@ -2,6 +2,7 @@ package com.enhancedzombies.mod;
 
 import com.enhancedzombies.mod.config.EnhancedZombiesConfig;
 import com.enhancedzombies.mod.entity.EnhancedZombie;
+import com.enhancedzombies.mod.entity.EquipmentLoadouts;
 import com.enhancedzombies.mod.event.ModEventHandler;
 import com.enhancedzombies.mod.legion.ZombieLegionManager;
 import com.enhancedzombies.mod.network.NetworkHandler;
@@ -16,6 +17,7 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.config.ModConfig;
+import net.minecraftforge.fml.event.config.ModConfigEvent;
 import net.minecraftforge.fml.event.lifecycle.FMLClientSetupEvent;
 import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
@@ -67,6 +69,7 @@ public class EnhancedZombiesMod {
         modEventBus.addListener(this::commonSetup);
         modEventBus.addListener(this::onEntityAttributeCreation);
         modEventBus.addListener(this::clientSetup);
+        modEventBus.addListener(this::onConfigLoad);
         
         // 注册Forge事件总线
         MinecraftForge.EVENT_BUS.register(new ModEventHandler());
@@ -94,6 +97,20 @@ public class EnhancedZombiesMod {
         });
     }
     
+    /**
+     * 配置加载和重载事件处理
+     * 先发布新的配置快照，再重新编译依赖配置的装备方案表
+     */
+    private void onConfigLoad(final ModConfigEvent event) {
+        if (event instanceof ModConfigEvent.Unloading) {
+            return;
+        }
+        if (event.getConfig().getSpec() == EnhancedZombiesConfig.SPEC) {
+            EnhancedZombiesConfig.刷新快照();
+            EquipmentLoadouts.编译();
+        }
+    }
+    
     /**
      * 实体属性创建事件处理
      * 为增强僵尸设置基础属性
@@ -1,6 +1,7 @@
 package com.enhancedzombies.mod.command;
 
 import com.enhancedzombies.mod.EnhancedZombiesMod;
+import com.enhancedzombies.mod.legion.LegionGovernor;
 import com.enhancedzombies.mod.legion.ZombieLegionManager;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
@@ -53,6 +54,12 @@ public class ZombieLegionCommand {
                 .then(Commands.literal("clear_legions")
                     .executes(ZombieLegionCommand::clearAllLegions)
                 )
+                .then(Commands.literal("stats")
+                    .executes(ZombieLegionCommand::showStats)
+                )
+                .then(Commands.literal("governor")
+                    .executes(ZombieLegionCommand::showGovernor)
+                )
         );
     }
     
@@ -135,13 +142,10 @@ public class ZombieLegionCommand {
         CommandSourceStack 源 = context.getSource();
         
         try {
-            // 获取服务器世界
-            net.minecraft.server.level.ServerLevel 世界 = 源.getLevel();
-            
-            // 调用军团管理器清除所有军团
+            // 调用军团管理器清除所有维度的军团
             ZombieLegionManager 管理器 = com.enhancedzombies.mod.EnhancedZombiesMod.军团管理器;
             if (管理器 != null) {
-                int 清除数量 = 管理器.清除所有活跃军团(世界);
+                int 清除数量 = 管理器.清除所有活跃军团();
                 
                 源.sendSuccess(() -> net.minecraft.network.chat.Component.literal(
                     "§a成功清除了 " + 清除数量 + " 个僵尸和所有军团数据！"), true);
@@ -159,6 +163,26 @@ public class ZombieLegionCommand {
         }
     }
     
+    /**
+     * 显示军团系统统计信息
+     * 指令格式：/enhancedzombies stats
+     */
+    private static int showStats(CommandContext<CommandSourceStack> context) {
+        String 统计信息 = ZombieLegionManager.getInstance().获取统计信息();
+        context.getSource().sendSuccess(() -> Component.literal("§6[增强僵尸] §f军团统计\n§7" + 统计信息.trim()), false);
+        return 1;
+    }
+    
+    /**
+     * 显示负载调节器状态
+     * 指令格式：/enhancedzombies governor
+     */
+    private static int showGovernor(CommandContext<CommandSourceStack> context) {
+        String 状态信息 = LegionGovernor.getInstance().获取状态信息();
+        context.getSource().sendSuccess(() -> Component.literal("§6[增强僵尸] §f负载调节\n§7" + 状态信息.trim()), false);
+        return 1;
+    }
+    
     /**
      * 执行军团生成的核心逻辑
      * 算法：调用军团管理器生成军团并处理结果反馈
@@ -0,0 +1,121 @@
+package com.enhancedzombies.mod.config;
+
+/**
+ * 配置快照
+ * 功能：一次性读取所有配置项，保存为不可变对象供运行时代码读取
+ * 职责：
+ * 1. 热路径只读取普通final字段，不再每次经由ForgeConfigSpec取值
+ * 2. 预先计算派生值：距离的平方、以游戏刻计的时间、规范化后的上下限（保证下限不大于上限）
+ * 3. 由EnhancedZombiesConfig在配置加载或重载时整体替换，读取方始终看到同一次加载的完整配置
+ *
+ * 所有字段在构造后不再修改，可以在任意线程上读取
+ */
+public final class ConfigSnapshot {
+
+    // 军团配置
+    public final int 最小军团大小;
+    public final int 最大军团大小;              // 不小于最小军团大小
+    public final int 军团生成最小间隔刻;
+    public final int 军团生成最大间隔刻;          // 不小于最小间隔
+    public final double 军团生成概率;
+    public final int 每刻最大生成数量;
+    public final long 每刻生成时间预算纳秒;
+    public final int 每刻最大军团更新数量;
+    public final boolean 启用军团休眠;
+    public final double 军团休眠半径;
+    public final double 军团唤醒半径;            // 休眠半径的3/4，玩家在边界附近徘徊时不会反复休眠和唤醒
+    public final long 军团休眠最长刻数;
+    public final boolean 持久化玩家冷却;
+
+    // 僵尸智能配置
+    public final double 方块破坏概率;
+    public final double 方块建造概率;
+    public final int 最大破坏距离;
+    public final int 最大破坏距离平方;
+    public final int 最大建造距离;
+    public final int 最大建造距离平方;
+    public final double 团队协作概率;
+    public final boolean 启用AI分级;
+    public final double AI分级近距离;
+    public final double AI分级远距离;            // 不小于近距离
+    public final double AI冻结距离;              // 不小于远距离
+    public final double AI分级滞后距离;
+
+    // 装备配置
+    public final double 武器生成概率;
+    public final double 护甲生成概率;
+    public final double 附魔装备概率;
+
+    // 战斗配置
+    public final double 攻击力倍数;
+    public final double 生命值倍数;
+    public final double 移动速度倍数;
+    public final int 最大追击距离;
+
+    // 负载调节配置
+    public final boolean 启用负载调节;
+    public final double 调节MSPT上限;
+    public final double 调节MSPT下限;            // 不大于上限
+    public final double 模组耗时预算毫秒;
+    public final int 最小并发军团数;
+    public final int 最大并发军团数;              // 不小于最小并发军团数
+    public final double 最小军团规模比例;
+    public final double 最小生成概率比例;
+    public final int 最大更新间隔倍数;
+
+    // 开发配置
+    public final boolean 开发模式;
+
+    /**
+     * 从已加载的ForgeConfigSpec读取所有配置项（配置尚未加载时抛出IllegalStateException）
+     */
+    ConfigSnapshot() {
+        最小军团大小 = EnhancedZombiesConfig.最小军团大小.get();
+        最大军团大小 = Math.max(最小军团大小, EnhancedZombiesConfig.最大军团大小.get());
+        军团生成最小间隔刻 = EnhancedZombiesConfig.军团生成最小间隔秒数.get() * 20;
+        军团生成最大间隔刻 = Math.max(军团生成最小间隔刻, EnhancedZombiesConfig.军团生成最大间隔秒数.get() * 20);
+        军团生成概率 = EnhancedZombiesConfig.军团生成概率.get();
+        每刻最大生成数量 = EnhancedZombiesConfig.每刻最大生成数量.get();
+        每刻生成时间预算纳秒 = EnhancedZombiesConfig.每刻生成时间预算微秒.get() * 1000L;
+        每刻最大军团更新数量 = EnhancedZombiesConfig.每刻最大军团更新数量.get();
+        启用军团休眠 = EnhancedZombiesConfig.启用军团休眠.get() == 1;
+        军团休眠半径 = EnhancedZombiesConfig.军团休眠半径.get();
+        军团唤醒半径 = 军团休眠半径 * 0.75;
+        军团休眠最长刻数 = EnhancedZombiesConfig.军团休眠最长分钟.get() * 1200L;
+        持久化玩家冷却 = EnhancedZombiesConfig.持久化玩家冷却.get() == 1;
+
+        方块破坏概率 = EnhancedZombiesConfig.方块破坏概率.get();
+        方块建造概率 = EnhancedZombiesConfig.方块建造概率.get();
+        最大破坏距离 = EnhancedZombiesConfig.最大破坏距离.get();
+        最大破坏距离平方 = 最大破坏距离 * 最大破坏距离;
+        最大建造距离 = EnhancedZombiesConfig.最大建造距离.get();
+        最大建造距离平方 = 最大建造距离 * 最大建造距离;
+        团队协作概率 = EnhancedZombiesConfig.团队协作概率.get();
+        启用AI分级 = EnhancedZombiesConfig.启用AI分级.get() == 1;
+        AI分级近距离 = EnhancedZombiesConfig.AI分级近距离.get();
+        AI分级远距离 = Math.max(AI分级近距离, EnhancedZombiesConfig.AI分级远距离.get());
+        AI冻结距离 = Math.max(AI分级远距离, EnhancedZombiesConfig.AI冻结距离.get());
+        AI分级滞后距离 = EnhancedZombiesConfig.AI分级滞后距离.get();
+
+        武器生成概率 = EnhancedZombiesConfig.武器生成概率.get();
+        护甲生成概率 = EnhancedZombiesConfig.护甲生成概率.get();
+        附魔装备概率 = EnhancedZombiesConfig.附魔装备概率.get();
+
+        攻击力倍数 = EnhancedZombiesConfig.攻击力倍数.get();
+        生命值倍数 = EnhancedZombiesConfig.生命值倍数.get();
+        移动速度倍数 = EnhancedZombiesConfig.移动速度倍数.get();
+        最大追击距离 = EnhancedZombiesConfig.最大追击距离.get();
+
+        启用负载调节 = EnhancedZombiesConfig.启用负载调节.get() == 1;
+        调节MSPT上限 = EnhancedZombiesConfig.调节MSPT上限.get();
+        调节MSPT下限 = Math.min(调节MSPT上限, EnhancedZombiesConfig.调节MSPT下限.get());
+        模组耗时预算毫秒 = EnhancedZombiesConfig.模组耗时预算毫秒.get();
+        最小并发军团数 = EnhancedZombiesConfig.最小并发军团数.get();
+        最大并发军团数 = Math.max(最小并发军团数, EnhancedZombiesConfig.最大并发军团数.get());
+        最小军团规模比例 = EnhancedZombiesConfig.最小军团规模比例.get();
+        最小生成概率比例 = EnhancedZombiesConfig.最小生成概率比例.get();
+        最大更新间隔倍数 = EnhancedZombiesConfig.最大更新间隔倍数.get();
+
+        开发模式 = EnhancedZombiesConfig.开发模式.get() == 1;
+    }
+}
@@ -24,6 +24,13 @@ public class EnhancedZombiesConfig {
     public static final ForgeConfigSpec.IntValue 军团生成最小间隔秒数;
     public static final ForgeConfigSpec.IntValue 军团生成最大间隔秒数;
     public static final ForgeConfigSpec.DoubleValue 军团生成概率;
+    public static final ForgeConfigSpec.IntValue 每刻最大生成数量;
+    public static final ForgeConfigSpec.IntValue 每刻生成时间预算微秒;
+    public static final ForgeConfigSpec.IntValue 每刻最大军团更新数量;
+    public static final ForgeConfigSpec.IntValue 启用军团休眠;
+    public static final ForgeConfigSpec.IntValue 军团休眠半径;
+    public static final ForgeConfigSpec.IntValue 军团休眠最长分钟;
+    public static final ForgeConfigSpec.IntValue 持久化玩家冷却;
     
     // 僵尸智能配置
     public static final ForgeConfigSpec.DoubleValue 方块破坏概率;
@@ -31,6 +38,11 @@ public class EnhancedZombiesConfig {
     public static final ForgeConfigSpec.IntValue 最大破坏距离;
     public static final ForgeConfigSpec.IntValue 最大建造距离;
     public static final ForgeConfigSpec.DoubleValue 团队协作概率;
+    public static final ForgeConfigSpec.IntValue 启用AI分级;
+    public static final ForgeConfigSpec.IntValue AI分级近距离;
+    public static final ForgeConfigSpec.IntValue AI分级远距离;
+    public static final ForgeConfigSpec.IntValue AI冻结距离;
+    public static final ForgeConfigSpec.IntValue AI分级滞后距离;
     
     // 装备配置
     public static final ForgeConfigSpec.DoubleValue 高级装备概率;
@@ -44,9 +56,23 @@ public class EnhancedZombiesConfig {
     public static final ForgeConfigSpec.DoubleValue 移动速度倍数;
     public static final ForgeConfigSpec.IntValue 最大追击距离;
     
+    // 负载调节配置
+    public static final ForgeConfigSpec.IntValue 启用负载调节;
+    public static final ForgeConfigSpec.DoubleValue 调节MSPT上限;
+    public static final ForgeConfigSpec.DoubleValue 调节MSPT下限;
+    public static final ForgeConfigSpec.DoubleValue 模组耗时预算毫秒;
+    public static final ForgeConfigSpec.IntValue 最小并发军团数;
+    public static final ForgeConfigSpec.IntValue 最大并发军团数;
+    public static final ForgeConfigSpec.DoubleValue 最小军团规模比例;
+    public static final ForgeConfigSpec.DoubleValue 最小生成概率比例;
+    public static final ForgeConfigSpec.IntValue 最大更新间隔倍数;
+    
     // 开发配置
     public static final ForgeConfigSpec.IntValue 开发模式;
     
+    // 当前配置快照（配置加载或重载时整体替换）
+    private static volatile ConfigSnapshot 当前快照;
+    
     static {
         BUILDER.comment("增强僵尸模组配置文件")
                .comment("Enhanced Zombies Mod Configuration")
@@ -76,6 +102,34 @@ public class EnhancedZombiesConfig {
             .comment("每次检查时军团生成的概率 (0.0-1.0) / Legion spawn probability per check (0.0-1.0)")
             .defineInRange("legion_spawn_chance", 0.8, 0.0, 1.0);
         
+        每刻最大生成数量 = BUILDER
+            .comment("每个游戏刻最多生成的军团成员数量 / Maximum legion members spawned per tick")
+            .defineInRange("spawn_budget_entities_per_tick", 4, 1, 100);
+        
+        每刻生成时间预算微秒 = BUILDER
+            .comment("每个游戏刻用于生成军团成员的时间预算(微秒) / Time budget per tick for spawning legion members (microseconds)")
+            .defineInRange("spawn_budget_micros_per_tick", 2000, 100, 50000);
+        
+        每刻最大军团更新数量 = BUILDER
+            .comment("每个维度每个游戏刻最多更新的军团数量，超出的顺延到下一刻 / Maximum legions updated per dimension per tick, the rest are deferred")
+            .defineInRange("legion_updates_per_tick", 4, 1, 100);
+        
+        启用军团休眠 = BUILDER
+            .comment("附近没有玩家时让军团休眠，成员实体压缩为记录后移除 (0=关闭, 1=开启) / Hibernate legions with no player nearby (0=disabled, 1=enabled)")
+            .defineInRange("dormancy_enabled", 1, 0, 1);
+        
+        军团休眠半径 = BUILDER
+            .comment("此半径(格)内没有玩家时军团进入休眠，玩家进入该半径的3/4时唤醒 / Legions go dormant with no player within this radius (blocks) and wake at 3/4 of it")
+            .defineInRange("dormancy_radius", 96, 32, 512);
+        
+        军团休眠最长分钟 = BUILDER
+            .comment("军团连续休眠超过此时间(游戏分钟)后被清理 / Dormant legions are removed after staying dormant this long (game minutes)")
+            .defineInRange("dormancy_max_minutes", 20, 1, 1440);
+        
+        持久化玩家冷却 = BUILDER
+            .comment("保存玩家被军团攻击后的冷却，登出和服务器重启后继续生效 (0=关闭, 1=开启) / Keep player legion cooldowns across logouts and restarts (0=disabled, 1=enabled)")
+            .defineInRange("persist_player_cooldowns", 1, 0, 1);
+        
         BUILDER.pop();
         
         // 智能行为配置
@@ -102,6 +156,26 @@ public class EnhancedZombiesConfig {
             .comment("僵尸团队协作的概率 (0.0-1.0) / Team cooperation probability (0.0-1.0)")
             .defineInRange("team_cooperation_chance", 0.6, 0.0, 1.0);
         
+        启用AI分级 = BUILDER
+            .comment("按与最近玩家的距离降低僵尸AI的更新频率 (0=关闭, 1=开启) / Reduce zombie AI work by distance to the nearest player (0=disabled, 1=enabled)")
+            .defineInRange("ai_lod_enabled", 1, 0, 1);
+        
+        AI分级近距离 = BUILDER
+            .comment("超过此距离(格)时闲逛和搜索目标减半评估 / Beyond this distance (blocks) wandering and target scans are evaluated half as often")
+            .defineInRange("ai_lod_near_distance", 32, 8, 256);
+        
+        AI分级远距离 = BUILDER
+            .comment("超过此距离(格)时禁用方块破坏和建造，没有目标时不搜索目标 / Beyond this distance (blocks) block goals and target scans are disabled")
+            .defineInRange("ai_lod_far_distance", 64, 16, 512);
+        
+        AI冻结距离 = BUILDER
+            .comment("超过此距离(格)时空闲的僵尸冻结移动和目标选择 / Beyond this distance (blocks) idle zombies freeze their goal selectors")
+            .defineInRange("ai_lod_freeze_distance", 96, 24, 1024);
+        
+        AI分级滞后距离 = BUILDER
+            .comment("切换AI档位时的滞后距离(格)，避免在阈值附近来回切换 / Hysteresis distance (blocks) applied when changing AI tiers")
+            .defineInRange("ai_lod_hysteresis", 8, 0, 64);
+        
         BUILDER.pop();
         
         // 装备配置
@@ -148,6 +222,49 @@ public class EnhancedZombiesConfig {
         
         BUILDER.pop();
         
+        // 负载调节配置
+        BUILDER.comment("按服务器负载自动调节军团规模 / Load-adaptive legion governor")
+               .push("governor");
+        
+        启用负载调节 = BUILDER
+            .comment("是否启用负载调节 (0=关闭, 1=开启) / Enable the load governor (0=off, 1=on)")
+            .comment("关闭时始终使用各项上限 / When off, the upper bounds below are always used")
+            .defineInRange("governor_enabled", 1, 0, 1);
+        
+        调节MSPT上限 = BUILDER
+            .comment("平均每刻耗时高于此值(毫秒)时降低军团规模 / Scale legions down when average MSPT is above this (ms)")
+            .defineInRange("mspt_high", 45.0, 10.0, 200.0);
+        
+        调节MSPT下限 = BUILDER
+            .comment("平均每刻耗时低于此值(毫秒)时逐步恢复军团规模 / Scale legions back up when average MSPT is below this (ms)")
+            .defineInRange("mspt_low", 35.0, 5.0, 200.0);
+        
+        模组耗时预算毫秒 = BUILDER
+            .comment("军团系统每刻平均耗时预算(毫秒)，超出时同样降低规模 / Per-tick time budget for the legion system (ms)")
+            .defineInRange("mod_budget_ms", 5.0, 0.5, 50.0);
+        
+        最小并发军团数 = BUILDER
+            .comment("负载最高时允许的并发军团数 / Concurrent legions allowed under the heaviest load")
+            .defineInRange("min_concurrent_legions", 2, 0, 100);
+        
+        最大并发军团数 = BUILDER
+            .comment("负载正常时允许的并发军团数 / Concurrent legions allowed under normal load")
+            .defineInRange("max_concurrent_legions", 10, 1, 100);
+        
+        最小军团规模比例 = BUILDER
+            .comment("负载最高时军团大小的缩放比例 / Legion size scale under the heaviest load")
+            .defineInRange("min_legion_size_scale", 0.4, 0.1, 1.0);
+        
+        最小生成概率比例 = BUILDER
+            .comment("负载最高时军团生成概率的缩放比例 / Legion spawn chance scale under the heaviest load")
+            .defineInRange("min_spawn_chance_scale", 0.25, 0.0, 1.0);
+        
+        最大更新间隔倍数 = BUILDER
+            .comment("负载最高时军团更新间隔的倍数 / Legion update interval multiplier under the heaviest load")
+            .defineInRange("max_update_interval_multiplier", 4, 1, 4);
+        
+        BUILDER.pop();
+        
         // 开发配置
         BUILDER.comment("开发和调试配置 / Development and Debug Configuration")
                .push("development");
@@ -163,12 +280,34 @@ public class EnhancedZombiesConfig {
         SPEC = BUILDER.build();
     }
     
+    /**
+     * 获取当前配置快照，运行时代码都从快照读取配置
+     * 配置加载事件之前首次调用时直接读取一次（配置尚未加载时抛出IllegalStateException）
+     * 时间复杂度：O(1)
+     */
+    public static ConfigSnapshot 快照() {
+        ConfigSnapshot 快照 = 当前快照;
+        if (快照 == null) {
+            快照 = new ConfigSnapshot();
+            当前快照 = 快照;
+        }
+        return 快照;
+    }
+    
+    /**
+     * 重新读取所有配置项并发布新快照（配置加载或重载时调用，可能在配置文件监视线程上执行）
+     * 时间复杂度：O(1)
+     */
+    public static void 刷新快照() {
+        当前快照 = new ConfigSnapshot();
+    }
+    
     /**
      * 获取当前军团大小配置
      * 时间复杂度：O(1)
      */
     public static int get当前最大军团大小() {
-        return 最大军团大小.get();
+        return 快照().最大军团大小;
     }
     
     /**
@@ -176,8 +315,9 @@ public class EnhancedZombiesConfig {
      * 时间复杂度：O(1)
      */
     public static int get随机军团大小() {
-        int 最小值 = 最小军团大小.get();
-        int 最大值 = 最大军团大小.get();
+        ConfigSnapshot 配置 = 快照();
+        int 最小值 = 配置.最小军团大小;
+        int 最大值 = 配置.最大军团大小;
         return 最小值 + (int)(Math.random() * (最大值 - 最小值 + 1));
     }
     
@@ -186,8 +326,9 @@ public class EnhancedZombiesConfig {
      * 时间复杂度：O(1)
      */
     public static int get随机生成间隔() {
-        int 最小间隔 = 军团生成最小间隔秒数.get();
-        int 最大间隔 = 军团生成最大间隔秒数.get();
+        ConfigSnapshot 配置 = 快照();
+        int 最小间隔 = 配置.军团生成最小间隔刻 / 20;
+        int 最大间隔 = 配置.军团生成最大间隔刻 / 20;
         return 最小间隔 + (int)(Math.random() * (最大间隔 - 最小间隔 + 1));
     }
     
@@ -196,6 +337,22 @@ public class EnhancedZombiesConfig {
      * 时间复杂度：O(1)
      */
     public static boolean 是否为开发模式() {
-        return 开发模式.get() == 1;
+        return 快照().开发模式;
+    }
+    
+    /**
+     * 检查是否持久化玩家冷却
+     * 时间复杂度：O(1)
+     */
+    public static boolean 是否持久化玩家冷却() {
+        return 快照().持久化玩家冷却;
+    }
+    
+    /**
+     * 检查是否启用AI分级
+     * 时间复杂度：O(1)
+     */
+    public static boolean 是否启用AI分级() {
+        return 快照().启用AI分级;
     }
-}
\ No newline at end of file
+}
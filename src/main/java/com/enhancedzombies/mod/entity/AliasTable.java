@@ -0,0 +1,108 @@
+package com.enhancedzombies.mod.entity;
+
+import net.minecraft.util.RandomSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 别名表（Vose别名法）
+ * 功能：按权重从固定的结果集合中抽样
+ * 职责：
+ * 1. 构建时把权重归一化为n个等概率的槽位，每个槽位最多对应两个结果（自身和别名）
+ * 2. 抽样时只需一次随机槽位和一次随机比较
+ *
+ * 构建后不可修改，可以在多个线程之间共享
+ * 时间复杂度：构建O(n)，抽样O(1)
+ */
+final class AliasTable<T> {
+
+    private final Object[] 结果;
+    private final double[] 概率;
+    private final int[] 别名;
+
+    private AliasTable(List<T> 结果列表, List<Double> 权重列表) {
+        int n = 结果列表.size();
+        结果 = 结果列表.toArray();
+        概率 = new double[n];
+        别名 = new int[n];
+
+        double 总权重 = 0;
+        for (double 权重 : 权重列表) {
+            总权重 += 权重;
+        }
+
+        // 把每个结果的权重缩放为平均值1，再分为不足1和不少于1两组
+        double[] 缩放权重 = new double[n];
+        int[] 小组 = new int[n];
+        int[] 大组 = new int[n];
+        int 小组数量 = 0, 大组数量 = 0;
+        for (int i = 0; i < n; i++) {
+            缩放权重[i] = 权重列表.get(i) * n / 总权重;
+            if (缩放权重[i] < 1.0) {
+                小组[小组数量++] = i;
+            } else {
+                大组[大组数量++] = i;
+            }
+        }
+
+        // 每次用一个大权重结果补满一个小权重结果的槽位
+        while (小组数量 > 0 && 大组数量 > 0) {
+            int 小 = 小组[--小组数量];
+            int 大 = 大组[--大组数量];
+            概率[小] = 缩放权重[小];
+            别名[小] = 大;
+            缩放权重[大] += 缩放权重[小] - 1.0;
+            if (缩放权重[大] < 1.0) {
+                小组[小组数量++] = 大;
+            } else {
+                大组[大组数量++] = 大;
+            }
+        }
+
+        // 剩余的槽位只对应自身（含浮点误差留下的槽位）
+        while (大组数量 > 0) {
+            概率[大组[--大组数量]] = 1.0;
+        }
+        while (小组数量 > 0) {
+            概率[小组[--小组数量]] = 1.0;
+        }
+    }
+
+    /**
+     * 按权重抽取一个结果
+     * 时间复杂度：O(1)
+     */
+    @SuppressWarnings("unchecked")
+    T 抽样(RandomSource 随机) {
+        int 槽位 = 随机.nextInt(结果.length);
+        return (T) (随机.nextDouble() < 概率[槽位] ? 结果[槽位] : 结果[别名[槽位]]);
+    }
+
+    int 数量() {
+        return 结果.length;
+    }
+
+    /**
+     * 别名表构建器，忽略权重不大于0的结果
+     */
+    static final class 构建器<T> {
+        private final List<T> 结果列表 = new ArrayList<>();
+        private final List<Double> 权重列表 = new ArrayList<>();
+
+        构建器<T> 添加(T 结果, double 权重) {
+            if (权重 > 0) {
+                结果列表.add(结果);
+                权重列表.add(权重);
+            }
+            return this;
+        }
+
+        /**
+         * @return 别名表，没有任何权重大于0的结果时返回null
+         */
+        AliasTable<T> 构建() {
+            return 结果列表.isEmpty() ? null : new AliasTable<>(结果列表, 权重列表);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.enhancedzombies.mod.entity;
 
+import com.enhancedzombies.mod.config.ConfigSnapshot;
 import com.enhancedzombies.mod.config.EnhancedZombiesConfig;
 import com.enhancedzombies.mod.entity.ai.*;
 import net.minecraft.core.BlockPos;
@@ -26,8 +27,6 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.entity.projectile.AbstractArrow;
 import net.minecraft.world.entity.projectile.ProjectileUtil;
 import net.minecraft.nbt.ListTag;
-import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.Items;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.ServerLevelAccessor;
 import net.minecraft.world.level.block.Blocks;
@@ -74,15 +73,26 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
     private int 建造冷却时间 = 0;
     private int 破坏冷却时间 = 0;
     
-    // AI更新相关
-    private int AI更新计时器 = 0;
+    // AI更新相关（周期任务注册在军团管理器的时间轮上，只在到期的游戏刻执行）
     private static final int AI更新间隔 = 200; // 进一步增加到200
-    private int 军团协作计时器 = 0;
     private static final int 军团协作间隔 = 400; // 大幅增加军团协作间隔
-    private int 装备检查计时器 = 0;
     private static final int 装备检查间隔 = 600; // 大幅增加装备检查间隔
-    private int 实体查询计时器 = 0;
     private static final int 实体查询间隔 = 300; // 新增实体查询间隔控制
+    private long 下次实体查询刻 = 0;
+    private boolean 已注册周期任务 = false;
+    
+    // 是否已生成初始装备（从存档读取的僵尸视为已生成）
+    private boolean 已生成初始装备 = false;
+    
+    // 属性加成修饰符（经由ZombieAttributeWriter写入临时修饰符，不改写基础值）
+    private static final UUID 追击速度修饰符ID = UUID.fromString("b467b29a-019c-4953-bbb0-99a1f39411a0");
+    private static final UUID 追踪距离修饰符ID = UUID.fromString("c402b3dc-1003-4f45-98a8-1ef0eb94aeee");
+    
+    // AI分级（按与最近玩家的距离和军团状态每20刻评估一次，null表示尚未评估）
+    private ZombieAILevelOfDetail.档位 AI档位;
+    
+    // 是否正在沿军团流场移动（由ZombieFlowFieldGoal设置）
+    private boolean 流场引导中 = false;
     
     public EnhancedZombie(EntityType<? extends Zombie> entityType, Level level) {
         super(entityType, level);
@@ -103,11 +113,12 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
      * 基于配置文件动态调整属性值
      */
     public static AttributeSupplier.Builder createAttributes() {
+        ConfigSnapshot 配置 = EnhancedZombiesConfig.快照();
         return Zombie.createAttributes()
-            .add(Attributes.MAX_HEALTH, 20.0 * EnhancedZombiesConfig.生命值倍数.get())
-            .add(Attributes.ATTACK_DAMAGE, 3.0 * EnhancedZombiesConfig.攻击力倍数.get())
-            .add(Attributes.MOVEMENT_SPEED, 0.23 * EnhancedZombiesConfig.移动速度倍数.get())
-            .add(Attributes.FOLLOW_RANGE, EnhancedZombiesConfig.最大追击距离.get())
+            .add(Attributes.MAX_HEALTH, 20.0 * 配置.生命值倍数)
+            .add(Attributes.ATTACK_DAMAGE, 3.0 * 配置.攻击力倍数)
+            .add(Attributes.MOVEMENT_SPEED, 0.23 * 配置.移动速度倍数)
+            .add(Attributes.FOLLOW_RANGE, 配置.最大追击距离)
             .add(Attributes.ARMOR, 2.0)
             .add(Attributes.ARMOR_TOUGHNESS, 1.0);
     }
@@ -119,21 +130,23 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
         this.targetSelector.removeAllGoals(goal -> true);
         
         this.goalSelector.addGoal(1, new FloatGoal(this));
+        this.goalSelector.addGoal(1, new ZombieFlowFieldGoal(this, 1.5D)); // 远离目标时沿军团流场移动
         this.goalSelector.addGoal(2, new MeleeAttackGoal(this, 1.5D, true)); // 提高攻击速度
         this.goalSelector.addGoal(3, new ZombieBreakBlockGoal(this));
         this.goalSelector.addGoal(4, new ZombieBuildBlockGoal(this));
         
-        this.goalSelector.addGoal(7, new MoveThroughVillageGoal(this, 1.0D, true, 4, () -> false));
-        this.goalSelector.addGoal(8, new WaterAvoidingRandomStrollGoal(this, 1.0D));
-        this.goalSelector.addGoal(9, new LookAtPlayerGoal(this, Player.class, 8.0F));
-        this.goalSelector.addGoal(9, new RandomLookAroundGoal(this));
+        // 闲逛、环顾和搜索目标按AI档位限流
+        this.goalSelector.addGoal(7, new ZombieLodThrottledGoal(this, new MoveThroughVillageGoal(this, 1.0D, true, 4, () -> false)));
+        this.goalSelector.addGoal(8, new ZombieLodThrottledGoal(this, new WaterAvoidingRandomStrollGoal(this, 1.0D)));
+        this.goalSelector.addGoal(9, new ZombieLodThrottledGoal(this, new LookAtPlayerGoal(this, Player.class, 8.0F)));
+        this.goalSelector.addGoal(9, new ZombieLodThrottledGoal(this, new RandomLookAroundGoal(this)));
         
         // 目标选择AI - 优先攻击玩家
         this.targetSelector.addGoal(1, new HurtByTargetGoal(this));
-        this.targetSelector.addGoal(2, new NearestAttackableTargetGoal<>(this, Player.class, true)); // 简化参数，确保持续攻击玩家
-        this.targetSelector.addGoal(3, new NearestAttackableTargetGoal<>(this, AbstractVillager.class, false));
-        this.targetSelector.addGoal(4, new NearestAttackableTargetGoal<>(this, IronGolem.class, true));
-        this.targetSelector.addGoal(5, new NearestAttackableTargetGoal<>(this, Turtle.class, 10, true, false, Turtle.BABY_ON_LAND_SELECTOR));
+        this.targetSelector.addGoal(2, new ZombieLodThrottledGoal(this, new NearestAttackableTargetGoal<>(this, Player.class, true))); // 简化参数，确保持续攻击玩家
+        this.targetSelector.addGoal(3, new ZombieLodThrottledGoal(this, new NearestAttackableTargetGoal<>(this, AbstractVillager.class, false)));
+        this.targetSelector.addGoal(4, new ZombieLodThrottledGoal(this, new NearestAttackableTargetGoal<>(this, IronGolem.class, true)));
+        this.targetSelector.addGoal(5, new ZombieLodThrottledGoal(this, new NearestAttackableTargetGoal<>(this, Turtle.class, 10, true, false, Turtle.BABY_ON_LAND_SELECTOR)));
     }
     
     @Override
@@ -159,6 +172,7 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
         this.set军团ID(compound.getInt("军团ID"));
         this.set是否为军团长(compound.getBoolean("是否为军团长"));
         this.set智能等级(compound.getInt("智能等级"));
+        已生成初始装备 = true;
         
         // 读取军团成员列表
         军团成员列表.clear();
@@ -184,8 +198,9 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
         
         // 当设置目标时，增强追踪能力
         if (target != null && !this.level().isClientSide) {
-            // 提高移动速度以便追踪
-            this.getAttribute(Attributes.MOVEMENT_SPEED).setBaseValue(0.25 + (get智能等级() * 0.02));
+            // 提高移动速度以便追踪（数值不变时不写入）
+            ZombieAttributeWriter.设置目标值(this, Attributes.MOVEMENT_SPEED, 追击速度修饰符ID,
+                "Enhanced zombie chase speed", 0.25 + (get智能等级() * 0.02));
             
             // 军团成员共享目标信息
             if (get军团ID() != -1) {
@@ -203,16 +218,13 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
         // 添加频率控制，避免每次setTarget都执行
         if (this.tickCount % 60 != 0) return; // 每3秒才执行一次
         
-        List<EnhancedZombie> 附近军团成员 = this.level().getEntitiesOfClass(
-            EnhancedZombie.class,
-            this.getBoundingBox().inflate(12.0), // 减小范围从32.0到12.0
-            zombie -> zombie.get军团ID() == this.get军团ID() && zombie != this
-        );
+        // 从军团黑板读取最近的2个成员，并把目标写入黑板
+        com.enhancedzombies.mod.legion.LegionBlackboard 黑板 =
+            com.enhancedzombies.mod.legion.ZombieLegionManager.getInstance().获取军团黑板(this);
+        if (黑板 == null) return;
+        黑板.set共享目标(目标);
         
-        // 限制处理数量，最多处理2个成员
-        int 处理数量 = Math.min(2, 附近军团成员.size());
-        for (int i = 0; i < 处理数量; i++) {
-            EnhancedZombie 成员 = 附近军团成员.get(i);
+        for (EnhancedZombie 成员 : 黑板.获取附近成员(this, 12.0, 2)) {
             if (成员.getTarget() == null || 成员.distanceTo(目标) > this.distanceTo(目标)) {
                 成员.setTarget(目标);
                 break; // 只设置一个就退出
@@ -225,34 +237,15 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
         super.tick();
         
         if (!this.level().isClientSide) {
-            // 增强目标追踪逻辑（进一步降低频率）
-            if (this.getTarget() != null && this.tickCount % 20 == 0) {
-                增强目标追踪();
+            // 评估AI档位（按实体ID错开）
+            if ((this.tickCount + this.getId()) % ZombieAILevelOfDetail.评估周期 == 0) {
+                评估AI档位();
             }
             
-            // 更新AI计时器（大幅降低频率）
-            AI更新计时器++;
-            if (AI更新计时器 >= AI更新间隔) {
-                AI更新计时器 = 0;
-                更新智能行为();
-            }
-            
-            // 军团协作计时器（独立控制，大幅降低频率）
-            军团协作计时器++;
-            if (军团协作计时器 >= 军团协作间隔) {
-                军团协作计时器 = 0;
-                if (Math.random() < 0.1) { // 进一步降低执行概率到10%
-                    执行军团协作();
-                }
-            }
-            
-            // 装备检查计时器（大幅降低频率）
-            装备检查计时器++;
-            if (装备检查计时器 >= 装备检查间隔) {
-                装备检查计时器 = 0;
-                if (Math.random() < 0.5) { // 添加概率控制
-                    管理装备();
-                }
+            // 增强目标追踪逻辑（频率随AI档位降低）
+            int 追踪间隔 = getAI档位().get追踪间隔();
+            if (this.getTarget() != null && 追踪间隔 > 0 && this.tickCount % 追踪间隔 == 0) {
+                增强目标追踪();
             }
             
             // 更新冷却时间
@@ -261,6 +254,116 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
         }
     }
     
+    @Override
+    public boolean hurt(DamageSource 伤害来源, float 伤害量) {
+        boolean 结果 = super.hurt(伤害来源, 伤害量);
+        // 受到攻击时立即重新评估，冻结或远距档位的僵尸可以马上反击
+        if (结果 && !this.level().isClientSide && AI档位 != null && !AI档位.允许目标搜索()) {
+            评估AI档位();
+        }
+        return 结果;
+    }
+    
+    @Override
+    public void onRemovedFromWorld() {
+        super.onRemovedFromWorld();
+        if (AI档位 != null) {
+            ZombieAILevelOfDetail.记录切换(AI档位, null);
+            AI档位 = null;
+        }
+    }
+    
+    /**
+     * 按与最近玩家的距离和军团状态重新评估AI档位
+     * 冻结档位禁用移动和注视控制（保留跳跃，僵尸仍会在水中上浮），
+     * 没有目标搜索的档位在空闲时禁用目标选择；已有目标或最近受到攻击时目标选择始终可用
+     * 时间复杂度：O(p) - p为所在世界的玩家数量
+     */
+    private void 评估AI档位() {
+        boolean 空闲 = this.getTarget() == null && this.getLastHurtByMob() == null;
+        com.enhancedzombies.mod.legion.ZombieLegion 军团 =
+            get军团ID() != -1 ? com.enhancedzombies.mod.legion.ZombieLegionManager.getInstance().获取僵尸军团信息(this) : null;
+        boolean 军团交战 = 军团 != null
+            && (军团.get当前状态() == com.enhancedzombies.mod.legion.ZombieLegion.军团状态.追击中
+                || 军团.get当前状态() == com.enhancedzombies.mod.legion.ZombieLegion.军团状态.战斗中);
+        
+        ZombieAILevelOfDetail.档位 新档位 = ZombieAILevelOfDetail.计算档位(
+            AI档位, ZombieAILevelOfDetail.最近玩家距离(this), 空闲, 军团交战);
+        if (新档位 != AI档位) {
+            ZombieAILevelOfDetail.记录切换(AI档位, 新档位);
+            if (新档位 == ZombieAILevelOfDetail.档位.冻结) {
+                this.goalSelector.disableControlFlag(Goal.Flag.MOVE);
+                this.goalSelector.disableControlFlag(Goal.Flag.LOOK);
+                this.getNavigation().stop();
+            } else if (AI档位 == ZombieAILevelOfDetail.档位.冻结) {
+                this.goalSelector.enableControlFlag(Goal.Flag.MOVE);
+                this.goalSelector.enableControlFlag(Goal.Flag.LOOK);
+            }
+            AI档位 = 新档位;
+        }
+        
+        if (!新档位.允许目标搜索() && 空闲) {
+            this.targetSelector.disableControlFlag(Goal.Flag.TARGET);
+        } else {
+            this.targetSelector.enableControlFlag(Goal.Flag.TARGET);
+        }
+    }
+    
+    public void set流场引导中(boolean 引导中) {
+        this.流场引导中 = 引导中;
+    }
+    
+    /**
+     * 当前AI档位，尚未评估时按近距处理
+     */
+    public ZombieAILevelOfDetail.档位 getAI档位() {
+        return AI档位 != null ? AI档位 : ZombieAILevelOfDetail.档位.近距;
+    }
+    
+    /**
+     * 把智能行为、军团协作和装备检查注册为时间轮上的周期任务（实体成功加入世界后调用一次）
+     * 实体被移除后任务在下次到期时自行结束；所在区块不处理实体时跳过本次执行
+     */
+    public void 注册周期任务(com.enhancedzombies.mod.legion.TickTimerWheel 定时轮) {
+        if (已注册周期任务 || this.level().isClientSide) return;
+        已注册周期任务 = true;
+        
+        // 更新AI（大幅降低频率）
+        定时轮.周期执行(AI更新间隔, AI更新间隔, () -> {
+            if (this.isRemoved()) return false;
+            if (可执行周期任务()) {
+                更新智能行为();
+            }
+            return true;
+        });
+        
+        // 军团协作（独立控制，大幅降低频率）
+        定时轮.周期执行(军团协作间隔, 军团协作间隔, () -> {
+            if (this.isRemoved()) return false;
+            if (可执行周期任务() && Math.random() < 0.1) { // 进一步降低执行概率到10%
+                执行军团协作();
+            }
+            return true;
+        });
+        
+        // 装备检查（大幅降低频率）
+        定时轮.周期执行(装备检查间隔, 装备检查间隔, () -> {
+            if (this.isRemoved()) return false;
+            if (可执行周期任务() && getAI档位() != ZombieAILevelOfDetail.档位.冻结 && Math.random() < 0.5) { // 添加概率控制，冻结时跳过
+                管理装备();
+            }
+            return true;
+        });
+    }
+    
+    /**
+     * 实体所在位置是否正在处理实体（区块在模拟距离外时实体不更新，周期任务也跳过）
+     */
+    private boolean 可执行周期任务() {
+        return this.level() instanceof net.minecraft.server.level.ServerLevel 世界 
+            && 世界.isPositionEntityTicking(this.blockPosition());
+    }
+    
     /**
      * 增强目标追踪逻辑
      * 防止僵尸在远距离时失去目标
@@ -269,8 +372,8 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
         LivingEntity 目标 = this.getTarget();
         if (目标 == null || !目标.isAlive()) {
             // 如果没有目标，重置追踪范围到默认值
-            double 默认追踪距离 = EnhancedZombiesConfig.最大追击距离.get() + (get智能等级() * 8.0);
-            this.getAttribute(Attributes.FOLLOW_RANGE).setBaseValue(默认追踪距离);
+            double 默认追踪距离 = EnhancedZombiesConfig.快照().最大追击距离 + (get智能等级() * 8.0);
+            设置追踪距离(默认追踪距离);
             return;
         }
         
@@ -279,10 +382,17 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
         
         // 如果目标在追踪范围内但僵尸没有路径，尝试重新寻路
         if (距离 <= 最大追踪距离) {
-            if (this.getNavigation().getPath() == null || this.getNavigation().isDone()) {
+            // 军团近期已确认目标不可达时跳过寻路，交给方块破坏和建造行为处理
+            // 沿军团流场移动时导航处于停止状态，不需要寻路
+            if (!流场引导中 && (this.getNavigation().getPath() == null || this.getNavigation().isDone()) && !目标近期不可达()) {
                 // 尝试直接寻路到目标
-                if (!this.getNavigation().moveTo(目标, 1.0 + (get智能等级() * 0.1))) {
+                boolean 可到达;
+                if (this.getNavigation().moveTo(目标, 1.0 + (get智能等级() * 0.1))) {
+                    // 只能到达目标附近的不完整路径仍然保留，僵尸先走到最近处
+                    可到达 = this.getNavigation().getPath() != null && this.getNavigation().getPath().canReach();
+                } else {
                     // 如果直接寻路失败，尝试寻路到目标附近
+                    可到达 = false;
                     BlockPos 目标位置 = 目标.blockPosition();
                     for (int 尝试次数 = 0; 尝试次数 < 5; 尝试次数++) {
                         int 偏移X = this.random.nextInt(6) - 3;
@@ -290,14 +400,18 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
                         BlockPos 替代位置 = 目标位置.offset(偏移X, 0, 偏移Z);
                         
                         if (this.getNavigation().moveTo(替代位置.getX(), 替代位置.getY(), 替代位置.getZ(), 1.0)) {
+                            可到达 = true;
                             break;
                         }
                     }
                 }
+                if (!可到达) {
+                    记录目标不可达();
+                }
             }
             // 确保追踪范围保持正常值
-            double 默认追踪距离 = EnhancedZombiesConfig.最大追击距离.get() + (get智能等级() * 8.0);
-            this.getAttribute(Attributes.FOLLOW_RANGE).setBaseValue(默认追踪距离);
+            double 默认追踪距离 = EnhancedZombiesConfig.快照().最大追击距离 + (get智能等级() * 8.0);
+            设置追踪距离(默认追踪距离);
         }
         
         // 如果目标超出范围但在视线内，临时延长追踪时间
@@ -305,29 +419,64 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
             if (this.hasLineOfSight(目标)) {
                 // 临时扩展追踪范围，但限制最大值
                 double 扩展追踪距离 = Math.min(最大追踪距离 * 1.2, 最大追踪距离 + 16.0);
-                this.getAttribute(Attributes.FOLLOW_RANGE).setBaseValue(扩展追踪距离);
+                设置追踪距离(扩展追踪距离);
             } else {
                 // 没有视线时重置到默认值
-                double 默认追踪距离 = EnhancedZombiesConfig.最大追击距离.get() + (get智能等级() * 8.0);
-                this.getAttribute(Attributes.FOLLOW_RANGE).setBaseValue(默认追踪距离);
+                double 默认追踪距离 = EnhancedZombiesConfig.快照().最大追击距离 + (get智能等级() * 8.0);
+                设置追踪距离(默认追踪距离);
             }
         }
         // 目标太远时重置追踪范围
         else {
-            double 默认追踪距离 = EnhancedZombiesConfig.最大追击距离.get() + (get智能等级() * 8.0);
-            this.getAttribute(Attributes.FOLLOW_RANGE).setBaseValue(默认追踪距离);
+            double 默认追踪距离 = EnhancedZombiesConfig.快照().最大追击距离 + (get智能等级() * 8.0);
+            设置追踪距离(默认追踪距离);
         }
     }
     
+    /**
+     * 当前目标是否在近期被所属军团确认为从本僵尸附近不可达（读取军团的寻路失败缓存）
+     * 不属于任何军团时始终返回false
+     */
+    public boolean 目标近期不可达() {
+        LivingEntity 目标 = this.getTarget();
+        if (目标 == null || get军团ID() == -1) {
+            return false;
+        }
+        com.enhancedzombies.mod.legion.LegionPathFailureCache 缓存 =
+            com.enhancedzombies.mod.legion.ZombieLegionManager.getInstance().获取军团路径缓存(this);
+        return 缓存 != null && 缓存.是否不可达(this.blockPosition(), 目标.blockPosition(), this.level().getGameTime());
+    }
+    
+    /**
+     * 把到当前目标的寻路失败记录到所属军团的寻路失败缓存，其他成员在短时间内不再重复寻路
+     */
+    public void 记录目标不可达() {
+        LivingEntity 目标 = this.getTarget();
+        if (目标 == null || get军团ID() == -1) {
+            return;
+        }
+        com.enhancedzombies.mod.legion.LegionPathFailureCache 缓存 =
+            com.enhancedzombies.mod.legion.ZombieLegionManager.getInstance().获取军团路径缓存(this);
+        if (缓存 != null) {
+            缓存.记录不可达(this.blockPosition(), 目标.blockPosition(), this.level().getGameTime());
+        }
+    }
+    
+    /**
+     * 设置追踪距离属性（数值不变时不写入，避免每次追踪都同步属性）
+     */
+    private void 设置追踪距离(double 追踪距离) {
+        ZombieAttributeWriter.设置目标值(this, Attributes.FOLLOW_RANGE, 追踪距离修饰符ID,
+            "Enhanced zombie follow range", 追踪距离);
+    }
+    
     /**
      * 更新智能行为逻辑
      * 时间复杂度：O(1) - 优化后减少复杂计算
      */
     private void 更新智能行为() {
-        // 更新军团成员列表（降低频率）
-        if (this.tickCount % 200 == 0) {
-            更新军团成员();
-        }
+        // 更新军团成员列表（由时间轮每200刻调用一次）
+        更新军团成员();
     }
     
     /**
@@ -337,21 +486,24 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
     private void 执行军团协作() {
         if (get军团ID() == -1) return;
         
-        // 控制实体查询频率
-        实体查询计时器++;
-        if (实体查询计时器 < 实体查询间隔) return;
-        实体查询计时器 = 0;
-        
-        // 寻找附近的军团成员（减小查询范围）
-        List<EnhancedZombie> 附近军团成员 = this.level().getEntitiesOfClass(
-            EnhancedZombie.class, 
-            this.getBoundingBox().inflate(8.0), // 从16.0减少到8.0
-            zombie -> zombie.get军团ID() == this.get军团ID() && zombie != this
-        );
-        
-        // 限制处理的成员数量，避免过多循环
-        if (附近军团成员.size() > 5) {
-            附近军团成员 = 附近军团成员.subList(0, 5);
+        // 控制实体查询频率（按游戏刻计）
+        long 当前刻 = com.enhancedzombies.mod.legion.ZombieLegionManager.getInstance().get定时轮().当前刻();
+        if (当前刻 < 下次实体查询刻) return;
+        下次实体查询刻 = 当前刻 + 实体查询间隔;
+        
+        // 从军团黑板读取最近的成员（限制处理数量，避免过多循环）
+        List<EnhancedZombie> 附近军团成员 = com.enhancedzombies.mod.legion.ZombieLegionManager.getInstance()
+            .获取附近军团成员(this, 8.0, 5);
+        
+        // 空闲时读取军团黑板上的共享目标（追踪范围内才接手）
+        if (this.getTarget() == null) {
+            com.enhancedzombies.mod.legion.LegionBlackboard 黑板 =
+                com.enhancedzombies.mod.legion.ZombieLegionManager.getInstance().获取军团黑板(this);
+            LivingEntity 共享目标 = 黑板 != null ? 黑板.get共享目标() : null;
+            if (共享目标 != null && 共享目标.level() == this.level() && this.canAttack(共享目标)
+                && this.distanceToSqr(共享目标) <= getFollowRange() * getFollowRange()) {
+                this.setTarget(共享目标);
+            }
         }
         
         // 共享目标信息（仅在有目标且成员较少时）
@@ -391,196 +543,30 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
      */
     private void 管理装备() {
         // 武器管理
-        if (this.getMainHandItem().isEmpty() && Math.random() < EnhancedZombiesConfig.武器生成概率.get()) {
+        if (this.getMainHandItem().isEmpty() && Math.random() < EnhancedZombiesConfig.快照().武器生成概率) {
             生成武器();
         }
         
         // 护甲管理
-        if (Math.random() < EnhancedZombiesConfig.护甲生成概率.get()) {
+        if (Math.random() < EnhancedZombiesConfig.快照().护甲生成概率) {
             生成护甲();
         }
     }
     
     /**
      * 生成武器装备
-     * 根据智能等级和军团长身份生成不同品质的武器
+     * 从预编译的装备方案表按智能等级和军团长身份抽样
      */
     private void 生成武器() {
-        ItemStack 武器;
-        
-        if (是否为军团长()) {
-            // 军团长专属：下界合金武器
-            武器 = new ItemStack(Items.NETHERITE_SWORD);
-            // 为军团长武器添加附魔
-            try {
-                武器.enchant(net.minecraft.world.item.enchantment.Enchantments.SHARPNESS, 5);
-                武器.enchant(net.minecraft.world.item.enchantment.Enchantments.UNBREAKING, 3);
-                武器.enchant(net.minecraft.world.item.enchantment.Enchantments.MENDING, 1);
-            } catch (Exception e) {
-                // 附魔失败时忽略
-            }
-        } else {
-            // 普通成员：多样化武器
-            int 智能等级 = get智能等级();
-            double 随机值 = Math.random();
-            
-            if (智能等级 >= 4 && 随机值 < 0.2) {
-                // 高智能：钻石武器
-                if (Math.random() < 0.6) {
-                    武器 = new ItemStack(Items.DIAMOND_SWORD);
-                } else {
-                    武器 = new ItemStack(Items.DIAMOND_AXE);
-                }
-            } else if (智能等级 >= 3 && 随机值 < 0.4) {
-                // 中等智能：铁质武器
-                double 武器选择 = Math.random();
-                if (武器选择 < 0.4) {
-                    武器 = new ItemStack(Items.IRON_SWORD);
-                } else if (武器选择 < 0.7) {
-                    武器 = new ItemStack(Items.IRON_AXE);
-                } else {
-                    武器 = new ItemStack(Items.IRON_SWORD); // 移除弩，改为铁剑
-                }
-            } else if (智能等级 >= 2 && 随机值 < 0.6) {
-                // 低等智能：石质武器
-                if (Math.random() < 0.5) {
-                    武器 = new ItemStack(Items.STONE_SWORD);
-                } else {
-                    武器 = new ItemStack(Items.STONE_AXE);
-                }
-            } else {
-                // 最低智能：木质武器
-                double 武器选择 = Math.random();
-                if (武器选择 < 0.4) {
-                    武器 = new ItemStack(Items.WOODEN_SWORD);
-                } else if (武器选择 < 0.7) {
-                    武器 = new ItemStack(Items.WOODEN_AXE);
-                } else {
-                    武器 = new ItemStack(Items.WOODEN_SWORD); // 移除弓，改为木剑
-                }
-            }
-            
-            // 普通成员附魔概率 - 只对近战武器附魔
-            if (Math.random() < EnhancedZombiesConfig.附魔装备概率.get()) {
-                try {
-                    武器.enchant(net.minecraft.world.item.enchantment.Enchantments.SHARPNESS, 1 + this.random.nextInt(3));
-                } catch (Exception e) {
-                    // 附魔失败时忽略
-                }
-            }
-        }
-        
-        this.setItemInHand(net.minecraft.world.InteractionHand.MAIN_HAND, 武器);
+        EquipmentLoadouts.装备武器(this, get智能等级(), 是否为军团长(), this.random);
     }
     
     /**
-     * 生成护甲装备
+     * 生成护甲装备（只填充空槽位）
      * 军团长获得全套下界合金护甲，普通成员获得多样化护甲
      */
     private void 生成护甲() {
-        if (是否为军团长()) {
-            // 军团长：全套下界合金护甲
-            生成军团长护甲();
-        } else {
-            // 普通成员：多样化护甲
-            生成普通护甲();
-        }
-    }
-    
-    /**
-     * 为军团长生成全套下界合金护甲
-     */
-    private void 生成军团长护甲() {
-        // 头盔
-        if (this.getItemBySlot(EquipmentSlot.HEAD).isEmpty()) {
-            ItemStack 头盔 = new ItemStack(Items.NETHERITE_HELMET);
-            try {
-                头盔.enchant(net.minecraft.world.item.enchantment.Enchantments.ALL_DAMAGE_PROTECTION, 4);
-                头盔.enchant(net.minecraft.world.item.enchantment.Enchantments.UNBREAKING, 3);
-                头盔.enchant(net.minecraft.world.item.enchantment.Enchantments.MENDING, 1);
-            } catch (Exception e) {}
-            this.setItemSlot(EquipmentSlot.HEAD, 头盔);
-        }
-        
-        // 胸甲
-        if (this.getItemBySlot(EquipmentSlot.CHEST).isEmpty()) {
-            ItemStack 胸甲 = new ItemStack(Items.NETHERITE_CHESTPLATE);
-            try {
-                胸甲.enchant(net.minecraft.world.item.enchantment.Enchantments.ALL_DAMAGE_PROTECTION, 4);
-                胸甲.enchant(net.minecraft.world.item.enchantment.Enchantments.UNBREAKING, 3);
-                胸甲.enchant(net.minecraft.world.item.enchantment.Enchantments.MENDING, 1);
-            } catch (Exception e) {}
-            this.setItemSlot(EquipmentSlot.CHEST, 胸甲);
-        }
-        
-        // 护腿
-        if (this.getItemBySlot(EquipmentSlot.LEGS).isEmpty()) {
-            ItemStack 护腿 = new ItemStack(Items.NETHERITE_LEGGINGS);
-            try {
-                护腿.enchant(net.minecraft.world.item.enchantment.Enchantments.ALL_DAMAGE_PROTECTION, 4);
-                护腿.enchant(net.minecraft.world.item.enchantment.Enchantments.UNBREAKING, 3);
-                护腿.enchant(net.minecraft.world.item.enchantment.Enchantments.MENDING, 1);
-            } catch (Exception e) {}
-            this.setItemSlot(EquipmentSlot.LEGS, 护腿);
-        }
-        
-        // 靴子
-        if (this.getItemBySlot(EquipmentSlot.FEET).isEmpty()) {
-            ItemStack 靴子 = new ItemStack(Items.NETHERITE_BOOTS);
-            try {
-                靴子.enchant(net.minecraft.world.item.enchantment.Enchantments.ALL_DAMAGE_PROTECTION, 4);
-                靴子.enchant(net.minecraft.world.item.enchantment.Enchantments.UNBREAKING, 3);
-                靴子.enchant(net.minecraft.world.item.enchantment.Enchantments.MENDING, 1);
-                靴子.enchant(net.minecraft.world.item.enchantment.Enchantments.DEPTH_STRIDER, 3);
-            } catch (Exception e) {}
-            this.setItemSlot(EquipmentSlot.FEET, 靴子);
-        }
-    }
-    
-    /**
-     * 为普通成员生成多样化护甲
-     */
-    private void 生成普通护甲() {
-        int 智能等级 = get智能等级();
-        
-        // 头盔生成
-        if (this.getItemBySlot(EquipmentSlot.HEAD).isEmpty() && Math.random() < 0.8) {
-            ItemStack 头盔;
-            if (智能等级 >= 4 && Math.random() < 0.3) {
-                头盔 = new ItemStack(Items.DIAMOND_HELMET);
-            } else if (智能等级 >= 3 && Math.random() < 0.5) {
-                头盔 = new ItemStack(Items.IRON_HELMET);
-            } else if (智能等级 >= 2 && Math.random() < 0.6) {
-                头盔 = new ItemStack(Items.CHAINMAIL_HELMET);
-            } else {
-                头盔 = new ItemStack(Items.LEATHER_HELMET);
-            }
-            this.setItemSlot(EquipmentSlot.HEAD, 头盔);
-        }
-        
-        // 胸甲生成（概率较低）
-        if (this.getItemBySlot(EquipmentSlot.CHEST).isEmpty() && Math.random() < 0.4) {
-            ItemStack 胸甲;
-            if (智能等级 >= 4 && Math.random() < 0.2) {
-                胸甲 = new ItemStack(Items.DIAMOND_CHESTPLATE);
-            } else if (智能等级 >= 3 && Math.random() < 0.4) {
-                胸甲 = new ItemStack(Items.IRON_CHESTPLATE);
-            } else {
-                胸甲 = new ItemStack(Items.LEATHER_CHESTPLATE);
-            }
-            this.setItemSlot(EquipmentSlot.CHEST, 胸甲);
-        }
-        
-        // 靴子生成（概率中等）
-        if (this.getItemBySlot(EquipmentSlot.FEET).isEmpty() && Math.random() < 0.6) {
-            ItemStack 靴子;
-            if (智能等级 >= 3 && Math.random() < 0.3) {
-                靴子 = new ItemStack(Items.IRON_BOOTS);
-            } else {
-                靴子 = new ItemStack(Items.LEATHER_BOOTS);
-            }
-            this.setItemSlot(EquipmentSlot.FEET, 靴子);
-        }
+        EquipmentLoadouts.装备护甲(this, get智能等级(), 是否为军团长(), this.random, false);
     }
     
     /**
@@ -599,9 +585,10 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
         
         for (int i = 0; i < 检查数量; i++) {
             UUID uuid = 军团成员列表.get(i);
-            Entity 实体 = ((net.minecraft.server.level.ServerLevel)this.level()).getEntity(uuid);
+            // 经由军团的实体缓存解析成员，不再每次按UUID查询世界
+            EnhancedZombie 实体 = com.enhancedzombies.mod.legion.ZombieLegionManager.getInstance().获取成员实体(this.level(), uuid);
             if (实体 == null || 
-                !(实体 instanceof EnhancedZombie) || 
+                实体.level() != this.level() || 
                 实体.distanceTo(this) > 24.0) { // 减小距离阈值
                 待移除列表.add(uuid);
             }
@@ -649,7 +636,7 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
     }
     
     public boolean 可以建造() {
-        return 建造冷却时间 <= 0;
+        return 建造冷却时间 <= 0 && getAI档位().允许方块行为();
     }
     
     public void set建造冷却(int 冷却时间) {
@@ -657,7 +644,7 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
     }
     
     public boolean 可以破坏() {
-        return 破坏冷却时间 <= 0;
+        return 破坏冷却时间 <= 0 && getAI档位().允许方块行为();
     }
     
     public void set破坏冷却(int 冷却时间) {
@@ -785,19 +772,23 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
                                        @Nullable CompoundTag dataTag) {
         SpawnGroupData 生成数据 = super.finalizeSpawn(level, difficulty, reason, spawnData, dataTag);
         
-        // 设置初始智能等级（普通成员）
-        set智能等级(1 + this.random.nextInt(3));
-        
-        // 默认设为普通成员，军团长身份由ZombieLegionManager统一管理
-        set是否为军团长(false);
-        
-        // 普通成员装备生成
-        if (Math.random() < 0.8) {
+        if (是否为军团长()) {
+            // 生成前已由设置为军团长()指定，直接装备军团长专属装备（只装备这一次）
             生成武器();
+            EquipmentLoadouts.装备护甲(this, get智能等级(), true, this.random, true);
+        } else {
+            // 设置初始智能等级（普通成员）
+            set智能等级(1 + this.random.nextInt(3));
+            
+            // 普通成员装备生成
+            if (Math.random() < 0.8) {
+                生成武器();
+            }
+            if (Math.random() < 0.6) {
+                生成护甲();
+            }
         }
-        if (Math.random() < 0.6) {
-            生成护甲();
-        }
+        已生成初始装备 = true;
         
         return 生成数据;
     }
@@ -805,24 +796,20 @@ public class EnhancedZombie extends Zombie implements RangedAttackMob {
     /**
      * 设置为军团长（由ZombieLegionManager调用）
      * 包含军团长专属的属性和装备设置
+     * 应在finalizeSpawn之前调用，由finalizeSpawn只装备一次军团长装备；
+     * 已生成过初始装备的僵尸被提升时直接替换为军团长装备
      */
     public void 设置为军团长() {
         set是否为军团长(true);
         set智能等级(4 + this.random.nextInt(2)); // 军团长智能等级4-5
         
-        // 清空现有装备，重新生成军团长专属装备
-        this.setItemSlot(EquipmentSlot.MAINHAND, ItemStack.EMPTY);
-        this.setItemSlot(EquipmentSlot.HEAD, ItemStack.EMPTY);
-        this.setItemSlot(EquipmentSlot.CHEST, ItemStack.EMPTY);
-        this.setItemSlot(EquipmentSlot.LEGS, ItemStack.EMPTY);
-        this.setItemSlot(EquipmentSlot.FEET, ItemStack.EMPTY);
-        
         // 为军团长设置特殊名称
         设置军团长名称();
         
-        // 军团长必定生成高级装备
-        生成武器();
-        生成护甲();
+        if (已生成初始装备) {
+            生成武器();
+            EquipmentLoadouts.装备护甲(this, get智能等级(), true, this.random, true);
+        }
     }
     
     /**
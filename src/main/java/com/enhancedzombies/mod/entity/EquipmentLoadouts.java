@@ -0,0 +1,235 @@
+package com.enhancedzombies.mod.entity;
+
+import com.enhancedzombies.mod.config.EnhancedZombiesConfig;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.enchantment.Enchantments;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 僵尸装备方案表
+ * 功能：把装备生成规则预先编译为按智能等级划分的加权方案表，生成僵尸时只需抽样并复制模板物品
+ * 职责：
+ * 1. 普通成员按智能等级（1-5）各有一张武器表和一张护甲组合表，由别名表O(1)抽样
+ * 2. 武器表包含附魔等级的变体（按附魔装备概率展开），护甲组合表是头盔、胸甲、靴子三个槽位的联合分布
+ * 3. 军团长只有一套固定的附魔下界合金装备
+ * 4. 配置加载或重载时重新编译，新表构建完成后整体替换，抽样方始终读到完整的一套表
+ *
+ * 编译出的分布与原先逐个槽位嵌套Math.random()判断的分布相同
+ */
+public final class EquipmentLoadouts {
+
+    private static final int 最高智能等级 = 5;
+
+    // 护甲组合的槽位顺序
+    private static final EquipmentSlot[] 护甲槽位 = {
+        EquipmentSlot.HEAD, EquipmentSlot.CHEST, EquipmentSlot.LEGS, EquipmentSlot.FEET
+    };
+
+    /**
+     * 一次编译的全部方案表（构建后不再修改）
+     */
+    private static final class 方案表 {
+        final AliasTable<ItemStack>[] 武器表;     // 下标为智能等级
+        final AliasTable<ItemStack[]>[] 护甲表;   // 下标为智能等级，元素按护甲槽位顺序排列
+        final ItemStack 军团长武器;
+        final ItemStack[] 军团长护甲;
+
+        @SuppressWarnings("unchecked")
+        方案表() {
+            武器表 = new AliasTable[最高智能等级 + 1];
+            护甲表 = new AliasTable[最高智能等级 + 1];
+            军团长武器 = 创建附魔物品(Items.NETHERITE_SWORD, 5, 3, 1, 0, 0);
+            军团长护甲 = new ItemStack[] {
+                创建附魔物品(Items.NETHERITE_HELMET, 0, 3, 1, 4, 0),
+                创建附魔物品(Items.NETHERITE_CHESTPLATE, 0, 3, 1, 4, 0),
+                创建附魔物品(Items.NETHERITE_LEGGINGS, 0, 3, 1, 4, 0),
+                创建附魔物品(Items.NETHERITE_BOOTS, 0, 3, 1, 4, 3)
+            };
+        }
+    }
+
+    private static volatile 方案表 当前方案表;
+    private static long 编译次数;
+
+    private EquipmentLoadouts() {}
+
+    /**
+     * 按当前配置重新编译所有方案表（配置加载或重载时调用，可能在配置文件监视线程上执行）
+     * 时间复杂度：O(L × (W + H × C × F)) - L为智能等级数，W、H、C、F为各槽位的结果数量
+     */
+    public static void 编译() {
+        double 附魔概率 = EnhancedZombiesConfig.快照().附魔装备概率;
+        方案表 新表 = new 方案表();
+        for (int 智能等级 = 1; 智能等级 <= 最高智能等级; 智能等级++) {
+            新表.武器表[智能等级] = 编译武器表(智能等级, 附魔概率);
+            新表.护甲表[智能等级] = 编译护甲表(智能等级);
+        }
+        当前方案表 = 新表;
+        编译次数++;
+    }
+
+    /**
+     * 普通成员的武器分布：同一个随机值依次与0.2、0.4、0.6比较，
+     * 按智能等级决定能否选中钻石、铁、石质武器，都未选中时为木质武器
+     */
+    private static AliasTable<ItemStack> 编译武器表(int 智能等级, double 附魔概率) {
+        AliasTable.构建器<ItemStack> 构建器 = new AliasTable.构建器<>();
+        double 剩余 = 1.0;
+        if (智能等级 >= 4) {
+            添加武器(构建器, Items.DIAMOND_SWORD, 0.2 * 0.6, 附魔概率);
+            添加武器(构建器, Items.DIAMOND_AXE, 0.2 * 0.4, 附魔概率);
+            剩余 -= 0.2;
+        }
+        if (智能等级 >= 3) {
+            double 铁质 = 0.4 - (1.0 - 剩余);
+            添加武器(构建器, Items.IRON_SWORD, 铁质 * 0.7, 附魔概率);
+            添加武器(构建器, Items.IRON_AXE, 铁质 * 0.3, 附魔概率);
+            剩余 -= 铁质;
+        }
+        if (智能等级 >= 2) {
+            double 石质 = 0.6 - (1.0 - 剩余);
+            添加武器(构建器, Items.STONE_SWORD, 石质 * 0.5, 附魔概率);
+            添加武器(构建器, Items.STONE_AXE, 石质 * 0.5, 附魔概率);
+            剩余 -= 石质;
+        }
+        添加武器(构建器, Items.WOODEN_SWORD, 剩余 * 0.7, 附魔概率);
+        添加武器(构建器, Items.WOODEN_AXE, 剩余 * 0.3, 附魔概率);
+        return 构建器.构建();
+    }
+
+    /**
+     * 添加一种武器及其锋利I-III的附魔变体
+     */
+    private static void 添加武器(AliasTable.构建器<ItemStack> 构建器, Item 武器, double 权重, double 附魔概率) {
+        构建器.添加(new ItemStack(武器), 权重 * (1.0 - 附魔概率));
+        for (int 等级 = 1; 等级 <= 3; 等级++) {
+            构建器.添加(创建附魔物品(武器, 等级, 0, 0, 0, 0), 权重 * 附魔概率 / 3.0);
+        }
+    }
+
+    /**
+     * 普通成员的护甲组合分布：头盔80%、胸甲40%、靴子60%，各槽位独立，材质随智能等级提高；普通成员没有护腿
+     */
+    private static AliasTable<ItemStack[]> 编译护甲表(int 智能等级) {
+        槽位分布 头盔 = new 槽位分布(0.8);
+        if (智能等级 >= 4) {
+            头盔.添加(Items.DIAMOND_HELMET, 0.3).添加(Items.IRON_HELMET, 0.35)
+                .添加(Items.CHAINMAIL_HELMET, 0.21).添加(Items.LEATHER_HELMET, 0.14);
+        } else if (智能等级 == 3) {
+            头盔.添加(Items.IRON_HELMET, 0.5).添加(Items.CHAINMAIL_HELMET, 0.3).添加(Items.LEATHER_HELMET, 0.2);
+        } else if (智能等级 == 2) {
+            头盔.添加(Items.CHAINMAIL_HELMET, 0.6).添加(Items.LEATHER_HELMET, 0.4);
+        } else {
+            头盔.添加(Items.LEATHER_HELMET, 1.0);
+        }
+
+        槽位分布 胸甲 = new 槽位分布(0.4);
+        if (智能等级 >= 4) {
+            胸甲.添加(Items.DIAMOND_CHESTPLATE, 0.2).添加(Items.IRON_CHESTPLATE, 0.32).添加(Items.LEATHER_CHESTPLATE, 0.48);
+        } else if (智能等级 == 3) {
+            胸甲.添加(Items.IRON_CHESTPLATE, 0.4).添加(Items.LEATHER_CHESTPLATE, 0.6);
+        } else {
+            胸甲.添加(Items.LEATHER_CHESTPLATE, 1.0);
+        }
+
+        槽位分布 靴子 = new 槽位分布(0.6);
+        if (智能等级 >= 3) {
+            靴子.添加(Items.IRON_BOOTS, 0.3).添加(Items.LEATHER_BOOTS, 0.7);
+        } else {
+            靴子.添加(Items.LEATHER_BOOTS, 1.0);
+        }
+
+        AliasTable.构建器<ItemStack[]> 构建器 = new AliasTable.构建器<>();
+        for (int h = 0; h < 头盔.物品.size(); h++) {
+            for (int c = 0; c < 胸甲.物品.size(); c++) {
+                for (int f = 0; f < 靴子.物品.size(); f++) {
+                    ItemStack[] 组合 = { 头盔.物品.get(h), 胸甲.物品.get(c), ItemStack.EMPTY, 靴子.物品.get(f) };
+                    构建器.添加(组合, 头盔.权重.get(h) * 胸甲.权重.get(c) * 靴子.权重.get(f));
+                }
+            }
+        }
+        return 构建器.构建();
+    }
+
+    /**
+     * 单个护甲槽位的分布，第一个结果是空槽位
+     */
+    private static final class 槽位分布 {
+        final List<ItemStack> 物品 = new ArrayList<>();
+        final List<Double> 权重 = new ArrayList<>();
+        private final double 生成概率;
+
+        槽位分布(double 生成概率) {
+            this.生成概率 = 生成概率;
+            物品.add(ItemStack.EMPTY);
+            权重.add(1.0 - 生成概率);
+        }
+
+        槽位分布 添加(Item 物品种类, double 条件概率) {
+            物品.add(new ItemStack(物品种类));
+            权重.add(生成概率 * 条件概率);
+            return this;
+        }
+    }
+
+    private static ItemStack 创建附魔物品(Item 物品种类, int 锋利, int 耐久, int 经验修补, int 保护, int 深海探索者) {
+        ItemStack 物品 = new ItemStack(物品种类);
+        if (锋利 > 0) 物品.enchant(Enchantments.SHARPNESS, 锋利);
+        if (保护 > 0) 物品.enchant(Enchantments.ALL_DAMAGE_PROTECTION, 保护);
+        if (耐久 > 0) 物品.enchant(Enchantments.UNBREAKING, 耐久);
+        if (经验修补 > 0) 物品.enchant(Enchantments.MENDING, 经验修补);
+        if (深海探索者 > 0) 物品.enchant(Enchantments.DEPTH_STRIDER, 深海探索者);
+        return 物品;
+    }
+
+    private static 方案表 获取方案表() {
+        方案表 表 = 当前方案表;
+        if (表 == null) {
+            编译();
+            表 = 当前方案表;
+        }
+        return 表;
+    }
+
+    // 装备
+
+    /**
+     * 按方案表为实体装备主手武器（替换原有武器）
+     * 时间复杂度：O(1)
+     */
+    public static void 装备武器(Mob 实体, int 智能等级, boolean 军团长, RandomSource 随机) {
+        方案表 表 = 获取方案表();
+        ItemStack 模板 = 军团长 ? 表.军团长武器 : 表.武器表[限制等级(智能等级)].抽样(随机);
+        实体.setItemSlot(EquipmentSlot.MAINHAND, 模板.copy());
+    }
+
+    /**
+     * 按方案表为实体装备护甲
+     * 时间复杂度：O(1)
+     * @param 替换已有护甲 为true时替换所有槽位（包括清空方案中没有的槽位），否则只填充空槽位
+     */
+    public static void 装备护甲(Mob 实体, int 智能等级, boolean 军团长, RandomSource 随机, boolean 替换已有护甲) {
+        方案表 表 = 获取方案表();
+        ItemStack[] 组合 = 军团长 ? 表.军团长护甲 : 表.护甲表[限制等级(智能等级)].抽样(随机);
+        for (int i = 0; i < 护甲槽位.length; i++) {
+            if (替换已有护甲) {
+                实体.setItemSlot(护甲槽位[i], 组合[i].copy());
+            } else if (!组合[i].isEmpty() && 实体.getItemBySlot(护甲槽位[i]).isEmpty()) {
+                实体.setItemSlot(护甲槽位[i], 组合[i].copy());
+            }
+        }
+    }
+
+    private static int 限制等级(int 智能等级) {
+        return Math.max(1, Math.min(最高智能等级, 智能等级));
+    }
+
+    public static long get编译次数() { return 编译次数; }
+}
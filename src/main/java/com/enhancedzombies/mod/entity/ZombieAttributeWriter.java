@@ -0,0 +1,63 @@
+package com.enhancedzombies.mod.entity;
+
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.ai.attributes.Attribute;
+import net.minecraft.world.entity.ai.attributes.AttributeInstance;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
+
+import java.util.UUID;
+
+/**
+ * 增强僵尸属性写入层
+ * 功能：把属性的目标值写成固定UUID的临时加成修饰符，只在数值真正变化时写入
+ * 职责：
+ * 1. 按目标值与基础值的差计算加成，与已有修饰符的加成相同时跳过写入
+ * 2. 不再改写基础值，属性的基础值保持为注册时的配置值
+ * 3. 统计实际写入和被跳过的次数（每次实际写入都会标记属性为脏并同步给追踪的客户端）
+ *
+ * 临时修饰符不随实体保存，实体重新加载后由下一次设置目标或目标追踪重新写入
+ * 只在服务器线程上使用，因此不做同步
+ */
+public final class ZombieAttributeWriter {
+
+    private static final double 误差 = 1.0E-6;
+
+    // 统计
+    private static long 写入次数;
+    private static long 跳过次数;
+
+    private ZombieAttributeWriter() {}
+
+    /**
+     * 让属性的值（不计其他修饰符）等于目标值
+     * 时间复杂度：O(1)
+     * @param 修饰符ID 每种用途固定的修饰符UUID
+     * @return 是否实际写入
+     */
+    public static boolean 设置目标值(LivingEntity 实体, Attribute 属性, UUID 修饰符ID, String 修饰符名称, double 目标值) {
+        AttributeInstance 实例 = 实体.getAttribute(属性);
+        if (实例 == null) {
+            return false;
+        }
+
+        double 加成 = 目标值 - 实例.getBaseValue();
+        AttributeModifier 当前修饰符 = 实例.getModifier(修饰符ID);
+        double 当前加成 = 当前修饰符 != null ? 当前修饰符.getAmount() : 0.0;
+        if (Math.abs(加成 - 当前加成) < 误差) {
+            跳过次数++;
+            return false;
+        }
+
+        if (当前修饰符 != null) {
+            实例.removeModifier(修饰符ID);
+        }
+        if (Math.abs(加成) >= 误差) {
+            实例.addTransientModifier(new AttributeModifier(修饰符ID, 修饰符名称, 加成, AttributeModifier.Operation.ADDITION));
+        }
+        写入次数++;
+        return true;
+    }
+
+    public static long get写入次数() { return 写入次数; }
+    public static long get跳过次数() { return 跳过次数; }
+}
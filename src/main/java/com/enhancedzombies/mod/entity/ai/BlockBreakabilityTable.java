@@ -0,0 +1,114 @@
+package com.enhancedzombies.mod.entity.ai;
+
+import com.enhancedzombies.mod.EnhancedZombiesMod;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * 方块可破坏性表
+ * 功能：按方块状态ID预先计算僵尸能否破坏该方块以及基础破坏时间，查询只需一次数组读取
+ * 职责：
+ * 1. 带有enhancedzombies:unbreakable标签的方块不可破坏，带有enhancedzombies:breakable标签的方块可以破坏
+ * 2. 两个标签都没有的方块按硬度判断：硬度在0到3之间（含）可以破坏；空气不可破坏
+ * 3. 基础破坏时间按硬度计算，智能等级的调整由调用方在查询后进行
+ * 4. 服务器加载数据包（启动和/reload）时按最新的标签重新编译，新表构建完成后整体替换
+ *
+ * 其他模组和数据包只需往两个标签中添加方块即可改变僵尸的破坏行为，不需要改代码
+ */
+public final class BlockBreakabilityTable {
+
+    public static final TagKey<Block> 可破坏标签 =
+        TagKey.create(Registries.BLOCK, new ResourceLocation(EnhancedZombiesMod.MODID, "breakable"));
+    public static final TagKey<Block> 不可破坏标签 =
+        TagKey.create(Registries.BLOCK, new ResourceLocation(EnhancedZombiesMod.MODID, "unbreakable"));
+
+    private static final float 默认最大硬度 = 3.0F;
+    private static final int 基础破坏时间 = 60; // 3秒 (60 ticks)，按硬度增加
+
+    /**
+     * 一次编译的结果（构建后不再修改），下标为方块状态ID
+     */
+    private static final class 表 {
+        final boolean[] 可破坏;
+        final int[] 基础破坏刻数;
+
+        表(int 数量) {
+            可破坏 = new boolean[数量];
+            基础破坏刻数 = new int[数量];
+        }
+    }
+
+    private static volatile 表 当前表;
+    private static long 编译次数;
+
+    private BlockBreakabilityTable() {}
+
+    /**
+     * 按当前的方块标签重新编译
+     * 时间复杂度：O(S) - S为已注册的方块状态数量
+     */
+    public static void 编译() {
+        表 新表 = new 表(Block.BLOCK_STATE_REGISTRY.size());
+        for (BlockState 状态 : Block.BLOCK_STATE_REGISTRY) {
+            int id = Block.getId(状态);
+            float 硬度 = 读取硬度(状态);
+            if (状态.isAir() || 状态.is(不可破坏标签)) {
+                新表.可破坏[id] = false;
+            } else if (状态.is(可破坏标签)) {
+                新表.可破坏[id] = true;
+            } else {
+                新表.可破坏[id] = 硬度 >= 0 && 硬度 <= 默认最大硬度;
+            }
+            新表.基础破坏刻数[id] = 硬度 >= 0 ? (int) (基础破坏时间 * (1.0F + 硬度 * 0.5F)) : 基础破坏时间;
+        }
+        当前表 = 新表;
+        编译次数++;
+    }
+
+    /**
+     * 僵尸能否破坏该方块状态
+     * 时间复杂度：O(1)
+     */
+    public static boolean 可破坏(BlockState 状态) {
+        表 当前 = 获取表();
+        int id = Block.getId(状态);
+        return id >= 0 && id < 当前.可破坏.length && 当前.可破坏[id];
+    }
+
+    /**
+     * 该方块状态的基础破坏时间（刻），未考虑智能等级
+     * 时间复杂度：O(1)
+     */
+    public static int 基础破坏刻数(BlockState 状态) {
+        表 当前 = 获取表();
+        int id = Block.getId(状态);
+        return id >= 0 && id < 当前.基础破坏刻数.length ? 当前.基础破坏刻数[id] : 基础破坏时间;
+    }
+
+    public static long get编译次数() { return 编译次数; }
+
+    private static 表 获取表() {
+        表 当前 = 当前表;
+        if (当前 == null) {
+            编译();
+            当前 = 当前表;
+        }
+        return 当前;
+    }
+
+    /**
+     * 读取方块的默认硬度（不依赖具体位置），个别模组方块读取失败时按不可破坏处理
+     */
+    private static float 读取硬度(BlockState 状态) {
+        try {
+            return 状态.getDestroySpeed(EmptyBlockGetter.INSTANCE, BlockPos.ZERO);
+        } catch (Exception e) {
+            return -1.0F;
+        }
+    }
+}
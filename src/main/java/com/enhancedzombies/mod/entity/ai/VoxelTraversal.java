@@ -0,0 +1,171 @@
+package com.enhancedzombies.mod.entity.ai;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+/**
+ * 体素遍历（Amanatides–Woo DDA）
+ * 功能：沿一条线段按顺序访问它穿过的每个方块格子，每个格子恰好访问一次
+ * 职责：
+ * 1. 每一步只比较三个轴上到下一个格子边界的参数距离，沿最近的轴前进一格，负坐标下也落在正确的格子
+ * 2. 读取当前格子及其相邻格子的方块状态，缓存最近一次访问的区块和区段，同一区段内的读取不再查找区块
+ * 3. 遍历和读取都不分配对象（读取位置是可复用的MutableBlockPos，调用方需要保存时自行immutable()）
+ *
+ * 只读取已加载的区块，区块未加载或超出高度范围时返回虚空空气
+ * 每个实例只在一个目标中使用（服务器线程），因此不做同步
+ */
+public final class VoxelTraversal {
+
+    private static final BlockState 虚空空气 = Blocks.VOID_AIR.defaultBlockState();
+
+    private final Level 世界;
+    private final BlockPos.MutableBlockPos 读取位置 = new BlockPos.MutableBlockPos();
+
+    // 遍历状态
+    private int x, y, z;
+    private int 步进X, 步进Y, 步进Z;
+    private double 下一边界X, 下一边界Y, 下一边界Z;  // 到达下一个格子边界时的线段参数
+    private double 参数增量X, 参数增量Y, 参数增量Z;   // 穿过一整个格子所需的参数
+    private double 参数上限;
+    private boolean 首格;
+
+    // 区块和区段缓存（每次开始遍历时清空，区块可能在两次遍历之间卸载）
+    private LevelChunk 缓存区块;
+    private int 缓存区块X, 缓存区块Z;
+    private LevelChunkSection 缓存区段;
+    private int 缓存区段索引;
+
+    public VoxelTraversal(Level 世界) {
+        this.世界 = 世界;
+    }
+
+    /**
+     * 开始遍历从起点到终点的线段，线段长度超过最大长度时只遍历前最大长度的部分
+     * 时间复杂度：O(1)
+     */
+    public void 开始(double 起点X, double 起点Y, double 起点Z,
+                   double 终点X, double 终点Y, double 终点Z, double 最大长度) {
+        清空缓存();
+
+        double dx = 终点X - 起点X, dy = 终点Y - 起点Y, dz = 终点Z - 起点Z;
+        double 长度 = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        参数上限 = 长度 > 0 ? Math.min(1.0, 最大长度 / 长度) : 0;
+
+        x = (int) Math.floor(起点X);
+        y = (int) Math.floor(起点Y);
+        z = (int) Math.floor(起点Z);
+
+        步进X = 符号(dx);
+        步进Y = 符号(dy);
+        步进Z = 符号(dz);
+        参数增量X = 步进X != 0 ? 1.0 / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        参数增量Y = 步进Y != 0 ? 1.0 / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        参数增量Z = 步进Z != 0 ? 1.0 / Math.abs(dz) : Double.POSITIVE_INFINITY;
+        下一边界X = 初始边界(起点X, x, 步进X, 参数增量X);
+        下一边界Y = 初始边界(起点Y, y, 步进Y, 参数增量Y);
+        下一边界Z = 初始边界(起点Z, z, 步进Z, 参数增量Z);
+        首格 = true;
+    }
+
+    /**
+     * 前进到下一个格子，第一次调用停在起点所在的格子
+     * 时间复杂度：O(1)
+     * @return 是否还有格子；越过线段末端时返回false
+     */
+    public boolean 下一格() {
+        if (首格) {
+            首格 = false;
+            return true;
+        }
+        if (下一边界X < 下一边界Y && 下一边界X < 下一边界Z) {
+            if (下一边界X > 参数上限) return false;
+            x += 步进X;
+            下一边界X += 参数增量X;
+        } else if (下一边界Y < 下一边界Z) {
+            if (下一边界Y > 参数上限) return false;
+            y += 步进Y;
+            下一边界Y += 参数增量Y;
+        } else {
+            if (下一边界Z > 参数上限) return false;
+            z += 步进Z;
+            下一边界Z += 参数增量Z;
+        }
+        return true;
+    }
+
+    public int 当前X() { return x; }
+    public int 当前Y() { return y; }
+    public int 当前Z() { return z; }
+
+    /**
+     * 读取当前格子偏移后的方块状态，同时把读取位置设为该位置
+     * 时间复杂度：O(1)
+     */
+    public BlockState 读取方块(int 偏移X, int 偏移Y, int 偏移Z) {
+        return 读取方块绝对(x + 偏移X, y + 偏移Y, z + 偏移Z);
+    }
+
+    /**
+     * 读取任意位置的方块状态（经由区块和区段缓存），同时把读取位置设为该位置
+     * 时间复杂度：O(1)
+     */
+    public BlockState 读取方块绝对(int 方块X, int 方块Y, int 方块Z) {
+        读取位置.set(方块X, 方块Y, 方块Z);
+        if (世界.isOutsideBuildHeight(方块Y)) {
+            return 虚空空气;
+        }
+
+        int 区块X = 方块X >> 4, 区块Z = 方块Z >> 4;
+        int 区段索引 = 世界.getSectionIndex(方块Y);
+        if (缓存区块 == null || 区块X != 缓存区块X || 区块Z != 缓存区块Z) {
+            缓存区块 = 世界.getChunkSource().getChunkNow(区块X, 区块Z);
+            缓存区块X = 区块X;
+            缓存区块Z = 区块Z;
+            缓存区段 = null;
+            if (缓存区块 == null) {
+                return 虚空空气;
+            }
+        }
+        if (缓存区段 == null || 区段索引 != 缓存区段索引) {
+            缓存区段 = 缓存区块.getSection(区段索引);
+            缓存区段索引 = 区段索引;
+        }
+        if (缓存区段.hasOnlyAir()) {
+            return Blocks.AIR.defaultBlockState();
+        }
+        return 缓存区段.getBlockState(方块X & 15, 方块Y & 15, 方块Z & 15);
+    }
+
+    /**
+     * 最近一次读取的位置（可复用对象，下一次读取时会被改写）
+     */
+    public BlockPos.MutableBlockPos 读取位置() {
+        return 读取位置;
+    }
+
+    private void 清空缓存() {
+        缓存区块 = null;
+        缓存区段 = null;
+    }
+
+    private static int 符号(double 值) {
+        return 值 > 0 ? 1 : (值 < 0 ? -1 : 0);
+    }
+
+    /**
+     * 从起点到该轴上第一个格子边界的线段参数
+     */
+    private static double 初始边界(double 起点, int 格子, int 步进, double 参数增量) {
+        if (步进 > 0) {
+            return (格子 + 1 - 起点) * 参数增量;
+        }
+        if (步进 < 0) {
+            return (起点 - 格子) * 参数增量;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
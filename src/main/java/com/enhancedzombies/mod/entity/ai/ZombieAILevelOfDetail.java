@@ -0,0 +1,142 @@
+package com.enhancedzombies.mod.entity.ai;
+
+import com.enhancedzombies.mod.config.ConfigSnapshot;
+import com.enhancedzombies.mod.config.EnhancedZombiesConfig;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+
+/**
+ * 僵尸AI分级（LOD）
+ * 功能：按与最近玩家的距离和所属军团的状态为增强僵尸划分AI档位
+ * 职责：
+ * 1. 近距：完整AI
+ * 2. 中距：受控目标每2次才评估一次，目标追踪频率减半
+ * 3. 远距：禁用方块破坏和建造，没有目标时不搜索新目标，受控目标每4次才评估一次
+ * 4. 冻结：空闲（没有目标、最近未受伤）且远离玩家时冻结移动和目标选择，只保留漂浮
+ * 5. 档位切换带滞后距离，避免在阈值附近来回切换；统计各档位的僵尸数量和切换次数
+ *
+ * 军团处于追击或战斗状态时成员最多降到中距档位
+ * 只在服务器线程上使用，因此不做同步
+ */
+public final class ZombieAILevelOfDetail {
+
+    /**
+     * AI档位，距离从近到远排列
+     */
+    public enum 档位 {
+        近距(1, true, true, 20),
+        中距(2, true, true, 40),
+        远距(4, false, false, 80),
+        冻结(0, false, false, 0);
+
+        private final int 评估间隔;       // 受控目标每隔多少次canUse才真正评估，0表示不评估
+        private final boolean 允许方块行为;
+        private final boolean 允许目标搜索;
+        private final int 追踪间隔;       // 增强目标追踪的间隔刻数，0表示不追踪
+
+        档位(int 评估间隔, boolean 允许方块行为, boolean 允许目标搜索, int 追踪间隔) {
+            this.评估间隔 = 评估间隔;
+            this.允许方块行为 = 允许方块行为;
+            this.允许目标搜索 = 允许目标搜索;
+            this.追踪间隔 = 追踪间隔;
+        }
+
+        public int get评估间隔() { return 评估间隔; }
+        public boolean 允许方块行为() { return 允许方块行为; }
+        public boolean 允许目标搜索() { return 允许目标搜索; }
+        public int get追踪间隔() { return 追踪间隔; }
+    }
+
+    /**
+     * 档位评估周期（刻），各僵尸按实体ID错开
+     */
+    public static final int 评估周期 = 20;
+
+    private static final 档位[] 所有档位 = 档位.values();
+
+    // 统计
+    private static final int[] 档位数量 = new int[所有档位.length];
+    private static long 切换次数;
+
+    private ZombieAILevelOfDetail() {}
+
+    /**
+     * 计算新的档位
+     * 算法：依次与近距、远距、冻结三个阈值比较，向远处切换需超过阈值加滞后距离，
+     *       向近处切换需低于阈值减滞后距离，得到距离档位后再按目标和军团状态限制
+     * 时间复杂度：O(1)
+     * @param 当前 当前档位，尚未评估时为null（不使用滞后）
+     * @param 距离 与最近玩家的距离，没有玩家时为Double.MAX_VALUE
+     * @param 空闲 没有目标且最近未受到攻击
+     * @param 军团交战 所属军团处于追击或战斗状态
+     */
+    public static 档位 计算档位(档位 当前, double 距离, boolean 空闲, boolean 军团交战) {
+        ConfigSnapshot 配置 = EnhancedZombiesConfig.快照();
+        if (!配置.启用AI分级) {
+            return 档位.近距;
+        }
+
+        double 滞后 = 配置.AI分级滞后距离;
+        double[] 阈值 = { 配置.AI分级近距离, 配置.AI分级远距离, 配置.AI冻结距离 };
+
+        int 当前级别 = 当前 != null ? 当前.ordinal() : -1;
+        int 级别 = 0;
+        for (int i = 0; i < 阈值.length; i++) {
+            double 边界 = 当前级别 < 0 ? 阈值[i] : (当前级别 > i ? 阈值[i] - 滞后 : 阈值[i] + 滞后);
+            if (距离 > 边界) {
+                级别 = i + 1;
+            }
+        }
+
+        if (级别 == 档位.冻结.ordinal() && !空闲) {
+            级别 = 档位.远距.ordinal();
+        }
+        if (军团交战) {
+            级别 = Math.min(级别, 档位.中距.ordinal());
+        }
+        return 所有档位[级别];
+    }
+
+    /**
+     * 与最近的非旁观玩家的距离
+     * 时间复杂度：O(p) - p为实体所在世界的玩家数量
+     */
+    public static double 最近玩家距离(Entity 实体) {
+        double 最小距离平方 = Double.MAX_VALUE;
+        for (Player 玩家 : 实体.level().players()) {
+            if (!玩家.isSpectator()) {
+                最小距离平方 = Math.min(最小距离平方, 玩家.distanceToSqr(实体));
+            }
+        }
+        return 最小距离平方 == Double.MAX_VALUE ? Double.MAX_VALUE : Math.sqrt(最小距离平方);
+    }
+
+    /**
+     * 记录档位变化（旧档位为null表示实体刚开始计数，新档位为null表示实体离开世界）
+     */
+    public static void 记录切换(档位 旧档位, 档位 新档位) {
+        if (旧档位 == 新档位) {
+            return;
+        }
+        if (旧档位 != null) {
+            档位数量[旧档位.ordinal()]--;
+            if (新档位 != null) {
+                切换次数++;
+            }
+        }
+        if (新档位 != null) {
+            档位数量[新档位.ordinal()]++;
+        }
+    }
+
+    public static int get档位数量(档位 档位) { return 档位数量[档位.ordinal()]; }
+    public static long get切换次数() { return 切换次数; }
+
+    /**
+     * 清空统计（服务器关闭时调用）
+     */
+    public static void 重置统计() {
+        java.util.Arrays.fill(档位数量, 0);
+        切换次数 = 0;
+    }
+}
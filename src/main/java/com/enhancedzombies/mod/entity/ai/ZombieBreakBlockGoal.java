@@ -2,6 +2,8 @@ package com.enhancedzombies.mod.entity.ai;
 
 import com.enhancedzombies.mod.config.EnhancedZombiesConfig;
 import com.enhancedzombies.mod.entity.EnhancedZombie;
+import com.enhancedzombies.mod.legion.ReachabilityOracle;
+import com.enhancedzombies.mod.legion.ZombieLegionManager;
 import net.minecraft.core.BlockPos;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
@@ -9,7 +11,6 @@ import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
-import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.Vec3;
 
@@ -22,43 +23,23 @@ import java.util.EnumSet;
  * 1. 识别需要破坏的目标方块
  * 2. 执行破坏动作和动画
  * 3. 处理破坏后的掉落物
- * 4. 避免破坏重要结构方块
+ * 4. 避免破坏重要结构方块（由方块标签enhancedzombies:unbreakable控制）
  */
 public class ZombieBreakBlockGoal extends Goal {
     
     private final EnhancedZombie 僵尸;
     private final Level 世界;
+    private final VoxelTraversal 扫描;
     private BlockPos 目标方块位置;
     private int 破坏进度;
     private int 最大破坏时间;
-    private static final int 基础破坏时间 = 60; // 3秒 (60 ticks)
     
-    // 可破坏的方块类型
-    private static final Block[] 可破坏方块 = {
-        Blocks.OAK_DOOR, Blocks.SPRUCE_DOOR, Blocks.BIRCH_DOOR, Blocks.JUNGLE_DOOR,
-        Blocks.ACACIA_DOOR, Blocks.DARK_OAK_DOOR, Blocks.MANGROVE_DOOR, Blocks.CHERRY_DOOR,
-        Blocks.BAMBOO_DOOR, Blocks.CRIMSON_DOOR, Blocks.WARPED_DOOR,
-        Blocks.OAK_FENCE_GATE, Blocks.SPRUCE_FENCE_GATE, Blocks.BIRCH_FENCE_GATE,
-        Blocks.JUNGLE_FENCE_GATE, Blocks.ACACIA_FENCE_GATE, Blocks.DARK_OAK_FENCE_GATE,
-        Blocks.MANGROVE_FENCE_GATE, Blocks.CHERRY_FENCE_GATE, Blocks.BAMBOO_FENCE_GATE,
-        Blocks.CRIMSON_FENCE_GATE, Blocks.WARPED_FENCE_GATE,
-        Blocks.GLASS, Blocks.GLASS_PANE, Blocks.WHITE_STAINED_GLASS,
-        Blocks.OAK_PLANKS, Blocks.SPRUCE_PLANKS, Blocks.BIRCH_PLANKS,
-        Blocks.COBBLESTONE, Blocks.STONE_BRICKS, Blocks.DIRT, Blocks.GRASS_BLOCK,
-        Blocks.OAK_LEAVES, Blocks.SPRUCE_LEAVES, Blocks.BIRCH_LEAVES
-    };
-    
-    // 不可破坏的重要方块
-    private static final Block[] 禁止破坏方块 = {
-        Blocks.BEDROCK, Blocks.BARRIER, Blocks.COMMAND_BLOCK,
-        Blocks.STRUCTURE_BLOCK, Blocks.JIGSAW, Blocks.SPAWNER,
-        Blocks.OBSIDIAN, Blocks.CRYING_OBSIDIAN, Blocks.RESPAWN_ANCHOR,
-        Blocks.ANCIENT_DEBRIS, Blocks.NETHERITE_BLOCK
-    };
+    // 方块能否破坏和基础破坏时间由BlockBreakabilityTable按方块标签预先计算
     
     public ZombieBreakBlockGoal(EnhancedZombie 僵尸) {
         this.僵尸 = 僵尸;
         this.世界 = 僵尸.level();
+        this.扫描 = new VoxelTraversal(this.世界);
         this.setFlags(EnumSet.of(Goal.Flag.MOVE, Goal.Flag.LOOK));
     }
     
@@ -69,7 +50,7 @@ public class ZombieBreakBlockGoal extends Goal {
     @Override
     public boolean canUse() {
         // 检查配置和冷却
-        if (!僵尸.可以破坏() || Math.random() > EnhancedZombiesConfig.方块破坏概率.get()) {
+        if (!僵尸.可以破坏() || Math.random() > EnhancedZombiesConfig.快照().方块破坏概率) {
             return false;
         }
         
@@ -91,7 +72,7 @@ public class ZombieBreakBlockGoal extends Goal {
         
         // 检查方块是否可以破坏
         BlockState 方块状态 = 世界.getBlockState(目标方块位置);
-        return 是否可破坏方块(方块状态.getBlock());
+        return BlockBreakabilityTable.可破坏(方块状态);
     }
     
     /**
@@ -111,7 +92,7 @@ public class ZombieBreakBlockGoal extends Goal {
         
         // 检查距离
         double 距离 = 僵尸.blockPosition().distSqr(目标方块位置);
-        return 距离 <= EnhancedZombiesConfig.最大破坏距离.get() * EnhancedZombiesConfig.最大破坏距离.get();
+        return 距离 <= EnhancedZombiesConfig.快照().最大破坏距离平方;
     }
     
     /**
@@ -121,7 +102,7 @@ public class ZombieBreakBlockGoal extends Goal {
     public void start() {
         破坏进度 = 0;
         BlockState 方块状态 = 世界.getBlockState(目标方块位置);
-        最大破坏时间 = 计算破坏时间(方块状态.getBlock());
+        最大破坏时间 = 计算破坏时间(方块状态);
         
         // 面向目标方块
         Vec3 目标位置 = Vec3.atCenterOf(目标方块位置);
@@ -178,7 +159,7 @@ public class ZombieBreakBlockGoal extends Goal {
     
     /**
      * 寻找阻挡路径的方块
-     * 算法：从僵尸位置向目标方向搜索阻挡方块
+     * 算法：用体素遍历从僵尸位置向目标方向逐格搜索阻挡方块
      * 时间复杂度：O(d) - d为最大破坏距离
      */
     private BlockPos 寻找阻挡方块() {
@@ -186,26 +167,21 @@ public class ZombieBreakBlockGoal extends Goal {
             return null;
         }
         
-        Vec3 僵尸位置 = 僵尸.position();
-        Vec3 目标位置 = 僵尸.getTarget().position();
-        Vec3 方向 = 目标位置.subtract(僵尸位置).normalize();
-        
-        int 最大距离 = EnhancedZombiesConfig.最大破坏距离.get();
+        LivingEntity 目标 = 僵尸.getTarget();
+        int 最大距离 = EnhancedZombiesConfig.快照().最大破坏距离;
         
-        // 沿着方向向量搜索阻挡方块
-        for (int i = 1; i <= 最大距离; i++) {
-            Vec3 检查位置 = 僵尸位置.add(方向.scale(i));
-            BlockPos 方块位置 = new BlockPos((int)检查位置.x, (int)检查位置.y, (int)检查位置.z);
-            
+        // 沿着僵尸到目标的连线逐格搜索阻挡方块（跳过僵尸所在的格子）
+        扫描.开始(僵尸.getX(), 僵尸.getY(), 僵尸.getZ(), 目标.getX(), 目标.getY(), 目标.getZ(), 最大距离);
+        扫描.下一格();
+        while (扫描.下一格()) {
             // 检查僵尸眼部高度和脚部高度
             for (int y偏移 = 0; y偏移 <= 1; y偏移++) {
-                BlockPos 检查方块 = 方块位置.offset(0, y偏移, 0);
-                BlockState 方块状态 = 世界.getBlockState(检查方块);
+                BlockState 方块状态 = 扫描.读取方块(0, y偏移, 0);
                 
-                if (!方块状态.isAir() && 是否可破坏方块(方块状态.getBlock())) {
+                if (!方块状态.isAir() && BlockBreakabilityTable.可破坏(方块状态)) {
                     // 检查这个方块是否真的阻挡了路径
-                    if (方块状态.isCollisionShapeFullBlock(世界, 检查方块)) {
-                        return 检查方块;
+                    if (方块状态.isCollisionShapeFullBlock(世界, 扫描.读取位置())) {
+                        return 扫描.读取位置().immutable();
                     }
                 }
             }
@@ -214,43 +190,16 @@ public class ZombieBreakBlockGoal extends Goal {
         return null;
     }
     
-    /**
-     * 检查方块是否可以被破坏
-     * 时间复杂度：O(n) - n为可破坏方块数组长度
-     */
-    private boolean 是否可破坏方块(Block 方块) {
-        // 检查是否在禁止破坏列表中
-        for (Block 禁止方块 : 禁止破坏方块) {
-            if (方块 == 禁止方块) {
-                return false;
-            }
-        }
-        
-        // 检查是否在可破坏列表中
-        for (Block 可破坏 : 可破坏方块) {
-            if (方块 == 可破坏) {
-                return true;
-            }
-        }
-        
-        // 默认情况下，硬度较低的方块可以破坏
-        float 硬度 = 方块.defaultBlockState().getDestroySpeed(世界, BlockPos.ZERO);
-        return 硬度 >= 0 && 硬度 <= 3.0F;
-    }
-    
     /**
      * 计算破坏时间
-     * 根据方块硬度和僵尸智能等级计算
+     * 根据方块的基础破坏时间（按硬度预先计算）和僵尸智能等级计算
+     * 时间复杂度：O(1)
      */
-    private int 计算破坏时间(Block 方块) {
-        float 硬度 = 方块.defaultBlockState().getDestroySpeed(世界, BlockPos.ZERO);
+    private int 计算破坏时间(BlockState 方块状态) {
         int 智能等级 = 僵尸.get智能等级();
         
-        // 基础时间根据硬度调整
-        int 基础时间 = (int)(基础破坏时间 * (1.0F + 硬度 * 0.5F));
-        
         // 智能等级越高，破坏越快
-        int 调整时间 = 基础时间 - (智能等级 - 1) * 10;
+        int 调整时间 = BlockBreakabilityTable.基础破坏刻数(方块状态) - (智能等级 - 1) * 10;
         
         return Math.max(20, 调整时间); // 最少1秒
     }
@@ -316,7 +265,7 @@ public class ZombieBreakBlockGoal extends Goal {
         double 距离 = 僵尸位置.distanceTo(目标位置);
         
         // 情况1：路径规划完全失败 - 优先级最高
-        if (检查路径规划失败(目标位置)) {
+        if (检查路径规划失败(目标)) {
             return true;
         }
         
@@ -335,49 +284,30 @@ public class ZombieBreakBlockGoal extends Goal {
     
     /**
      * 检查路径规划是否完全失败
-     * 算法：尝试寻路到目标，如果失败则需要破坏阻挡方块
+     * 算法：读取可达性判定表的缓存结果，确认不可达时需要破坏阻挡方块；
+     *       尚未计算时先不破坏，结果由分片稍后算出（canUse中不直接寻路，也不覆盖当前路径）
      */
-    private boolean 检查路径规划失败(Vec3 目标位置) {
-        // 尝试计算到目标的路径
-        boolean 路径成功 = 僵尸.getNavigation().moveTo(目标位置.x, 目标位置.y, 目标位置.z, 1.0);
-        
-        // 如果路径计算失败，说明被完全阻挡
-        if (!路径成功) {
-            return true;
-        }
-        
-        // 检查当前路径是否为空或已完成但未到达目标
-        var 当前路径 = 僵尸.getNavigation().getPath();
-        if (当前路径 == null || 当前路径.isDone()) {
-            double 到目标距离 = 僵尸.position().distanceTo(目标位置);
-            // 如果路径完成但距离目标还很远，说明路径不完整
-            return 到目标距离 > 3.0;
-        }
-        
-        return false;
+    private boolean 检查路径规划失败(LivingEntity 目标) {
+        return ZombieLegionManager.getInstance().查询可达性(僵尸, 目标) == ReachabilityOracle.结果.不可达;
     }
     
     /**
      * 检查攻击视线是否被方块阻挡
-     * 算法：检查僵尸与目标之间的直线路径上是否有可破坏的阻挡方块
+     * 算法：用体素遍历检查僵尸与目标之间的直线路径上是否有可破坏的阻挡方块
      */
     private boolean 检查攻击视线阻挡(Vec3 起点, Vec3 终点) {
-        Vec3 方向 = 终点.subtract(起点).normalize();
-        double 总距离 = 起点.distanceTo(终点);
-        
-        // 沿着攻击视线检查阻挡方块
-        for (double d = 1.0; d < 总距离 && d < 8.0; d += 0.5) {
-            Vec3 检查点 = 起点.add(方向.scale(d));
-            
+        // 沿着攻击视线逐格检查阻挡方块（最多8格，跳过僵尸所在的格子）
+        扫描.开始(起点.x, 起点.y, 起点.z, 终点.x, 终点.y, 终点.z, 8.0);
+        扫描.下一格();
+        while (扫描.下一格()) {
             // 检查僵尸身体高度和眼部高度的方块
             for (int y偏移 = 0; y偏移 <= 1; y偏移++) {
-                BlockPos 检查位置 = new BlockPos((int)检查点.x, (int)检查点.y + y偏移, (int)检查点.z);
-                BlockState 方块状态 = 世界.getBlockState(检查位置);
+                BlockState 方块状态 = 扫描.读取方块(0, y偏移, 0);
                 
                 // 如果发现可破坏的阻挡方块，返回true
                 if (!方块状态.isAir() && 
-                    方块状态.isCollisionShapeFullBlock(世界, 检查位置) && 
-                    是否可破坏方块(方块状态.getBlock())) {
+                    BlockBreakabilityTable.可破坏(方块状态) &&
+                    方块状态.isCollisionShapeFullBlock(世界, 扫描.读取位置())) {
                     return true;
                 }
             }
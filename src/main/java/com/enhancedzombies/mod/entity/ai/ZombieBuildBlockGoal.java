@@ -2,9 +2,12 @@ package com.enhancedzombies.mod.entity.ai;
 
 import com.enhancedzombies.mod.config.EnhancedZombiesConfig;
 import com.enhancedzombies.mod.entity.EnhancedZombie;
+import com.enhancedzombies.mod.legion.ReachabilityOracle;
+import com.enhancedzombies.mod.legion.ZombieLegionManager;
 import net.minecraft.core.BlockPos;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
+import net.minecraft.tags.FluidTags;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.ai.goal.Goal;
 
@@ -30,6 +33,7 @@ public class ZombieBuildBlockGoal extends Goal {
     
     private final EnhancedZombie 僵尸;
     private final Level 世界;
+    private final VoxelTraversal 扫描;
     private BlockPos 建造位置;
     private Block 建造材料;
     private int 建造进度;
@@ -55,6 +59,7 @@ public class ZombieBuildBlockGoal extends Goal {
     public ZombieBuildBlockGoal(EnhancedZombie 僵尸) {
         this.僵尸 = 僵尸;
         this.世界 = 僵尸.level();
+        this.扫描 = new VoxelTraversal(this.世界);
         this.setFlags(EnumSet.of(Goal.Flag.MOVE, Goal.Flag.LOOK));
     }
     
@@ -65,7 +70,7 @@ public class ZombieBuildBlockGoal extends Goal {
     @Override
     public boolean canUse() {
         // 检查配置和冷却
-        if (!僵尸.可以建造() || Math.random() > EnhancedZombiesConfig.方块建造概率.get()) {
+        if (!僵尸.可以建造() || Math.random() > EnhancedZombiesConfig.快照().方块建造概率) {
             return false;
         }
         
@@ -103,7 +108,7 @@ public class ZombieBuildBlockGoal extends Goal {
         
         // 检查距离
         double 距离 = 僵尸.blockPosition().distSqr(建造位置);
-        if (距离 > EnhancedZombiesConfig.最大建造距离.get() * EnhancedZombiesConfig.最大建造距离.get()) {
+        if (距离 > EnhancedZombiesConfig.快照().最大建造距离平方) {
             return false;
         }
         
@@ -281,7 +286,7 @@ public class ZombieBuildBlockGoal extends Goal {
      */
     private BlockPos 寻找建造位置() {
         BlockPos 僵尸位置 = 僵尸.blockPosition();
-        int 搜索半径 = Math.min(EnhancedZombiesConfig.最大建造距离.get(), 5);
+        int 搜索半径 = Math.min(EnhancedZombiesConfig.快照().最大建造距离, 5);
         
         switch (当前建造模式) {
             case 防御墙:
@@ -537,32 +542,27 @@ public class ZombieBuildBlockGoal extends Goal {
     
     /**
      * 检查路径是否中断需要搭桥
-     * 算法：分析从僵尸到目标的路径上是否有无法通过的障碍
+     * 算法：用体素遍历分析从僵尸到目标的路径上是否有无法通过的障碍
      */
     private boolean 检查路径中断需要搭桥() {
         if (僵尸.getTarget() == null) return false;
         
-        Vec3 起点 = 僵尸.position();
-        Vec3 终点 = 僵尸.getTarget().position();
-        Vec3 方向 = 终点.subtract(起点).normalize();
-        double 总距离 = 起点.distanceTo(终点);
+        LivingEntity 目标 = 僵尸.getTarget();
         
-        // 检查路径上是否有需要搭桥的障碍
-        for (double d = 1.0; d < 总距离 && d < 8.0; d += 1.0) {
-            Vec3 检查点 = 起点.add(方向.scale(d));
-            BlockPos 当前位置 = new BlockPos((int)检查点.x, (int)检查点.y, (int)检查点.z);
-            BlockPos 脚下位置 = 当前位置.below();
-            
+        // 沿着僵尸到目标的连线逐格检查是否有需要搭桥的障碍（最多8格，跳过僵尸所在的格子）
+        扫描.开始(僵尸.getX(), 僵尸.getY(), 僵尸.getZ(), 目标.getX(), 目标.getY(), 目标.getZ(), 8.0);
+        扫描.下一格();
+        while (扫描.下一格()) {
             // 检查脚下是否有支撑
-            BlockState 脚下方块 = 世界.getBlockState(脚下位置);
+            BlockState 脚下方块 = 扫描.读取方块(0, -1, 0);
             
             // 如果脚下是空气、水或岩浆，需要搭桥
             if (脚下方块.isAir() || 
                 脚下方块.getFluidState().isSource() || 
-                脚下方块.getFluidState().getType().toString().contains("lava")) {
+                脚下方块.getFluidState().is(FluidTags.LAVA)) {
                 
                 // 检查深度和危险性
-                if (检查障碍深度和危险性(脚下位置)) {
+                if (检查障碍深度和危险性(扫描.当前X(), 扫描.当前Y() - 1, 扫描.当前Z())) {
                     return true;
                 }
             }
@@ -627,18 +627,17 @@ public class ZombieBuildBlockGoal extends Goal {
     /**
      * 检查障碍深度和危险性
      */
-    private boolean 检查障碍深度和危险性(BlockPos 起始位置) {
+    private boolean 检查障碍深度和危险性(int 起始X, int 起始Y, int 起始Z) {
         int 深度 = 0;
         boolean 有危险 = false;
         
-        // 向下检查深度
-        for (int y = 起始位置.getY(); y > 起始位置.getY() - 5 && y > 世界.getMinBuildHeight(); y--) {
-            BlockPos 检查位置 = new BlockPos(起始位置.getX(), y, 起始位置.getZ());
-            BlockState 方块状态 = 世界.getBlockState(检查位置);
+        // 向下检查深度（经由扫描的区段缓存读取）
+        for (int y = 起始Y; y > 起始Y - 5 && y > 世界.getMinBuildHeight(); y--) {
+            BlockState 方块状态 = 扫描.读取方块绝对(起始X, y, 起始Z);
             
             if (方块状态.isAir()) {
                 深度++;
-            } else if (方块状态.getFluidState().getType().toString().contains("lava")) {
+            } else if (方块状态.getFluidState().is(FluidTags.LAVA)) {
                 有危险 = true;
                 break;
             } else {
@@ -654,10 +653,9 @@ public class ZombieBuildBlockGoal extends Goal {
      * 检查是否有自然攀爬路径
      */
     private boolean 检查是否有自然攀爬路径() {
-        // 尝试寻路到目标，如果成功说明有自然路径
+        // 读取可达性判定表的缓存结果，尚未计算时按有自然路径处理（canUse中不直接寻路）
         if (僵尸.getTarget() == null) return false;
         
-        Vec3 目标位置 = 僵尸.getTarget().position();
-        return 僵尸.getNavigation().moveTo(目标位置.x, 目标位置.y, 目标位置.z, 1.0);
+        return ZombieLegionManager.getInstance().查询可达性(僵尸, 僵尸.getTarget()) != ReachabilityOracle.结果.不可达;
     }
 }
\ No newline at end of file
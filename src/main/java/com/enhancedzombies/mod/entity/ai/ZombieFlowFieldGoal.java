@@ -0,0 +1,120 @@
+package com.enhancedzombies.mod.entity.ai;
+
+import com.enhancedzombies.mod.entity.EnhancedZombie;
+import com.enhancedzombies.mod.legion.LegionFlowField;
+import com.enhancedzombies.mod.legion.ZombieLegionManager;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.ai.goal.Goal;
+
+import java.util.EnumSet;
+
+/**
+ * 军团流场移动目标
+ * 功能：军团成员远离目标时沿军团共享的流场接近目标，不再各自做A*寻路
+ * 职责：
+ * 1. 每刻从流场读取当前位置的下一步格子，交给移动控制直接走过去
+ * 2. 接近目标后结束，由近战攻击目标接手（近距离寻路很短）
+ * 3. 当前位置不在流场中（目标不可达、超出流场范围）或长时间没有进展时结束并冷却，退回原有的寻路
+ *
+ * 优先级高于近战攻击目标，二者都占用移动和注视控制
+ */
+public class ZombieFlowFieldGoal extends Goal {
+
+    private static final double 引导最小距离平方 = 6.0 * 6.0;
+    private static final int 无进展上限刻数 = 40;
+    private static final int 失败冷却刻数 = 60;
+
+    private final EnhancedZombie 僵尸;
+    private final double 速度;
+    private final BlockPos.MutableBlockPos 下一格 = new BlockPos.MutableBlockPos();
+
+    private LegionFlowField 流场;
+    private long 流场计算游戏刻;
+    private int 最少剩余步数;
+    private int 无进展刻数;
+    private long 冷却结束刻;
+
+    public ZombieFlowFieldGoal(EnhancedZombie 僵尸, double 速度) {
+        this.僵尸 = 僵尸;
+        this.速度 = 速度;
+        this.setFlags(EnumSet.of(Goal.Flag.MOVE, Goal.Flag.LOOK));
+    }
+
+    /**
+     * 时间复杂度：O(1)，流场需要重新搜索时由第一个请求的成员承担一次搜索
+     */
+    @Override
+    public boolean canUse() {
+        if (僵尸.get军团ID() == -1 || 僵尸.level().getGameTime() < 冷却结束刻) {
+            return false;
+        }
+        LivingEntity 目标 = 僵尸.getTarget();
+        if (目标 == null || 僵尸.distanceToSqr(目标) <= 引导最小距离平方) {
+            return false;
+        }
+        流场 = ZombieLegionManager.getInstance().获取军团流场(僵尸);
+        return 流场 != null
+            && 流场.准备(目标, 僵尸.level(), 僵尸.level().getGameTime())
+            && 流场.下一步(僵尸.blockPosition(), 下一格);
+    }
+
+    @Override
+    public boolean canContinueToUse() {
+        LivingEntity 目标 = 僵尸.getTarget();
+        if (目标 == null || 流场 == null || 僵尸.distanceToSqr(目标) <= 引导最小距离平方) {
+            return false;
+        }
+        if (无进展刻数 > 无进展上限刻数) {
+            冷却结束刻 = 僵尸.level().getGameTime() + 失败冷却刻数;
+            return false;
+        }
+        return 流场.准备(目标, 僵尸.level(), 僵尸.level().getGameTime())
+            && 流场.下一步(僵尸.blockPosition(), 下一格);
+    }
+
+    @Override
+    public void start() {
+        僵尸.getNavigation().stop();
+        僵尸.set流场引导中(true);
+        流场计算游戏刻 = 流场.get计算游戏刻();
+        最少剩余步数 = Integer.MAX_VALUE;
+        无进展刻数 = 0;
+    }
+
+    @Override
+    public void stop() {
+        僵尸.set流场引导中(false);
+        流场 = null;
+    }
+
+    @Override
+    public boolean requiresUpdateEveryTick() {
+        return true;
+    }
+
+    @Override
+    public void tick() {
+        LivingEntity 目标 = 僵尸.getTarget();
+        if (目标 != null) {
+            僵尸.getLookControl().setLookAt(目标, 30.0F, 30.0F);
+        }
+
+        // 查不到时沿用上一次的下一格，由canContinueToUse结束目标
+        流场.下一步(僵尸.blockPosition(), 下一格);
+        僵尸.getMoveControl().setWantedPosition(下一格.getX() + 0.5, 下一格.getY(), 下一格.getZ() + 0.5, 速度);
+
+        // 流场重新搜索后步数不再可比，重新开始计算进展
+        if (流场.get计算游戏刻() != 流场计算游戏刻) {
+            流场计算游戏刻 = 流场.get计算游戏刻();
+            最少剩余步数 = Integer.MAX_VALUE;
+        }
+        int 剩余步数 = 流场.剩余步数(僵尸.blockPosition());
+        if (剩余步数 >= 0 && 剩余步数 < 最少剩余步数) {
+            最少剩余步数 = 剩余步数;
+            无进展刻数 = 0;
+        } else {
+            无进展刻数++;
+        }
+    }
+}
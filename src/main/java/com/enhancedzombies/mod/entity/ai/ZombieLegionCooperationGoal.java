@@ -2,6 +2,9 @@ package com.enhancedzombies.mod.entity.ai;
 
 import com.enhancedzombies.mod.config.EnhancedZombiesConfig;
 import com.enhancedzombies.mod.entity.EnhancedZombie;
+import com.enhancedzombies.mod.legion.LegionBlackboard;
+import com.enhancedzombies.mod.legion.ZombieLegion;
+import com.enhancedzombies.mod.legion.ZombieLegionManager;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.ai.goal.Goal;
@@ -73,7 +76,7 @@ public class ZombieLegionCooperationGoal extends Goal {
         }
         
         // 检查配置概率 - 降低激活频率
-        if (Math.random() > EnhancedZombiesConfig.团队协作概率.get() * 0.3) {
+        if (Math.random() > EnhancedZombiesConfig.快照().团队协作概率 * 0.3) {
             return false;
         }
         
@@ -169,17 +172,11 @@ public class ZombieLegionCooperationGoal extends Goal {
     }
     
     /**
-     * 获取附近的军团成员
-     * 时间复杂度：O(n) - n为附近实体数量
+     * 获取附近的军团成员（读取军团黑板，按距离从近到远排列）
+     * 时间复杂度：O(n) - n为本军团已加载的成员数量
      */
     private List<EnhancedZombie> 获取附近军团成员() {
-        return 世界.getEntitiesOfClass(
-            EnhancedZombie.class,
-            僵尸.getBoundingBox().inflate(16.0),
-            zombie -> zombie != 僵尸 && 
-                     zombie.get军团ID() == 僵尸.get军团ID() && 
-                     zombie.isAlive()
-        );
+        return ZombieLegionManager.getInstance().获取附近军团成员(僵尸, 16.0, Integer.MAX_VALUE);
     }
     
     /**
@@ -230,9 +227,13 @@ public class ZombieLegionCooperationGoal extends Goal {
     private void 协调军团行动() {
         List<EnhancedZombie> 军团成员 = 获取附近军团成员();
         
-        // 共享目标信息
+        // 共享目标信息（同时写入军团黑板）
         if (僵尸.getTarget() != null) {
             共享目标 = 僵尸.getTarget();
+            LegionBlackboard 黑板 = ZombieLegionManager.getInstance().获取军团黑板(僵尸);
+            if (黑板 != null) {
+                黑板.set共享目标(共享目标);
+            }
             for (EnhancedZombie 成员 : 军团成员) {
                 if (成员.getTarget() == null || 成员.distanceTo(共享目标) < 成员.distanceTo(成员.getTarget())) {
                     成员.setTarget(共享目标);
@@ -244,13 +245,22 @@ public class ZombieLegionCooperationGoal extends Goal {
         分配阵型位置(军团成员);
     }
     
+    /**
+     * 读取军团黑板上的共享目标，黑板上没有时使用自己的目标
+     */
+    private LivingEntity 读取共享目标() {
+        LegionBlackboard 黑板 = ZombieLegionManager.getInstance().获取军团黑板(僵尸);
+        LivingEntity 目标 = 黑板 != null ? 黑板.get共享目标() : null;
+        return 目标 != null ? 目标 : 僵尸.getTarget();
+    }
+    
     /**
      * 执行包围攻击
      * 算法：将军团成员分配到目标周围的不同位置
      */
     private void 执行包围攻击() {
         if (共享目标 == null) {
-            共享目标 = 僵尸.getTarget();
+            共享目标 = 读取共享目标();
         }
         
         if (共享目标 == null) return;
@@ -277,7 +287,7 @@ public class ZombieLegionCooperationGoal extends Goal {
      */
     private void 执行集中火力() {
         if (共享目标 == null) {
-            共享目标 = 僵尸.getTarget();
+            共享目标 = 读取共享目标();
         }
         
         if (共享目标 == null) return;
@@ -431,8 +441,14 @@ public class ZombieLegionCooperationGoal extends Goal {
     
     /**
      * 计算军团中心位置
+     * 优先使用军团维护的质心（O(1)），军团没有位置数据时才按附近成员计算
      */
     private Vec3 计算军团中心位置(List<EnhancedZombie> 军团成员) {
+        ZombieLegion 军团 = ZombieLegionManager.getInstance().获取军团(世界, 僵尸.get军团ID());
+        if (军团 != null && 军团.有空间数据()) {
+            return 军团.get质心();
+        }
+        
         if (军团成员.isEmpty()) return 僵尸.position();
         
         double 总X = 僵尸.getX();
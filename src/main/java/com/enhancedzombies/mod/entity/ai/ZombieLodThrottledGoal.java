@@ -0,0 +1,68 @@
+package com.enhancedzombies.mod.entity.ai;
+
+import com.enhancedzombies.mod.entity.EnhancedZombie;
+import net.minecraft.world.entity.ai.goal.Goal;
+
+/**
+ * 按AI档位限流的目标包装
+ * 功能：包装原版AI目标，按僵尸当前的AI档位减少canUse()的评估次数
+ * 职责：
+ * 1. 近距档位每次都评估，中距和远距档位分别每2次、每4次才评估一次，冻结档位不评估
+ * 2. 已开始的目标照常运行，其余方法全部转发给被包装的目标
+ *
+ * 用于闲逛、环顾和搜索目标等开销较大又不急于响应的目标
+ */
+public class ZombieLodThrottledGoal extends Goal {
+
+    private final EnhancedZombie 僵尸;
+    private final Goal 目标;
+    private int 跳过计数;
+
+    public ZombieLodThrottledGoal(EnhancedZombie 僵尸, Goal 目标) {
+        this.僵尸 = 僵尸;
+        this.目标 = 目标;
+        this.setFlags(目标.getFlags());
+    }
+
+    @Override
+    public boolean canUse() {
+        int 评估间隔 = 僵尸.getAI档位().get评估间隔();
+        if (评估间隔 == 0) {
+            return false;
+        }
+        if (评估间隔 > 1 && ++跳过计数 % 评估间隔 != 0) {
+            return false;
+        }
+        return 目标.canUse();
+    }
+
+    @Override
+    public boolean canContinueToUse() {
+        return 目标.canContinueToUse();
+    }
+
+    @Override
+    public boolean isInterruptable() {
+        return 目标.isInterruptable();
+    }
+
+    @Override
+    public void start() {
+        目标.start();
+    }
+
+    @Override
+    public void stop() {
+        目标.stop();
+    }
+
+    @Override
+    public boolean requiresUpdateEveryTick() {
+        return 目标.requiresUpdateEveryTick();
+    }
+
+    @Override
+    public void tick() {
+        目标.tick();
+    }
+}
@@ -2,13 +2,19 @@ package com.enhancedzombies.mod.event;
 
 import com.enhancedzombies.mod.EnhancedZombiesMod;
 import com.enhancedzombies.mod.entity.EnhancedZombie;
+import com.enhancedzombies.mod.entity.ai.BlockBreakabilityTable;
+import com.enhancedzombies.mod.legion.LegionBlackboard;
 import com.enhancedzombies.mod.legion.ZombieLegionManager;
+import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
 import net.minecraftforge.event.entity.EntityJoinLevelEvent;
 import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.level.BlockEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 
@@ -20,6 +26,7 @@ import net.minecraftforge.fml.common.Mod;
  * 2. 处理增强僵尸的特殊行为
  * 3. 管理军团状态更新
  * 4. 记录战斗统计数据
+ * 5. 把方块变化转发给军团寻路失败缓存和流场
  */
 @Mod.EventBusSubscriber(modid = EnhancedZombiesMod.MODID)
 public class ModEventHandler {
@@ -35,6 +42,15 @@ public class ModEventHandler {
             if (!event.getLevel().isClientSide) {
                 // 服务器端初始化逻辑
                 初始化增强僵尸(增强僵尸);
+                
+                // 重新绑定到所属军团，所属军团已不存在的存档僵尸不再加入世界
+                if (!ZombieLegionManager.getInstance().重新绑定僵尸(增强僵尸, event.loadedFromDisk())) {
+                    event.setCanceled(true);
+                    return;
+                }
+                
+                // 确认加入世界后再注册周期任务，被取消加入的实体不会留在时间轮上
+                增强僵尸.注册周期任务(ZombieLegionManager.getInstance().get定时轮());
             }
         }
     }
@@ -47,8 +63,16 @@ public class ModEventHandler {
     public static void onEntityLeaveLevel(EntityLeaveLevelEvent event) {
         if (event.getEntity() instanceof EnhancedZombie 增强僵尸) {
             if (!event.getLevel().isClientSide) {
-                // 从军团管理器中移除
-                ZombieLegionManager.getInstance().移除僵尸(增强僵尸.getUUID());
+                // 实体对象不再有效，先清除军团中的实体缓存
+                ZombieLegionManager.getInstance().清除实体缓存(增强僵尸);
+                
+                // 随区块卸载时保留军团成员身份，区块重新加载时再绑定
+                Entity.RemovalReason 移除原因 = 增强僵尸.getRemovalReason();
+                if (移除原因 != Entity.RemovalReason.UNLOADED_TO_CHUNK && 
+                    移除原因 != Entity.RemovalReason.UNLOADED_WITH_PLAYER) {
+                    // 从军团管理器中移除
+                    ZombieLegionManager.getInstance().移除僵尸(增强僵尸);
+                }
                 
                 EnhancedZombiesMod.LOGGER.debug("增强僵尸离开世界: {}", 增强僵尸.getUUID());
             }
@@ -99,6 +123,29 @@ public class ModEventHandler {
         }
     }
     
+    /**
+     * 处理方块更新事件
+     * 方块被破坏、放置或爆炸移除时，让路线经过此处的军团寻路失败缓存和流场失效
+     * （不通知邻居的状态变化，例如开门，由缓存的有效期和流场的重新搜索兜底）
+     */
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getLevel() instanceof Level 世界 && !世界.isClientSide) {
+            ZombieLegionManager.getInstance().记录方块变化(世界, event.getPos());
+        }
+    }
+    
+    /**
+     * 处理标签更新事件
+     * 服务器加载数据包（启动和/reload）后按最新的方块标签重新编译方块可破坏性表
+     */
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) {
+            BlockBreakabilityTable.编译();
+        }
+    }
+    
     /**
      * 初始化增强僵尸
      */
@@ -110,9 +157,6 @@ public class ModEventHandler {
                 // 这里可以添加重新初始化AI的逻辑
             }
             
-            // 更新军团管理器中的活跃时间
-            ZombieLegionManager.getInstance().移除僵尸(僵尸.getUUID()); // 先移除旧记录
-            
             EnhancedZombiesMod.LOGGER.debug("增强僵尸初始化完成: {}", 僵尸.getUUID());
             
         } catch (Exception e) {
@@ -127,12 +171,12 @@ public class ModEventHandler {
         try {
             // 从军团管理器中移除
             ZombieLegionManager manager = ZombieLegionManager.getInstance();
-            manager.移除僵尸(死亡僵尸.getUUID());
+            manager.移除僵尸(死亡僵尸);
             
             // 记录死亡统计
             int 军团ID = 死亡僵尸.get军团ID();
             if (军团ID != -1) {
-                var 军团 = manager.获取军团(军团ID);
+                var 军团 = manager.获取军团(死亡僵尸.level(), 军团ID);
                 if (军团 != null) {
                     // 军团死亡统计已在移除成员时处理
                     EnhancedZombiesMod.LOGGER.debug("军团 {} 成员死亡，剩余成员: {}", 
@@ -190,7 +234,7 @@ public class ModEventHandler {
             // 更新军团击杀统计
             int 军团ID = 攻击僵尸.get军团ID();
             if (军团ID != -1) {
-                var 军团 = ZombieLegionManager.getInstance().获取军团(军团ID);
+                var 军团 = ZombieLegionManager.getInstance().获取军团(攻击僵尸.level(), 军团ID);
                 if (军团 != null) {
                     军团.增加击杀数();
                 }
@@ -220,9 +264,10 @@ public class ModEventHandler {
             // 更新军团管理器中的活跃时间
             int 军团ID = 受伤僵尸.get军团ID();
             if (军团ID != -1) {
-                var 军团 = ZombieLegionManager.getInstance().获取军团(军团ID);
+                var 军团 = ZombieLegionManager.getInstance().获取军团(受伤僵尸.level(), 军团ID);
                 if (军团 != null) {
                     军团.更新成员活跃时间(受伤僵尸.getUUID());
+                    军团.更新成员实体(受伤僵尸);
                 }
             }
             
@@ -253,9 +298,10 @@ public class ModEventHandler {
             // 更新军团活跃时间
             int 军团ID = 攻击僵尸.get军团ID();
             if (军团ID != -1) {
-                var 军团 = ZombieLegionManager.getInstance().获取军团(军团ID);
+                var 军团 = ZombieLegionManager.getInstance().获取军团(攻击僵尸.level(), 军团ID);
                 if (军团 != null) {
                     军团.更新成员活跃时间(攻击僵尸.getUUID());
+                    军团.更新成员实体(攻击僵尸);
                 }
             }
             
@@ -280,7 +326,7 @@ public class ModEventHandler {
                 // 掉落军团长的所有装备
                 掉落军团长装备(军团长);
                 
-                var 军团 = ZombieLegionManager.getInstance().获取军团(军团ID);
+                var 军团 = ZombieLegionManager.getInstance().获取军团(军团长.level(), 军团ID);
                 if (军团 != null) {
                     EnhancedZombiesMod.LOGGER.info("军团 {} 的军团长死亡，装备已掉落，军团将重新组织", 军团ID);
                     
@@ -365,7 +411,7 @@ public class ModEventHandler {
             // 提升整个军团的士气
             int 军团ID = 攻击僵尸.get军团ID();
             if (军团ID != -1) {
-                var 军团 = ZombieLegionManager.getInstance().获取军团(军团ID);
+                var 军团 = ZombieLegionManager.getInstance().获取军团(攻击僵尸.level(), 军团ID);
                 if (军团 != null) {
                     // 军团士气提升逻辑可以在ZombieLegion类中实现
                     EnhancedZombiesMod.LOGGER.info("军团 {} 击杀玩家 {}，士气大振！", 
@@ -451,15 +497,13 @@ public class ModEventHandler {
      */
     private static void 通知军团成员攻击目标(EnhancedZombie 发起者, Player 目标玩家) {
         try {
-            int 军团ID = 发起者.get军团ID();
-            if (军团ID == -1) return;
-            
-            // 寻找附近的军团成员
-            var 附近僵尸 = 发起者.level().getEntitiesOfClass(
-                EnhancedZombie.class,
-                发起者.getBoundingBox().inflate(16.0),
-                zombie -> zombie.get军团ID() == 军团ID && zombie != 发起者
-            );
+            if (发起者.get军团ID() == -1) return;
+            
+            // 从军团黑板读取附近的军团成员，并记录共享目标
+            LegionBlackboard 黑板 = ZombieLegionManager.getInstance().获取军团黑板(发起者);
+            if (黑板 == null) return;
+            黑板.set共享目标(目标玩家);
+            var 附近僵尸 = 黑板.获取附近成员(发起者, 16.0, Integer.MAX_VALUE);
             
             // 设置目标
             for (EnhancedZombie 成员 : 附近僵尸) {
@@ -478,15 +522,10 @@ public class ModEventHandler {
      */
     private static void 通知军团成员支援(EnhancedZombie 求援者) {
         try {
-            int 军团ID = 求援者.get军团ID();
-            if (军团ID == -1) return;
-            
-            // 寻找附近的军团成员
-            var 附近僵尸 = 求援者.level().getEntitiesOfClass(
-                EnhancedZombie.class,
-                求援者.getBoundingBox().inflate(24.0),
-                zombie -> zombie.get军团ID() == 军团ID && zombie != 求援者
-            );
+            if (求援者.get军团ID() == -1) return;
+            
+            // 从军团黑板读取附近的军团成员
+            var 附近僵尸 = ZombieLegionManager.getInstance().获取附近军团成员(求援者, 24.0, Integer.MAX_VALUE);
             
             // 让附近成员前来支援
             for (EnhancedZombie 成员 : 附近僵尸) {
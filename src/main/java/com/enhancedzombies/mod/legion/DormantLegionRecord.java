@@ -0,0 +1,92 @@
+package com.enhancedzombies.mod.legion;
+
+import java.util.Arrays;
+
+/**
+ * 休眠军团记录
+ * 功能：以紧凑的列式数组保存休眠军团的成员
+ * 职责：
+ * 1. 每个成员只保存位置、装备模板编号、生命值和智能等级
+ * 2. 记录军团长所在的行，唤醒时由同一行重新生成军团长
+ * 3. 维护成员位置的质心，用于判断附近是否有玩家
+ *
+ * 成员实体在休眠时被移除，唤醒时按记录经由普通生成队列重新生成
+ */
+final class DormantLegionRecord {
+
+    private float[] 位置 = new float[8 * 3]; // 每个成员三个float：x、y、z
+    private int[] 装备模板 = new int[8];
+    private float[] 生命值 = new float[8];
+    private byte[] 智能等级 = new byte[8];
+    private int 数量;
+    private int 军团长行 = -1;
+    private double 和X, 和Y, 和Z;
+
+    /**
+     * 追加一个成员
+     * 时间复杂度：均摊O(1)
+     */
+    void 添加(double x, double y, double z, int 装备模板编号, float 生命, int 智能, boolean 是军团长) {
+        if (数量 == 装备模板.length) {
+            int 新容量 = 数量 * 2;
+            位置 = Arrays.copyOf(位置, 新容量 * 3);
+            装备模板 = Arrays.copyOf(装备模板, 新容量);
+            生命值 = Arrays.copyOf(生命值, 新容量);
+            智能等级 = Arrays.copyOf(智能等级, 新容量);
+        }
+
+        位置[数量 * 3] = (float) x;
+        位置[数量 * 3 + 1] = (float) y;
+        位置[数量 * 3 + 2] = (float) z;
+        装备模板[数量] = 装备模板编号;
+        生命值[数量] = 生命;
+        智能等级[数量] = (byte) 智能;
+        if (是军团长) {
+            军团长行 = 数量;
+        }
+        和X += x;
+        和Y += y;
+        和Z += z;
+        数量++;
+    }
+
+    /**
+     * 追加另一条记录中的一行（军团长行保持军团长身份）
+     * 时间复杂度：均摊O(1)
+     */
+    void 添加行(DormantLegionRecord 来源, int 行) {
+        添加(来源.位置X(行), 来源.位置Y(行), 来源.位置Z(行), 来源.装备模板(行),
+            来源.生命值(行), 来源.智能等级(行), 行 == 来源.军团长行());
+    }
+
+    /**
+     * 复制记录（供后台保存线程使用的快照）
+     * 时间复杂度：O(n)
+     */
+    DormantLegionRecord 复制() {
+        DormantLegionRecord 副本 = new DormantLegionRecord();
+        副本.位置 = Arrays.copyOf(位置, 位置.length);
+        副本.装备模板 = Arrays.copyOf(装备模板, 装备模板.length);
+        副本.生命值 = Arrays.copyOf(生命值, 生命值.length);
+        副本.智能等级 = Arrays.copyOf(智能等级, 智能等级.length);
+        副本.数量 = 数量;
+        副本.军团长行 = 军团长行;
+        副本.和X = 和X;
+        副本.和Y = 和Y;
+        副本.和Z = 和Z;
+        return 副本;
+    }
+
+    int 数量() { return 数量; }
+    double 位置X(int 行) { return 位置[行 * 3]; }
+    double 位置Y(int 行) { return 位置[行 * 3 + 1]; }
+    double 位置Z(int 行) { return 位置[行 * 3 + 2]; }
+    int 装备模板(int 行) { return 装备模板[行]; }
+    float 生命值(int 行) { return 生命值[行]; }
+    int 智能等级(int 行) { return 智能等级[行]; }
+    int 军团长行() { return 军团长行; }
+
+    double 质心X() { return 数量 > 0 ? 和X / 数量 : Double.NaN; }
+    double 质心Y() { return 数量 > 0 ? 和Y / 数量 : Double.NaN; }
+    double 质心Z() { return 数量 > 0 ? 和Z / 数量 : Double.NaN; }
+}
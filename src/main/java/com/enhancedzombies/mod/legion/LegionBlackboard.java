@@ -0,0 +1,159 @@
+package com.enhancedzombies.mod.legion;
+
+import com.enhancedzombies.mod.entity.EnhancedZombie;
+import net.minecraft.world.entity.LivingEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 军团黑板
+ * 功能：每个游戏刻从军团自己的成员表刷新一次成员快照，供成员之间的协作读取
+ * 职责：
+ * 1. 保存本刻已加载成员的实体和位置（列式数组，刷新时不分配对象）
+ * 2. 保存军团当前的共享目标，由有目标的成员写入、空闲成员读取，目标死亡或被移除后自动清除
+ * 3. 按距离从近到远返回指定成员附近的其他成员，取代各处按军团ID过滤的世界实体查询
+ *
+ * 快照在军团到期更新时或成员经由ZombieLegionManager读取时刷新（每刻最多一次），读取到的位置最多滞后一刻
+ * 查询只遍历本军团的成员（每个军团最多几十个），不访问世界的实体分区
+ */
+public class LegionBlackboard {
+
+    private static final int 初始容量 = 8;
+
+    private EnhancedZombie[] 成员实体 = new EnhancedZombie[初始容量];
+    private double[] 位置X = new double[初始容量];
+    private double[] 位置Y = new double[初始容量];
+    private double[] 位置Z = new double[初始容量];
+    private int 数量;
+    private long 刷新游戏刻 = Long.MIN_VALUE;
+
+    private LivingEntity 共享目标;
+
+    // 查询时的临时缓冲（只在服务器线程上使用）
+    private int[] 候选行 = new int[初始容量];
+    private double[] 候选距离 = new double[初始容量];
+
+    // 统计（所有军团共享）
+    private static long 查询次数;
+
+    LegionBlackboard() {}
+
+    // 刷新（包内可见，由ZombieLegion在采样空间聚合时调用）
+
+    void 开始刷新(long 游戏刻) {
+        Arrays.fill(成员实体, 0, 数量, null);
+        数量 = 0;
+        刷新游戏刻 = 游戏刻;
+    }
+
+    void 记录成员(EnhancedZombie 实体) {
+        if (数量 == 成员实体.length) {
+            int 新容量 = 数量 * 2;
+            成员实体 = Arrays.copyOf(成员实体, 新容量);
+            位置X = Arrays.copyOf(位置X, 新容量);
+            位置Y = Arrays.copyOf(位置Y, 新容量);
+            位置Z = Arrays.copyOf(位置Z, 新容量);
+            候选行 = new int[新容量];
+            候选距离 = new double[新容量];
+        }
+        成员实体[数量] = 实体;
+        位置X[数量] = 实体.getX();
+        位置Y[数量] = 实体.getY();
+        位置Z[数量] = 实体.getZ();
+        数量++;
+    }
+
+    void 结束刷新() {
+        if (共享目标 != null && (共享目标.isRemoved() || !共享目标.isAlive())) {
+            共享目标 = null;
+        }
+    }
+
+    void 清空() {
+        Arrays.fill(成员实体, 0, 数量, null);
+        数量 = 0;
+        共享目标 = null;
+    }
+
+    // 共享目标
+
+    /**
+     * 成员发现目标时写入黑板，其他成员读取而不必各自搜索
+     */
+    public void set共享目标(LivingEntity 目标) {
+        this.共享目标 = 目标;
+    }
+
+    /**
+     * 当前共享目标，没有或已失效时返回null
+     */
+    public LivingEntity get共享目标() {
+        if (共享目标 != null && (共享目标.isRemoved() || !共享目标.isAlive())) {
+            共享目标 = null;
+        }
+        return 共享目标;
+    }
+
+    // 查询
+
+    /**
+     * 获取指定成员附近的其他成员，按距离从近到远排列
+     * 算法：遍历本刻快照，按快照位置筛选半径内仍存活的成员，再按距离插入排序
+     * 时间复杂度：O(n + k²) - n为快照中的成员数量，k为半径内的成员数量（k ≤ n，军团规模有上限）
+     * @param 自身 查询的成员，不会出现在结果中（也可以是不在快照中的实体）
+     * @param 上限 最多返回的成员数量
+     */
+    public List<EnhancedZombie> 获取附近成员(LivingEntity 自身, double 半径, int 上限) {
+        查询次数++;
+        if (数量 == 0 || 上限 <= 0) {
+            return Collections.emptyList();
+        }
+
+        double 半径平方 = 半径 * 半径;
+        double x = 自身.getX(), y = 自身.getY(), z = 自身.getZ();
+        int 候选数量 = 0;
+
+        for (int 行 = 0; 行 < 数量; 行++) {
+            EnhancedZombie 实体 = 成员实体[行];
+            if (实体 == 自身 || 实体.isRemoved() || !实体.isAlive()) {
+                continue;
+            }
+            double dx = 位置X[行] - x, dy = 位置Y[行] - y, dz = 位置Z[行] - z;
+            double 距离平方 = dx * dx + dy * dy + dz * dz;
+            if (距离平方 > 半径平方) {
+                continue;
+            }
+
+            // 插入排序，保持候选按距离升序
+            int i = 候选数量++;
+            while (i > 0 && 候选距离[i - 1] > 距离平方) {
+                候选行[i] = 候选行[i - 1];
+                候选距离[i] = 候选距离[i - 1];
+                i--;
+            }
+            候选行[i] = 行;
+            候选距离[i] = 距离平方;
+        }
+
+        int 结果数量 = Math.min(候选数量, 上限);
+        List<EnhancedZombie> 结果 = new ArrayList<>(结果数量);
+        for (int i = 0; i < 结果数量; i++) {
+            结果.add(成员实体[候选行[i]]);
+        }
+        return 结果;
+    }
+
+    // 快照读取（行号只在本刻内有效）
+
+    public int 成员数量() { return 数量; }
+    public EnhancedZombie 成员实体(int 行) { return 成员实体[行]; }
+    public double 位置X(int 行) { return 位置X[行]; }
+    public double 位置Y(int 行) { return 位置Y[行]; }
+    public double 位置Z(int 行) { return 位置Z[行]; }
+    public long get刷新游戏刻() { return 刷新游戏刻; }
+
+    public static long get查询次数() { return 查询次数; }
+}
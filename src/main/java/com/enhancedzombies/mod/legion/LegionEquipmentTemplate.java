@@ -0,0 +1,84 @@
+package com.enhancedzombies.mod.legion;
+
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+
+/**
+ * 军团装备模板编号
+ * 功能：把僵尸的主手武器和四件护甲压缩为一个整数编号，用于休眠军团的紧凑记录
+ * 职责：
+ * 1. 武器按种类编号，护甲按材质编号，组合为 武器 × 7⁴ + 头盔 × 7³ + 胸甲 × 7² + 护腿 × 7 + 靴子
+ * 2. 按编号重新生成装备
+ *
+ * 只记录物品种类，不记录附魔和耐久；模组不会生成的物品（例如捡起的其他物品）按空槽位记录
+ */
+final class LegionEquipmentTemplate {
+
+    private static final int 材质数量 = 7;
+
+    private static final Item[] 武器表 = {
+        Items.AIR,
+        Items.WOODEN_SWORD, Items.WOODEN_AXE,
+        Items.STONE_SWORD, Items.STONE_AXE,
+        Items.IRON_SWORD, Items.IRON_AXE,
+        Items.DIAMOND_SWORD, Items.DIAMOND_AXE,
+        Items.NETHERITE_SWORD
+    };
+
+    // 护甲槽位顺序：头盔、胸甲、护腿、靴子；材质顺序：无、皮革、锁链、金、铁、钻石、下界合金
+    private static final EquipmentSlot[] 护甲槽位 = {
+        EquipmentSlot.HEAD, EquipmentSlot.CHEST, EquipmentSlot.LEGS, EquipmentSlot.FEET
+    };
+
+    private static final Item[][] 护甲表 = {
+        { Items.AIR, Items.LEATHER_HELMET, Items.CHAINMAIL_HELMET, Items.GOLDEN_HELMET,
+          Items.IRON_HELMET, Items.DIAMOND_HELMET, Items.NETHERITE_HELMET },
+        { Items.AIR, Items.LEATHER_CHESTPLATE, Items.CHAINMAIL_CHESTPLATE, Items.GOLDEN_CHESTPLATE,
+          Items.IRON_CHESTPLATE, Items.DIAMOND_CHESTPLATE, Items.NETHERITE_CHESTPLATE },
+        { Items.AIR, Items.LEATHER_LEGGINGS, Items.CHAINMAIL_LEGGINGS, Items.GOLDEN_LEGGINGS,
+          Items.IRON_LEGGINGS, Items.DIAMOND_LEGGINGS, Items.NETHERITE_LEGGINGS },
+        { Items.AIR, Items.LEATHER_BOOTS, Items.CHAINMAIL_BOOTS, Items.GOLDEN_BOOTS,
+          Items.IRON_BOOTS, Items.DIAMOND_BOOTS, Items.NETHERITE_BOOTS }
+    };
+
+    private LegionEquipmentTemplate() {}
+
+    /**
+     * 读取实体当前装备的模板编号
+     * 时间复杂度：O(1)
+     */
+    static int 编码(Mob 实体) {
+        int 编号 = 查找(武器表, 实体.getItemBySlot(EquipmentSlot.MAINHAND).getItem());
+        for (int i = 0; i < 护甲槽位.length; i++) {
+            编号 = 编号 * 材质数量 + 查找(护甲表[i], 实体.getItemBySlot(护甲槽位[i]).getItem());
+        }
+        return 编号;
+    }
+
+    /**
+     * 按模板编号替换实体的全部装备
+     */
+    static void 应用(Mob 实体, int 编号) {
+        for (int i = 护甲槽位.length - 1; i >= 0; i--) {
+            实体.setItemSlot(护甲槽位[i], 创建物品(护甲表[i], 编号 % 材质数量));
+            编号 /= 材质数量;
+        }
+        实体.setItemSlot(EquipmentSlot.MAINHAND, 创建物品(武器表, 编号));
+    }
+
+    private static int 查找(Item[] 表, Item 物品) {
+        for (int i = 1; i < 表.length; i++) {
+            if (表[i] == 物品) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static ItemStack 创建物品(Item[] 表, int 索引) {
+        return 索引 > 0 && 索引 < 表.length ? new ItemStack(表[索引]) : ItemStack.EMPTY;
+    }
+}
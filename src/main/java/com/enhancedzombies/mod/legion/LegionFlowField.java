@@ -0,0 +1,295 @@
+package com.enhancedzombies.mod.legion;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.tags.FluidTags;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.Arrays;
+
+/**
+ * 军团流场
+ * 功能：以军团目标所在位置为起点，在周围可行走的方块上做一次有界广度优先搜索，
+ *       记录每个格子到目标的步数和下一步方向，所有成员沿流场下降即可接近目标
+ * 职责：
+ * 1. 一次搜索代替每个成员各自的A*寻路，成员每刻的转向只需一次哈希查找
+ * 2. 目标移动超过阈值或搜索范围内的方块发生变化时重新搜索，两次搜索之间至少间隔若干刻
+ * 3. 同一时间只服务一个目标，其他目标在当前目标长时间无人使用后才能接管
+ *
+ * 可行走格子：脚部和头部没有碰撞箱（不含岩浆），脚下方块有碰撞箱；
+ * 相邻格子之间可以水平移动、上跳1格（需要头顶空间）或下落最多2格
+ * 只读取已加载区块中的方块，不会触发区块加载；只在服务器线程上使用，因此不做同步
+ * 时间复杂度：搜索O(N) - N为访问的格子数（不超过最大格子数），查询O(1)
+ */
+public class LegionFlowField {
+
+    private static final int 水平半径 = 24;
+    private static final int 垂直半径 = 12;
+    private static final int 最大格子数 = 4096;
+    private static final int 重算间隔刻数 = 20;
+    private static final int 目标移动阈值平方 = 3 * 3;
+    private static final int 目标保留刻数 = 40;
+
+    // 水平方向（东、西、南、北），与高度变化（-2到+1）组合为16种下一步方向
+    private static final int[] 方向X = { 1, -1, 0, 0 };
+    private static final int[] 方向Z = { 0, 0, 1, -1 };
+    private static final int 最小高度变化 = -2;
+    private static final int 高度变化种类 = 4;
+
+    // 格子键 -> (步数 << 4) | 下一步方向
+    private final Long2IntOpenHashMap 格子 = new Long2IntOpenHashMap();
+    private long[] 队列 = new long[256];
+
+    private LivingEntity 目标;
+    private Level 世界;
+    private int 原点X, 原点Y, 原点Z;
+    private long 计算游戏刻 = Long.MIN_VALUE;
+    private long 上次使用游戏刻 = Long.MIN_VALUE;
+    private boolean 已失效;
+
+    // 搜索时的区块缓存
+    private final BlockPos.MutableBlockPos 读取位置 = new BlockPos.MutableBlockPos();
+    private LevelChunk 缓存区块;
+    private long 缓存区块键 = Long.MIN_VALUE;
+
+    // 统计（所有军团共享）
+    private static long 搜索次数;
+    private static long 访问格子总数;
+
+    LegionFlowField() {
+        格子.defaultReturnValue(-1);
+    }
+
+    /**
+     * 为目标准备流场：首次使用、目标移动超过阈值或范围内方块变化时重新搜索（受最小间隔限制，
+     * 间隔内继续使用稍旧的流场）
+     * 时间复杂度：不需要重新搜索时O(1)，否则O(N)
+     * @param 世界 请求者所在的世界，目标不在此世界时不可用
+     * @return 流场是否可用于该目标
+     */
+    public boolean 准备(LivingEntity 目标, Level 世界, long 游戏刻) {
+        if (目标 == null || 目标.isRemoved() || !目标.isAlive() || 目标.level() != 世界) {
+            return false;
+        }
+
+        if (目标 != this.目标) {
+            // 当前目标仍有成员在使用时不切换
+            if (this.目标 != null && !this.目标.isRemoved() && this.目标.isAlive()
+                && 游戏刻 - 上次使用游戏刻 < 目标保留刻数) {
+                return false;
+            }
+            搜索(目标, 世界, 游戏刻);
+            上次使用游戏刻 = 游戏刻;
+            return true;
+        }
+
+        上次使用游戏刻 = 游戏刻;
+        if (游戏刻 - 计算游戏刻 >= 重算间隔刻数 && (已失效 || 世界 != this.世界 || 目标已移动())) {
+            搜索(目标, 世界, 游戏刻);
+        }
+        return true;
+    }
+
+    /**
+     * 查询从某位置出发的下一步格子（依次尝试该位置和下方一格，跳跃中的实体脚部可能高出一格）
+     * 时间复杂度：O(1)
+     * @param 输出 写入下一步格子的脚部位置
+     * @return 是否找到下一步；位置不在流场中或已到达目标格子时返回false
+     */
+    public boolean 下一步(BlockPos 位置, BlockPos.MutableBlockPos 输出) {
+        int y = 位置.getY();
+        int 值 = 格子.get(BlockPos.asLong(位置.getX(), y, 位置.getZ()));
+        if (值 < 0) {
+            y--;
+            值 = 格子.get(BlockPos.asLong(位置.getX(), y, 位置.getZ()));
+        }
+        if (值 < 0 || (值 >> 4) == 0) {
+            return false;
+        }
+        int 方向 = 值 & 0xF;
+        int 水平 = 方向 / 高度变化种类;
+        int 高度变化 = 方向 % 高度变化种类 + 最小高度变化;
+        输出.set(位置.getX() + 方向X[水平], y + 高度变化, 位置.getZ() + 方向Z[水平]);
+        return true;
+    }
+
+    /**
+     * 位置到目标格子的步数（依次尝试该位置和下方一格）
+     * @return 步数，位置不在流场中时返回-1
+     */
+    public int 剩余步数(BlockPos 位置) {
+        int 值 = 格子.get(位置.asLong());
+        if (值 < 0) {
+            值 = 格子.get(BlockPos.asLong(位置.getX(), 位置.getY() - 1, 位置.getZ()));
+        }
+        return 值 < 0 ? -1 : 值 >> 4;
+    }
+
+    /**
+     * 方块变化：位置在搜索范围内时标记流场失效，下次准备时重新搜索
+     */
+    public void 方块变化(BlockPos 位置) {
+        if (范围包含(位置)) {
+            已失效 = true;
+        }
+    }
+
+    /**
+     * 位置的方块变化是否会影响当前流场（流场有效且位置在搜索范围内，含脚下和头顶的方块）
+     * 时间复杂度：O(1)
+     */
+    public boolean 范围包含(BlockPos 位置) {
+        return 目标 != null && !已失效
+            && Math.abs(位置.getX() - 原点X) <= 水平半径 + 1
+            && Math.abs(位置.getZ() - 原点Z) <= 水平半径 + 1
+            && Math.abs(位置.getY() - 原点Y) <= 垂直半径 + 3;
+    }
+
+    public long get计算游戏刻() {
+        return 计算游戏刻;
+    }
+
+    public boolean 是否为目标(LivingEntity 实体) {
+        return 目标 != null && 目标 == 实体;
+    }
+
+    public void 清空() {
+        格子.clear();
+        目标 = null;
+        世界 = null;
+        缓存区块 = null;
+        缓存区块键 = Long.MIN_VALUE;
+        计算游戏刻 = Long.MIN_VALUE;
+        上次使用游戏刻 = Long.MIN_VALUE;
+        已失效 = false;
+    }
+
+    private boolean 目标已移动() {
+        BlockPos 位置 = 目标.blockPosition();
+        int dx = 位置.getX() - 原点X, dy = 位置.getY() - 原点Y, dz = 位置.getZ() - 原点Z;
+        return dx * dx + dy * dy + dz * dz > 目标移动阈值平方;
+    }
+
+    // 搜索
+
+    /**
+     * 从目标脚下的可站立格子开始反向广度优先搜索：从已到达的格子B扩展到能一步走到B的格子A，
+     * 记录A的步数和走向B的方向
+     */
+    private void 搜索(LivingEntity 新目标, Level 新世界, long 游戏刻) {
+        格子.clear();
+        目标 = 新目标;
+        世界 = 新世界;
+        计算游戏刻 = 游戏刻;
+        已失效 = false;
+        缓存区块 = null;
+        缓存区块键 = Long.MIN_VALUE;
+
+        BlockPos 目标位置 = 新目标.blockPosition();
+        原点X = 目标位置.getX();
+        原点Z = 目标位置.getZ();
+        原点Y = 目标位置.getY();
+        // 目标在空中（跳跃、搭方块）时从下方最近的可站立格子开始
+        for (int i = 0; i < 3 && !可站立(原点X, 原点Y, 原点Z); i++) {
+            原点Y--;
+        }
+        if (!可站立(原点X, 原点Y, 原点Z)) {
+            原点Y = 目标位置.getY();
+        }
+
+        int 队首 = 0, 队尾 = 0;
+        long 原点键 = BlockPos.asLong(原点X, 原点Y, 原点Z);
+        格子.put(原点键, 0);
+        队列[队尾++] = 原点键;
+
+        while (队首 < 队尾 && 格子.size() < 最大格子数) {
+            long 键 = 队列[队首++];
+            int bx = BlockPos.getX(键), by = BlockPos.getY(键), bz = BlockPos.getZ(键);
+            int 下一步数 = (格子.get(键) >> 4) + 1;
+
+            for (int 水平 = 0; 水平 < 4; 水平++) {
+                int ax = bx - 方向X[水平], az = bz - 方向Z[水平];
+                if (Math.abs(ax - 原点X) > 水平半径 || Math.abs(az - 原点Z) > 水平半径) {
+                    continue;
+                }
+                for (int 高度变化 = 最小高度变化; 高度变化 < 最小高度变化 + 高度变化种类; 高度变化++) {
+                    // 高度变化为从A走到B时的高度变化，A的高度为B减去它
+                    int ay = by - 高度变化;
+                    if (Math.abs(ay - 原点Y) > 垂直半径) {
+                        continue;
+                    }
+                    long a键 = BlockPos.asLong(ax, ay, az);
+                    if (格子.containsKey(a键) || !可站立(ax, ay, az) || !可以移动(ax, ay, az, bx, by, bz, 高度变化)) {
+                        continue;
+                    }
+                    格子.put(a键, (下一步数 << 4) | (水平 * 高度变化种类 + (高度变化 - 最小高度变化)));
+                    if (队尾 == 队列.length) {
+                        队列 = Arrays.copyOf(队列, 队列.length * 2);
+                    }
+                    队列[队尾++] = a键;
+                }
+            }
+        }
+
+        缓存区块 = null;
+        搜索次数++;
+        访问格子总数 += 格子.size();
+    }
+
+    /**
+     * 从A（脚部高度ay，与B水平相邻）能否一步走到B
+     * 上跳需要A头顶第二格的空间，下落需要B所在列从B头顶到A头部高度之间都可通过
+     */
+    private boolean 可以移动(int ax, int ay, int az, int bx, int by, int bz, int 高度变化) {
+        if (高度变化 == 1) {
+            return 可通过(ax, ay + 2, az);
+        }
+        for (int y = by + 2; y <= ay + 1; y++) {
+            if (!可通过(bx, y, bz)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean 可站立(int x, int y, int z) {
+        if (!可通过(x, y, z) || !可通过(x, y + 1, z)) {
+            return false;
+        }
+        BlockState 脚下 = 读取方块(x, y - 1, z);
+        return 脚下 != null && !脚下.getCollisionShape(世界, 读取位置).isEmpty();
+    }
+
+    private boolean 可通过(int x, int y, int z) {
+        BlockState 状态 = 读取方块(x, y, z);
+        return 状态 != null
+            && 状态.getCollisionShape(世界, 读取位置).isEmpty()
+            && !状态.getFluidState().is(FluidTags.LAVA);
+    }
+
+    /**
+     * 读取已加载区块中的方块（同时把读取位置设为该位置），区块未加载或超出高度范围时返回null
+     */
+    private BlockState 读取方块(int x, int y, int z) {
+        if (世界.isOutsideBuildHeight(y)) {
+            return null;
+        }
+        long 区块键 = ChunkPos.asLong(x >> 4, z >> 4);
+        if (区块键 != 缓存区块键) {
+            缓存区块 = 世界.getChunkSource().getChunkNow(x >> 4, z >> 4);
+            缓存区块键 = 区块键;
+        }
+        if (缓存区块 == null) {
+            return null;
+        }
+        读取位置.set(x, y, z);
+        return 缓存区块.getBlockState(读取位置);
+    }
+
+    public static long get搜索次数() { return 搜索次数; }
+    public static long get访问格子总数() { return 访问格子总数; }
+}
@@ -0,0 +1,191 @@
+package com.enhancedzombies.mod.legion;
+
+import com.enhancedzombies.mod.config.ConfigSnapshot;
+import com.enhancedzombies.mod.config.EnhancedZombiesConfig;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * 军团负载调节器
+ * 功能：按服务器平均每刻耗时和军团系统自身耗时自动调节军团规模
+ * 职责：
+ * 1. 记录服务器滚动平均MSPT和军团系统每刻耗时（指数滑动平均）
+ * 2. 每5秒评估一次，超载时快速降低规模系数，空闲持续一段时间后才缓慢恢复（滞回）
+ * 3. 按规模系数在配置上下限之间换算并发军团上限、军团大小、生成概率和军团更新间隔
+ * 4. 规模变化写入日志，当前状态可通过 /enhancedzombies governor 查看
+ *
+ * 规模系数1.0表示负载正常（使用各项上限），0.0表示负载最高（使用各项下限）
+ */
+@Mod.EventBusSubscriber
+public class LegionGovernor {
+
+    private static LegionGovernor INSTANCE;
+
+    private static final int 评估间隔 = 100; // 每5秒评估一次
+    private static final double 降低步长 = 0.2;
+    private static final double 恢复步长 = 0.1;
+    private static final int 恢复所需连续空闲次数 = 3; // 连续15秒空闲才恢复一级
+    private static final double 耗时平滑系数 = 0.05;
+
+    private double 规模系数 = 1.0;
+    private double 模组平均耗时纳秒;
+    private double 上次服务器MSPT;
+    private int 连续空闲次数;
+    private int tick计数器;
+    private String 上次决策 = "初始";
+
+    private LegionGovernor() {}
+
+    public static LegionGovernor getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new LegionGovernor();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 每5秒评估一次负载
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+
+        LegionGovernor 调节器 = getInstance();
+        if (++调节器.tick计数器 % 评估间隔 == 0) {
+            调节器.评估(event.getServer());
+        }
+    }
+
+    /**
+     * 服务器关闭后恢复初始状态
+     */
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        LegionGovernor 调节器 = getInstance();
+        调节器.规模系数 = 1.0;
+        调节器.模组平均耗时纳秒 = 0;
+        调节器.上次服务器MSPT = 0;
+        调节器.连续空闲次数 = 0;
+        调节器.tick计数器 = 0;
+        调节器.上次决策 = "初始";
+    }
+
+    /**
+     * 记录军团系统在一个游戏刻内的耗时（各维度分片和全局预警的耗时之和）
+     * 时间复杂度：O(1)
+     */
+    public void 记录模组耗时(long 纳秒) {
+        模组平均耗时纳秒 += (纳秒 - 模组平均耗时纳秒) * 耗时平滑系数;
+    }
+
+    /**
+     * 按当前负载调整规模系数
+     * 算法：MSPT或模组耗时超过上限时立即降低一级；两者都低于下限并连续保持若干次评估才恢复一级；
+     *       介于上下限之间时保持不变
+     */
+    private void 评估(MinecraftServer 服务器) {
+        ConfigSnapshot 配置 = EnhancedZombiesConfig.快照();
+        if (!配置.启用负载调节) {
+            规模系数 = 1.0;
+            连续空闲次数 = 0;
+            return;
+        }
+
+        double 服务器MSPT = 服务器.getAverageTickTime();
+        double 模组MSPT = 模组平均耗时纳秒 / 1_000_000.0;
+        double MSPT上限 = 配置.调节MSPT上限;
+        double MSPT下限 = 配置.调节MSPT下限;
+        double 模组预算 = 配置.模组耗时预算毫秒;
+        上次服务器MSPT = 服务器MSPT;
+
+        double 旧系数 = 规模系数;
+        if (服务器MSPT > MSPT上限 || 模组MSPT > 模组预算) {
+            连续空闲次数 = 0;
+            规模系数 = Math.max(0.0, 规模系数 - 降低步长);
+            上次决策 = 服务器MSPT > MSPT上限 ? "服务器超载，降低规模" : "军团系统超出预算，降低规模";
+        } else if (服务器MSPT < MSPT下限 && 模组MSPT < 模组预算 * 0.7) {
+            if (规模系数 < 1.0 && ++连续空闲次数 >= 恢复所需连续空闲次数) {
+                连续空闲次数 = 0;
+                规模系数 = Math.min(1.0, 规模系数 + 恢复步长);
+                上次决策 = "负载较低，恢复规模";
+            }
+        } else {
+            连续空闲次数 = 0;
+        }
+
+        if (规模系数 != 旧系数) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info(
+                "[军团调节] {}: 规模系数 {} -> {} (MSPT {}, 军团系统 {} ms/刻, 并发上限 {}, 更新间隔倍数 {})",
+                上次决策, String.format("%.2f", 旧系数), String.format("%.2f", 规模系数),
+                String.format("%.1f", 服务器MSPT), String.format("%.2f", 模组MSPT),
+                get最大并发军团数(), get更新间隔倍数());
+        }
+    }
+
+    // 调节结果（均为O(1)）
+
+    /**
+     * 当前允许的最大并发军团数（所有维度合计）
+     */
+    public int get最大并发军团数() {
+        ConfigSnapshot 配置 = EnhancedZombiesConfig.快照();
+        int 下限 = 配置.最小并发军团数;
+        int 上限 = 配置.最大并发军团数;
+        return 下限 + (int) Math.round((上限 - 下限) * 规模系数);
+    }
+
+    /**
+     * 按当前负载缩放军团大小，至少保留1个成员
+     */
+    public int 调整军团大小(int 配置大小) {
+        double 比例 = 插值(EnhancedZombiesConfig.快照().最小军团规模比例, 1.0);
+        return Math.max(1, (int) Math.round(配置大小 * 比例));
+    }
+
+    /**
+     * 按当前负载缩放军团生成概率
+     */
+    public double 调整生成概率(double 配置概率) {
+        return 配置概率 * 插值(EnhancedZombiesConfig.快照().最小生成概率比例, 1.0);
+    }
+
+    /**
+     * 军团更新间隔的倍数，负载越高间隔越长
+     */
+    public int get更新间隔倍数() {
+        int 最大倍数 = EnhancedZombiesConfig.快照().最大更新间隔倍数;
+        return 1 + (int) Math.round((最大倍数 - 1) * (1.0 - 规模系数));
+    }
+
+    private double 插值(double 下限值, double 上限值) {
+        return 下限值 + (上限值 - 下限值) * 规模系数;
+    }
+
+    public double get规模系数() {
+        return 规模系数;
+    }
+
+    /**
+     * 获取调节器状态（用于命令系统）
+     */
+    public String 获取状态信息() {
+        ConfigSnapshot 配置 = EnhancedZombiesConfig.快照();
+        StringBuilder 信息 = new StringBuilder();
+        信息.append("负载调节: ").append(配置.启用负载调节 ? "开启" : "关闭").append("\n");
+        信息.append("规模系数: ").append(String.format("%.2f", 规模系数)).append("\n");
+        信息.append("服务器MSPT: ").append(String.format("%.1f", 上次服务器MSPT))
+            .append(" (上限 ").append(配置.调节MSPT上限)
+            .append(" / 下限 ").append(配置.调节MSPT下限).append(")\n");
+        信息.append("军团系统耗时: ").append(String.format("%.2f", 模组平均耗时纳秒 / 1_000_000.0))
+            .append(" ms/刻 (预算 ").append(配置.模组耗时预算毫秒).append(")\n");
+        信息.append("并发军团上限: ").append(get最大并发军团数()).append("\n");
+        信息.append("军团规模比例: ").append(String.format("%.2f", 插值(EnhancedZombiesConfig.快照().最小军团规模比例, 1.0))).append("\n");
+        信息.append("生成概率比例: ").append(String.format("%.2f", 插值(EnhancedZombiesConfig.快照().最小生成概率比例, 1.0))).append("\n");
+        信息.append("更新间隔倍数: ").append(get更新间隔倍数()).append("\n");
+        信息.append("上次决策: ").append(上次决策).append("\n");
+        return 信息.toString();
+    }
+}
@@ -0,0 +1,362 @@
+package com.enhancedzombies.mod.legion;
+
+import com.enhancedzombies.mod.entity.EnhancedZombie;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.lang.ref.WeakReference;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 军团成员表
+ * 功能：以列式数组（struct-of-arrays）保存军团成员数据
+ * 职责：
+ * 1. 每个成员占一行：UUID高低位、实体ID、最后活跃游戏刻、最后已知位置、生命值比例、实体弱引用
+ * 2. UUID到行号的索引，O(1)查找
+ * 3. 交换删除（把最后一行移到被删除的位置），数组保持紧密
+ * 4. 提供不分配对象的forEachMember遍历和只读视图
+ * 5. 随位置写入增量维护已知位置的坐标和与平方和，质心和离散度O(1)读取
+ *
+ * 行号在删除后会变化，只能在单次遍历内使用，不要跨调用保存
+ * 所有修改只在服务器线程上进行，因此不做同步
+ */
+public class LegionMemberTable {
+
+    private static final int 初始容量 = 8;
+
+    private long[] UUID高位 = new long[初始容量];
+    private long[] UUID低位 = new long[初始容量];
+    private int[] 实体ID = new int[初始容量];
+    private long[] 最后活跃刻 = new long[初始容量]; // 世界游戏刻
+    private double[] 位置X = new double[初始容量];
+    private double[] 位置Y = new double[初始容量];
+    private double[] 位置Z = new double[初始容量];
+    private float[] 生命比例 = new float[初始容量];
+    private WeakReference<?>[] 实体引用 = new WeakReference<?>[初始容量]; // 弱引用，不阻止已卸载实体被回收
+    private int 数量;
+
+    // 空间聚合：坐标相对原点（军团生成位置）累加，避免大坐标下的精度损失
+    private final double 原点X;
+    private final double 原点Y;
+    private final double 原点Z;
+    private int 已知位置数量;
+    private double 相对和X;
+    private double 相对和Y;
+    private double 相对和Z;
+    private double 相对平方和; // Σ(dx² + dy² + dz²)
+
+    private final Object2IntOpenHashMap<UUID> 行号索引 = new Object2IntOpenHashMap<>();
+    private final 成员集合视图 只读视图 = new 成员集合视图();
+
+    LegionMemberTable(double 原点X, double 原点Y, double 原点Z) {
+        this.原点X = 原点X;
+        this.原点Y = 原点Y;
+        this.原点Z = 原点Z;
+        行号索引.defaultReturnValue(-1);
+    }
+
+    /**
+     * 成员访问器，参数为成员所在行号
+     */
+    @FunctionalInterface
+    public interface 成员访问器 {
+        void 访问(int 行);
+    }
+
+    // 修改操作（包内可见，只由ZombieLegion调用）
+
+    /**
+     * 添加成员，已存在时只刷新最后活跃刻
+     * 时间复杂度：均摊O(1)
+     * @return 成员所在行号
+     */
+    int 添加(UUID 成员UUID, long 活跃刻) {
+        int 行 = 行号索引.getInt(成员UUID);
+        if (行 >= 0) {
+            最后活跃刻[行] = 活跃刻;
+            return 行;
+        }
+
+        if (数量 == UUID高位.length) {
+            扩容(数量 * 2);
+        }
+
+        行 = 数量++;
+        UUID高位[行] = 成员UUID.getMostSignificantBits();
+        UUID低位[行] = 成员UUID.getLeastSignificantBits();
+        实体ID[行] = -1;
+        最后活跃刻[行] = 活跃刻;
+        位置X[行] = Double.NaN;
+        位置Y[行] = Double.NaN;
+        位置Z[行] = Double.NaN;
+        生命比例[行] = 1.0F;
+        实体引用[行] = null;
+        行号索引.put(成员UUID, 行);
+        return 行;
+    }
+
+    /**
+     * 移除成员
+     * 时间复杂度：O(1)
+     * @return 成员是否存在
+     */
+    boolean 移除(UUID 成员UUID) {
+        int 行 = 行号索引.removeInt(成员UUID);
+        if (行 < 0) {
+            return false;
+        }
+        减去位置(行);
+        移动最后一行到(行);
+        return true;
+    }
+
+    /**
+     * 按行号移除成员（交换删除）
+     * 倒序遍历时可以安全地删除当前行
+     */
+    void 移除行(int 行) {
+        行号索引.removeInt(成员UUID(行));
+        减去位置(行);
+        移动最后一行到(行);
+    }
+
+    void 清空() {
+        Arrays.fill(实体引用, 0, 数量, null);
+        数量 = 0;
+        行号索引.clear();
+        已知位置数量 = 0;
+        相对和X = 相对和Y = 相对和Z = 相对平方和 = 0;
+    }
+
+    void 设置最后活跃刻(int 行, long 游戏刻) {
+        最后活跃刻[行] = 游戏刻;
+    }
+
+    void 设置实体状态(int 行, int 实体ID, double x, double y, double z, float 生命比例) {
+        this.实体ID[行] = 实体ID;
+        this.生命比例[行] = 生命比例;
+        设置位置(行, x, y, z);
+    }
+
+    /**
+     * 写入成员位置，并按新旧位置的差值更新空间聚合
+     * 时间复杂度：O(1)
+     * @return 位置是否发生变化
+     */
+    boolean 设置位置(int 行, double x, double y, double z) {
+        if (位置X[行] == x && 位置Y[行] == y && 位置Z[行] == z) {
+            return false;
+        }
+        减去位置(行);
+        位置X[行] = x;
+        位置Y[行] = y;
+        位置Z[行] = z;
+
+        double dx = x - 原点X;
+        double dy = y - 原点Y;
+        double dz = z - 原点Z;
+        相对和X += dx;
+        相对和Y += dy;
+        相对和Z += dz;
+        相对平方和 += dx * dx + dy * dy + dz * dz;
+        已知位置数量++;
+        return true;
+    }
+
+    /**
+     * 从空间聚合中减去一行的位置（位置未知时不做任何事）
+     */
+    private void 减去位置(int 行) {
+        if (Double.isNaN(位置X[行])) {
+            return;
+        }
+        double dx = 位置X[行] - 原点X;
+        double dy = 位置Y[行] - 原点Y;
+        double dz = 位置Z[行] - 原点Z;
+        相对和X -= dx;
+        相对和Y -= dy;
+        相对和Z -= dz;
+        相对平方和 -= dx * dx + dy * dy + dz * dz;
+        if (--已知位置数量 == 0) {
+            // 没有已知位置时清零，消除累计的舍入误差
+            相对和X = 相对和Y = 相对和Z = 相对平方和 = 0;
+        }
+    }
+
+    void 设置实体引用(int 行, EnhancedZombie 实体) {
+        实体引用[行] = 实体 != null ? new WeakReference<>(实体) : null;
+    }
+
+    private void 移动最后一行到(int 行) {
+        int 最后一行 = --数量;
+        if (行 != 最后一行) {
+            UUID高位[行] = UUID高位[最后一行];
+            UUID低位[行] = UUID低位[最后一行];
+            实体ID[行] = 实体ID[最后一行];
+            最后活跃刻[行] = 最后活跃刻[最后一行];
+            位置X[行] = 位置X[最后一行];
+            位置Y[行] = 位置Y[最后一行];
+            位置Z[行] = 位置Z[最后一行];
+            生命比例[行] = 生命比例[最后一行];
+            实体引用[行] = 实体引用[最后一行];
+            行号索引.put(成员UUID(行), 行);
+        }
+        实体引用[最后一行] = null;
+    }
+
+    private void 扩容(int 新容量) {
+        UUID高位 = Arrays.copyOf(UUID高位, 新容量);
+        UUID低位 = Arrays.copyOf(UUID低位, 新容量);
+        实体ID = Arrays.copyOf(实体ID, 新容量);
+        最后活跃刻 = Arrays.copyOf(最后活跃刻, 新容量);
+        位置X = Arrays.copyOf(位置X, 新容量);
+        位置Y = Arrays.copyOf(位置Y, 新容量);
+        位置Z = Arrays.copyOf(位置Z, 新容量);
+        生命比例 = Arrays.copyOf(生命比例, 新容量);
+        实体引用 = Arrays.copyOf(实体引用, 新容量);
+    }
+
+    // 查询操作
+
+    public int 数量() {
+        return 数量;
+    }
+
+    public boolean 包含(UUID 成员UUID) {
+        return 行号索引.containsKey(成员UUID);
+    }
+
+    /**
+     * 获取成员所在行号，不存在时返回-1
+     */
+    public int 行号(UUID 成员UUID) {
+        return 行号索引.getInt(成员UUID);
+    }
+
+    /**
+     * 不分配对象地遍历所有成员
+     * 遍历期间不要增删成员
+     */
+    public void forEachMember(成员访问器 访问器) {
+        for (int 行 = 0; 行 < 数量; 行++) {
+            访问器.访问(行);
+        }
+    }
+
+    public long UUID高位(int 行) { return UUID高位[行]; }
+    public long UUID低位(int 行) { return UUID低位[行]; }
+    public int 实体ID(int 行) { return 实体ID[行]; }
+    public long 最后活跃刻(int 行) { return 最后活跃刻[行]; }
+    public double 位置X(int 行) { return 位置X[行]; }
+    public double 位置Y(int 行) { return 位置Y[行]; }
+    public double 位置Z(int 行) { return 位置Z[行]; }
+    public float 生命比例(int 行) { return 生命比例[行]; }
+
+    /**
+     * 缓存的成员实体，未缓存或已被回收时返回null
+     * 不检查实体是否仍在世界中，由调用方校验
+     */
+    public EnhancedZombie 缓存实体(int 行) {
+        WeakReference<?> 引用 = 实体引用[行];
+        return 引用 != null ? (EnhancedZombie) 引用.get() : null;
+    }
+
+    /**
+     * 位置已知的成员数量
+     */
+    public int 已知位置数量() {
+        return 已知位置数量;
+    }
+
+    /**
+     * 已知位置成员的质心坐标，没有已知位置时返回NaN
+     * 时间复杂度：O(1)
+     */
+    public double 质心X() { return 已知位置数量 > 0 ? 原点X + 相对和X / 已知位置数量 : Double.NaN; }
+    public double 质心Y() { return 已知位置数量 > 0 ? 原点Y + 相对和Y / 已知位置数量 : Double.NaN; }
+    public double 质心Z() { return 已知位置数量 > 0 ? 原点Z + 相对和Z / 已知位置数量 : Double.NaN; }
+
+    /**
+     * 已知位置成员到质心距离的均方根（离散程度），少于两个已知位置时返回0
+     * 算法：E[|p|²] - |E[p]|²
+     * 时间复杂度：O(1)
+     */
+    public double 均方根离散度() {
+        if (已知位置数量 < 2) {
+            return 0;
+        }
+        double 均值X = 相对和X / 已知位置数量;
+        double 均值Y = 相对和Y / 已知位置数量;
+        double 均值Z = 相对和Z / 已知位置数量;
+        double 方差 = 相对平方和 / 已知位置数量 - (均值X * 均值X + 均值Y * 均值Y + 均值Z * 均值Z);
+        return Math.sqrt(Math.max(0, 方差));
+    }
+
+    /**
+     * 位置是否已知（成员实体加载后至少上报过一次）
+     */
+    public boolean 位置已知(int 行) {
+        return !Double.isNaN(位置X[行]);
+    }
+
+    /**
+     * 判断指定行是否为给定UUID（不分配对象）
+     */
+    public boolean 是否为(int 行, UUID 成员UUID) {
+        return 成员UUID != null
+            && UUID高位[行] == 成员UUID.getMostSignificantBits()
+            && UUID低位[行] == 成员UUID.getLeastSignificantBits();
+    }
+
+    /**
+     * 构造指定行的UUID（会分配对象，热路径优先使用UUID高位/UUID低位）
+     */
+    public UUID 成员UUID(int 行) {
+        return new UUID(UUID高位[行], UUID低位[行]);
+    }
+
+    /**
+     * 成员UUID的只读集合视图，随表内容变化，不复制数据
+     * 迭代期间不要增删成员
+     */
+    public Set<UUID> 只读视图() {
+        return 只读视图;
+    }
+
+    private final class 成员集合视图 extends AbstractSet<UUID> {
+        @Override
+        public Iterator<UUID> iterator() {
+            return new Iterator<>() {
+                private int 行 = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return 行 < 数量;
+                }
+
+                @Override
+                public UUID next() {
+                    if (行 >= 数量) {
+                        throw new NoSuchElementException();
+                    }
+                    return 成员UUID(行++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return 数量;
+        }
+
+        @Override
+        public boolean contains(Object 对象) {
+            return 对象 instanceof UUID && 行号索引.containsKey(对象);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.enhancedzombies.mod.legion;
+
+import net.minecraft.core.BlockPos;
+
+/**
+ * 军团寻路失败缓存
+ * 功能：记录军团成员最近寻路失败的目标区域，其他成员在短时间内不再重复同样会失败的寻路
+ * 职责：
+ * 1. 按目标所在的粗粒度格子（4×4×4方块）记录失败，条目在有效期后自动过期
+ * 2. 每个条目保存从寻路起点到目标的路线包围盒（向外扩展若干格），只对位于包围盒内的成员生效
+ * 3. 路线包围盒内的方块发生变化（被破坏、放置、门被打开等）时立即删除条目，成员随后重新寻路
+ *
+ * 命中缓存的成员跳过寻路，直接交给方块破坏和建造行为处理
+ * 每个军团最多保存几个条目（线性查找），只在服务器线程上使用，因此不做同步
+ */
+public class LegionPathFailureCache {
+
+    private static final int 容量 = 8;
+    private static final int 有效刻数 = 60;       // 3秒
+    private static final int 路线扩展格数 = 8;
+    private static final int 格子位数 = 2;         // 4×4×4方块为一个格子
+
+    private final long[] 目标格键 = new long[容量];
+    private final long[] 过期游戏刻 = new long[容量];
+    private final int[] 最小X = new int[容量], 最小Y = new int[容量], 最小Z = new int[容量];
+    private final int[] 最大X = new int[容量], 最大Y = new int[容量], 最大Z = new int[容量];
+    private int 数量;
+
+    // 所有条目路线包围盒的并集（只扩大不缩小，条目清空时重置），方块变化时先用它排除无关位置
+    private int 并集最小X, 并集最小Y, 并集最小Z, 并集最大X, 并集最大Y, 并集最大Z;
+
+    // 统计（所有军团共享）
+    private static long 命中次数;
+    private static long 记录次数;
+    private static long 失效次数;
+
+    LegionPathFailureCache() {}
+
+    /**
+     * 目标是否在近期被确认为从起点附近不可达
+     * 时间复杂度：O(k) - k为条目数量（不超过8）
+     */
+    public boolean 是否不可达(BlockPos 起点, BlockPos 目标, long 游戏刻) {
+        int 行 = 查找(格键(目标));
+        if (行 < 0) {
+            return false;
+        }
+        if (过期游戏刻[行] <= 游戏刻) {
+            删除(行);
+            return false;
+        }
+        if (!包含(行, 起点.getX(), 起点.getY(), 起点.getZ())) {
+            return false;
+        }
+        命中次数++;
+        return true;
+    }
+
+    /**
+     * 记录一次寻路失败，同一目标格子已有条目时扩展其路线包围盒并刷新有效期
+     * 缓存已满时替换最早过期的条目
+     * 时间复杂度：O(k)
+     */
+    public void 记录不可达(BlockPos 起点, BlockPos 目标, long 游戏刻) {
+        long 键 = 格键(目标);
+        int 行 = 查找(键);
+        if (行 < 0 || 过期游戏刻[行] <= 游戏刻) {
+            if (行 < 0) {
+                行 = 数量 < 容量 ? 数量++ : 最早过期行();
+            }
+            目标格键[行] = 键;
+            最小X[行] = Math.min(起点.getX(), 目标.getX()) - 路线扩展格数;
+            最小Y[行] = Math.min(起点.getY(), 目标.getY()) - 路线扩展格数;
+            最小Z[行] = Math.min(起点.getZ(), 目标.getZ()) - 路线扩展格数;
+            最大X[行] = Math.max(起点.getX(), 目标.getX()) + 路线扩展格数;
+            最大Y[行] = Math.max(起点.getY(), 目标.getY()) + 路线扩展格数;
+            最大Z[行] = Math.max(起点.getZ(), 目标.getZ()) + 路线扩展格数;
+        } else {
+            最小X[行] = Math.min(最小X[行], 起点.getX() - 路线扩展格数);
+            最小Y[行] = Math.min(最小Y[行], 起点.getY() - 路线扩展格数);
+            最小Z[行] = Math.min(最小Z[行], 起点.getZ() - 路线扩展格数);
+            最大X[行] = Math.max(最大X[行], 起点.getX() + 路线扩展格数);
+            最大Y[行] = Math.max(最大Y[行], 起点.getY() + 路线扩展格数);
+            最大Z[行] = Math.max(最大Z[行], 起点.getZ() + 路线扩展格数);
+        }
+        过期游戏刻[行] = 游戏刻 + 有效刻数;
+        记录次数++;
+
+        if (数量 == 1) {
+            并集最小X = 最小X[行]; 并集最小Y = 最小Y[行]; 并集最小Z = 最小Z[行];
+            并集最大X = 最大X[行]; 并集最大Y = 最大Y[行]; 并集最大Z = 最大Z[行];
+        } else {
+            并集最小X = Math.min(并集最小X, 最小X[行]); 并集最大X = Math.max(并集最大X, 最大X[行]);
+            并集最小Y = Math.min(并集最小Y, 最小Y[行]); 并集最大Y = Math.max(并集最大Y, 最大Y[行]);
+            并集最小Z = Math.min(并集最小Z, 最小Z[行]); 并集最大Z = Math.max(并集最大Z, 最大Z[行]);
+        }
+    }
+
+    /**
+     * 位置是否可能在某个条目的路线包围盒内（只比较包围盒并集）
+     * 时间复杂度：O(1)
+     */
+    public boolean 可能包含(BlockPos 位置) {
+        return 数量 > 0
+            && 位置.getX() >= 并集最小X && 位置.getX() <= 并集最大X
+            && 位置.getY() >= 并集最小Y && 位置.getY() <= 并集最大Y
+            && 位置.getZ() >= 并集最小Z && 位置.getZ() <= 并集最大Z;
+    }
+
+    /**
+     * 方块变化：删除路线包围盒包含该位置的所有条目
+     * 时间复杂度：位置在包围盒并集外时O(1)，否则O(k)
+     */
+    public void 方块变化(BlockPos 位置) {
+        if (!可能包含(位置)) {
+            return;
+        }
+        for (int i = 数量 - 1; i >= 0; i--) {
+            if (包含(i, 位置.getX(), 位置.getY(), 位置.getZ())) {
+                删除(i);
+                失效次数++;
+            }
+        }
+    }
+
+    public void 清空() {
+        数量 = 0;
+    }
+
+    public int 数量() {
+        return 数量;
+    }
+
+    private int 查找(long 键) {
+        for (int i = 0; i < 数量; i++) {
+            if (目标格键[i] == 键) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean 包含(int 行, int x, int y, int z) {
+        return x >= 最小X[行] && x <= 最大X[行]
+            && y >= 最小Y[行] && y <= 最大Y[行]
+            && z >= 最小Z[行] && z <= 最大Z[行];
+    }
+
+    private int 最早过期行() {
+        int 结果 = 0;
+        for (int i = 1; i < 数量; i++) {
+            if (过期游戏刻[i] < 过期游戏刻[结果]) {
+                结果 = i;
+            }
+        }
+        return 结果;
+    }
+
+    /**
+     * 删除一行（用最后一行填补）
+     */
+    private void 删除(int 行) {
+        int 最后 = --数量;
+        if (行 != 最后) {
+            目标格键[行] = 目标格键[最后];
+            过期游戏刻[行] = 过期游戏刻[最后];
+            最小X[行] = 最小X[最后];
+            最小Y[行] = 最小Y[最后];
+            最小Z[行] = 最小Z[最后];
+            最大X[行] = 最大X[最后];
+            最大Y[行] = 最大Y[最后];
+            最大Z[行] = 最大Z[最后];
+        }
+    }
+
+    private static long 格键(BlockPos 位置) {
+        return BlockPos.asLong(位置.getX() >> 格子位数, 位置.getY() >> 格子位数, 位置.getZ() >> 格子位数);
+    }
+
+    public static long get命中次数() { return 命中次数; }
+    public static long get记录次数() { return 记录次数; }
+    public static long get失效次数() { return 失效次数; }
+}
@@ -0,0 +1,336 @@
+package com.enhancedzombies.mod.legion;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 军团存档数据
+ * 功能：按维度持久化军团注册表，使服务器重启后军团成员仍受管理
+ * 职责：
+ * 1. 以紧凑二进制格式保存军团（UUID存为两个long，状态存为字节，时间存为游戏刻）
+ * 2. 保存军团ID计数器，避免重启后ID与存档中的僵尸冲突
+ * 3. 在服务器线程上只做不可变快照，编码和写文件交给后台保存线程
+ * 4. 休眠军团保存紧凑的休眠记录（版本2起），唤醒时按记录重新生成成员
+ * 5. 唤醒时所在区块未加载、尚未恢复的成员按同样的格式保存（版本3起）
+ *
+ * 时间字段在内存中和存档中都是世界游戏刻，服务器停机期间不会计入
+ */
+public class LegionSavedData extends SavedData {
+
+    private static final String 数据名称 = "enhancedzombies_legions";
+    private static final String 数据键 = "legions";
+    private static final byte 格式版本 = 3; // 版本1没有休眠记录，版本2没有待恢复记录，仍可读取
+
+    // 单线程后台保存，保证同一文件的写入按提交顺序进行
+    private static final ExecutorService 保存线程 = Executors.newSingleThreadExecutor(任务 -> {
+        Thread 线程 = new Thread(任务, "EnhancedZombies-LegionSave");
+        线程.setDaemon(true);
+        return 线程;
+    });
+
+    private final ServerLevel 世界;
+    private byte[] 待恢复数据; // 从磁盘读取、尚未交给管理器的数据
+    private boolean 上次保存为空 = true;
+
+    private LegionSavedData(ServerLevel 世界) {
+        this.世界 = 世界;
+    }
+
+    /**
+     * 获取（或创建）指定维度的军团存档数据
+     */
+    public static LegionSavedData 获取(ServerLevel 世界) {
+        return 世界.getDataStorage().computeIfAbsent(
+            标签 -> 读取(世界, 标签),
+            () -> new LegionSavedData(世界),
+            数据名称
+        );
+    }
+
+    private static LegionSavedData 读取(ServerLevel 世界, CompoundTag 标签) {
+        LegionSavedData 数据 = new LegionSavedData(世界);
+        数据.待恢复数据 = 标签.getByteArray(数据键);
+        数据.上次保存为空 = false;
+        return 数据;
+    }
+
+    /**
+     * 把存档中的军团恢复到管理器
+     * 只在维度加载时调用一次，成员实体在所在区块加载时由管理器重新绑定
+     * @return 存档中记录的下次军团ID，没有存档时返回1
+     */
+    public int 恢复军团(Collection<ZombieLegion> 输出) {
+        byte[] 数据 = 待恢复数据;
+        待恢复数据 = null;
+        if (数据 == null || 数据.length == 0) {
+            return 1;
+        }
+
+        long 当前游戏刻 = 世界.getGameTime();
+
+        try (DataInputStream 输入 = new DataInputStream(new ByteArrayInputStream(数据))) {
+            byte 版本 = 输入.readByte();
+            if (版本 < 1 || 版本 > 格式版本) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.warn("[军团系统] 未知的军团存档版本 {}，已忽略", 版本);
+                return 1;
+            }
+
+            int 下次军团ID = 输入.readInt();
+            int 军团数量 = 输入.readInt();
+            ZombieLegion.军团状态[] 状态表 = ZombieLegion.军团状态.values();
+            ZombieLegion.战术模式[] 战术表 = ZombieLegion.战术模式.values();
+
+            for (int i = 0; i < 军团数量; i++) {
+                int 军团ID = 输入.readInt();
+                UUID 目标玩家 = new UUID(输入.readLong(), 输入.readLong());
+                BlockPos 生成位置 = BlockPos.of(输入.readLong());
+                ZombieLegion.军团状态 状态 = 状态表[Math.min(输入.readByte(), 状态表.length - 1)];
+                ZombieLegion.战术模式 战术 = 战术表[Math.min(输入.readByte(), 战术表.length - 1)];
+                long 创建游戏刻 = 输入.readLong();
+                float 士气 = 输入.readFloat();
+                float 凝聚度 = 输入.readFloat();
+                int 击杀数 = 输入.readInt();
+                int 死亡数 = 输入.readInt();
+                UUID 军团长 = 输入.readBoolean() ? new UUID(输入.readLong(), 输入.readLong()) : null;
+
+                ZombieLegion 军团 = new ZombieLegion(军团ID, 目标玩家, 生成位置, 世界.dimension(), 创建游戏刻);
+                军团.恢复存档状态(状态, 战术, 士气, 凝聚度, 击杀数, 死亡数, 军团长, 当前游戏刻);
+
+                int 成员数量 = 输入.readInt();
+                for (int j = 0; j < 成员数量; j++) {
+                    UUID 成员 = new UUID(输入.readLong(), 输入.readLong());
+                    long 最后活跃刻 = 输入.readLong();
+                    军团.恢复成员(成员, 最后活跃刻);
+                }
+
+                if (版本 >= 2 && 输入.readBoolean()) {
+                    军团.进入休眠(读取休眠记录(输入));
+                }
+                if (版本 >= 3 && 输入.readBoolean()) {
+                    军团.保留待恢复成员(读取休眠记录(输入));
+                }
+
+                输出.add(军团);
+            }
+
+            return 下次军团ID;
+        } catch (IOException | RuntimeException e) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.error("[军团系统] 读取军团存档失败: {}", e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * 同步编码（仅在其他代码直接调用时使用，正常保存走save(File)）
+     */
+    @Override
+    public CompoundTag save(CompoundTag 标签) {
+        标签.putByteArray(数据键, 编码(创建快照()));
+        return 标签;
+    }
+
+    /**
+     * 在服务器线程上创建快照，编码和写入交给后台保存线程
+     * 军团状态每秒都在变化，因此不检查脏标记，每次世界保存都重新写入
+     */
+    @Override
+    public void save(File 文件) {
+        存档快照 快照 = 创建快照();
+        if (快照.军团.isEmpty() && 上次保存为空) {
+            return;
+        }
+        上次保存为空 = 快照.军团.isEmpty();
+
+        保存线程.execute(() -> {
+            try {
+                CompoundTag 数据标签 = new CompoundTag();
+                数据标签.putByteArray(数据键, 编码(快照));
+                CompoundTag 根标签 = new CompoundTag();
+                根标签.put("data", 数据标签);
+                NbtUtils.addCurrentDataVersion(根标签);
+                NbtIo.writeCompressed(根标签, 文件);
+            } catch (IOException e) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.error("[军团系统] 保存军团存档失败: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 等待后台保存线程写完所有已提交的存档（服务器关闭时调用）
+     */
+    public static void 等待保存完成() {
+        try {
+            保存线程.submit(() -> {}).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.error("[军团系统] 等待军团存档写入时出错: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 读取当前维度所有军团的不可变快照
+     * 时间复杂度：O(n) - n为该维度军团成员总数
+     */
+    private 存档快照 创建快照() {
+        ZombieLegionManager 管理器 = ZombieLegionManager.getInstance();
+        List<军团快照> 军团列表 = new ArrayList<>();
+
+        for (ZombieLegion 军团 : 管理器.获取维度军团(世界.dimension())) {
+            LegionMemberTable 成员表 = 军团.get成员表();
+            long[] 成员数据 = new long[成员表.数量() * 3];
+            for (int 行 = 0; 行 < 成员表.数量(); 行++) {
+                成员数据[行 * 3] = 成员表.UUID高位(行);
+                成员数据[行 * 3 + 1] = 成员表.UUID低位(行);
+                成员数据[行 * 3 + 2] = 成员表.最后活跃刻(行);
+            }
+            DormantLegionRecord 休眠记录 = 军团.get休眠记录();
+            DormantLegionRecord 待恢复记录 = 军团.get待恢复记录();
+            军团列表.add(new 军团快照(军团, 成员数据, 休眠记录 != null ? 休眠记录.复制() : null,
+                待恢复记录 != null ? 待恢复记录.复制() : null));
+        }
+
+        return new 存档快照(管理器.get下次军团ID(), 军团列表);
+    }
+
+    /**
+     * 把快照编码为紧凑字节数组（可在任意线程执行）
+     */
+    private static byte[] 编码(存档快照 快照) {
+        ByteArrayOutputStream 缓冲 = new ByteArrayOutputStream(64 + 快照.军团.size() * 128);
+        try (DataOutputStream 输出 = new DataOutputStream(缓冲)) {
+            输出.writeByte(格式版本);
+            输出.writeInt(快照.下次军团ID);
+            输出.writeInt(快照.军团.size());
+
+            for (军团快照 军团 : 快照.军团) {
+                输出.writeInt(军团.军团ID);
+                输出.writeLong(军团.目标高位);
+                输出.writeLong(军团.目标低位);
+                输出.writeLong(军团.生成位置);
+                输出.writeByte(军团.状态);
+                输出.writeByte(军团.战术);
+                输出.writeLong(军团.创建游戏刻);
+                输出.writeFloat(军团.士气);
+                输出.writeFloat(军团.凝聚度);
+                输出.writeInt(军团.击杀数);
+                输出.writeInt(军团.死亡数);
+                输出.writeBoolean(军团.有军团长);
+                if (军团.有军团长) {
+                    输出.writeLong(军团.军团长高位);
+                    输出.writeLong(军团.军团长低位);
+                }
+
+                输出.writeInt(军团.成员数据.length / 3);
+                for (long 值 : 军团.成员数据) {
+                    输出.writeLong(值);
+                }
+
+                输出.writeBoolean(军团.休眠记录 != null);
+                if (军团.休眠记录 != null) {
+                    写入休眠记录(输出, 军团.休眠记录);
+                }
+                输出.writeBoolean(军团.待恢复记录 != null);
+                if (军团.待恢复记录 != null) {
+                    写入休眠记录(输出, 军团.待恢复记录);
+                }
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream不会抛出IO异常
+            throw new UncheckedIOException(e);
+        }
+        return 缓冲.toByteArray();
+    }
+
+    /**
+     * 休眠记录格式：成员数量、军团长行，每个成员为位置(3个float)、装备模板(int)、生命值(float)、智能等级(byte)
+     */
+    private static void 写入休眠记录(DataOutputStream 输出, DormantLegionRecord 记录) throws IOException {
+        输出.writeInt(记录.数量());
+        输出.writeInt(记录.军团长行());
+        for (int 行 = 0; 行 < 记录.数量(); 行++) {
+            输出.writeFloat((float) 记录.位置X(行));
+            输出.writeFloat((float) 记录.位置Y(行));
+            输出.writeFloat((float) 记录.位置Z(行));
+            输出.writeInt(记录.装备模板(行));
+            输出.writeFloat(记录.生命值(行));
+            输出.writeByte(记录.智能等级(行));
+        }
+    }
+
+    private static DormantLegionRecord 读取休眠记录(DataInputStream 输入) throws IOException {
+        DormantLegionRecord 记录 = new DormantLegionRecord();
+        int 数量 = 输入.readInt();
+        int 军团长行 = 输入.readInt();
+        for (int 行 = 0; 行 < 数量; 行++) {
+            记录.添加(输入.readFloat(), 输入.readFloat(), 输入.readFloat(),
+                输入.readInt(), 输入.readFloat(), 输入.readByte(), 行 == 军团长行);
+        }
+        return 记录;
+    }
+
+    /**
+     * 一次保存的不可变快照
+     */
+    private static final class 存档快照 {
+        final int 下次军团ID;
+        final List<军团快照> 军团;
+
+        存档快照(int 下次军团ID, List<军团快照> 军团) {
+            this.下次军团ID = 下次军团ID;
+            this.军团 = 军团;
+        }
+    }
+
+    /**
+     * 单个军团的不可变快照，只包含基本类型字段
+     */
+    private static final class 军团快照 {
+        final int 军团ID;
+        final long 目标高位;
+        final long 目标低位;
+        final long 生成位置;
+        final byte 状态;
+        final byte 战术;
+        final long 创建游戏刻;
+        final float 士气;
+        final float 凝聚度;
+        final int 击杀数;
+        final int 死亡数;
+        final boolean 有军团长;
+        final long 军团长高位;
+        final long 军团长低位;
+        final long[] 成员数据; // 每个成员三个long：UUID高位、UUID低位、最后活跃游戏刻
+        final DormantLegionRecord 休眠记录; // 副本，军团未休眠时为null
+        final DormantLegionRecord 待恢复记录; // 副本，没有待恢复成员时为null
+
+        军团快照(ZombieLegion 军团, long[] 成员数据, DormantLegionRecord 休眠记录, DormantLegionRecord 待恢复记录) {
+            this.军团ID = 军团.get军团ID();
+            this.目标高位 = 军团.get目标玩家UUID().getMostSignificantBits();
+            this.目标低位 = 军团.get目标玩家UUID().getLeastSignificantBits();
+            this.生成位置 = 军团.get初始生成位置().asLong();
+            this.状态 = (byte) 军团.get当前状态().ordinal();
+            this.战术 = (byte) 军团.get当前战术().ordinal();
+            this.创建游戏刻 = 军团.get创建游戏刻();
+            this.士气 = (float) 军团.get军团士气();
+            this.凝聚度 = (float) 军团.get军团凝聚度();
+            this.击杀数 = 军团.get总击杀数();
+            this.死亡数 = 军团.get总死亡数();
+            UUID 军团长 = 军团.get军团长UUID();
+            this.有军团长 = 军团长 != null;
+            this.军团长高位 = 有军团长 ? 军团长.getMostSignificantBits() : 0L;
+            this.军团长低位 = 有军团长 ? 军团长.getLeastSignificantBits() : 0L;
+            this.成员数据 = 成员数据;
+            this.休眠记录 = 休眠记录;
+            this.待恢复记录 = 待恢复记录;
+        }
+    }
+}
@@ -0,0 +1,1223 @@
+package com.enhancedzombies.mod.legion;
+
+import com.enhancedzombies.mod.config.ConfigSnapshot;
+import com.enhancedzombies.mod.config.EnhancedZombiesConfig;
+import com.enhancedzombies.mod.entity.EnhancedZombie;
+import it.unimi.dsi.fastutil.ints.IntArraySet;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.MobSpawnType;
+import net.minecraft.world.entity.player.Player;
+
+import java.util.*;
+
+/**
+ * 军团分片
+ * 功能：管理单个维度（ServerLevel）中的军团
+ * 职责：
+ * 1. 持有本维度的活跃军团、成员映射、目标玩家索引和分批生成队列
+ * 2. 持有本维度玩家的生成调度，在本维度的LevelTickEvent中推进
+ * 3. 负责本维度军团的生成、状态更新和清理
+ * 4. 军团由LegionUpdateScheduler按状态分散到不同游戏刻更新，每刻开销有上限
+ * 5. 附近没有玩家的军团进入休眠：成员压缩为DormantLegionRecord后移除实体，玩家靠近时经由生成队列重新生成
+ *
+ * 军团ID和预警、冷却等玩家级状态由ZombieLegionManager统一管理，跨分片保持唯一
+ * 没有玩家、没有生成任务也没有可达性请求的分片每刻只做几次判空
+ */
+public class LegionShard {
+
+    private final ServerLevel 世界;
+    private final ZombieLegionManager 管理器;
+
+    // 军团数据存储
+    private final Map<Integer, ZombieLegion> 活跃军团 = new HashMap<>();
+    private final Map<UUID, Integer> 僵尸军团映射 = new HashMap<>();
+    private final Map<UUID, IntArraySet> 目标军团索引 = new HashMap<>(); // 目标玩家 -> 军团ID集合
+
+    // 生成控制
+    private final PlayerSpawnScheduler 玩家调度器 = new PlayerSpawnScheduler();
+    private final LegionUpdateScheduler 更新调度器 = new LegionUpdateScheduler();
+    private final ReachabilityOracle 可达性判定 = new ReachabilityOracle();
+    private final Random 随机数生成器 = new Random();
+
+    // 分批生成队列
+    private final Deque<军团生成任务> 生成队列 = new ArrayDeque<>();
+    private int 队列待生成数量 = 0;
+
+    private int tick计数器 = 0;
+    private boolean 空闲 = false; // 上一刻是否因本维度没有玩家和待处理工作而跳过更新
+
+    LegionShard(ServerLevel 世界, ZombieLegionManager 管理器) {
+        this.世界 = 世界;
+        this.管理器 = 管理器;
+    }
+
+    /**
+     * 本维度每刻的更新逻辑（由LevelTickEvent驱动）
+     * 每刻只更新到期的军团和到期的玩家，不再每20刻集中处理所有军团
+     * 本维度没有玩家、没有生成任务也没有可达性请求时直接返回，军团调度暂停到有玩家进入本维度
+     * 时间复杂度：O(b × n + k log p) - b为每刻军团更新上限，n为军团成员数量（到期时采样），k为本刻到期的玩家数量
+     */
+    void tick() {
+        if (生成队列.isEmpty() && !可达性判定.有待计算请求()
+            && !OnlinePlayerIndex.getInstance().维度有玩家(世界.dimension())) {
+            if (!空闲) {
+                空闲 = true;
+                整理空闲维度军团();
+            }
+            return;
+        }
+        空闲 = false;
+        tick计数器++;
+
+        // 生成队列每刻都要推进
+        处理生成队列();
+        可达性判定.处理请求(世界.getGameTime());
+
+        if (!活跃军团.isEmpty()) {
+            更新调度器.处理到期(tick计数器, EnhancedZombiesConfig.快照().每刻最大军团更新数量, this::更新单个军团);
+        }
+
+        if (玩家调度器.数量() > 0) {
+            检查生成新军团();
+        }
+    }
+
+    /**
+     * 更新单个到期军团，并检查是否需要清理（增强版：包含距离检查）
+     * @return 军团是否继续参与调度
+     */
+    private boolean 更新单个军团(ZombieLegion 军团) {
+        // 已注销的军团直接丢弃
+        if (活跃军团.get(军团.get军团ID()) != 军团) {
+            return false;
+        }
+
+        // 到期时采样成员位置，刷新空间聚合和成员黑板（成员读取黑板时也会按需刷新）
+        军团.采样空间聚合(世界.getGameTime());
+
+        if (军团.是否休眠()) {
+            // 休眠军团不更新状态，只检查是否需要唤醒和清理
+            DormantLegionRecord 记录 = 军团.get休眠记录();
+            if (附近有玩家(记录.质心X(), 记录.质心Y(), 记录.质心Z(), 唤醒半径())) {
+                唤醒军团(军团);
+                return true;
+            }
+        } else {
+            军团.更新状态();
+            if (军团.get待恢复成员数量() > 0) {
+                恢复已加载成员(军团);
+            }
+            // 先检查休眠：目标离开或下线、附近没有玩家的军团休眠而不是被距离规则删除
+            if (可以休眠(军团)) {
+                休眠军团(军团);
+                return true;
+            }
+        }
+
+        String 清理原因 = null;
+        // 检查军团是否应该被清理（休眠军团不按目标距离和在线状态清理，只受休眠时限约束）
+        if (军团.应该被清理()) {
+            清理原因 = "军团生命周期结束";
+        } else if (军团.是否休眠()) {
+            if (世界.getGameTime() - 军团.get休眠开始刻() > EnhancedZombiesConfig.快照().军团休眠最长刻数) {
+                清理原因 = "休眠超时";
+            }
+        } else if (检查军团距离并决定清理(军团)) {
+            // 检查玩家距离
+            清理原因 = "玩家距离过远";
+        }
+
+        if (清理原因 == null) {
+            return true;
+        }
+
+        if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info(
+                "[军团系统] 清理军团 {} - 原因: {}, 成员数量: {}",
+                军团.get军团ID(), 清理原因, 军团.get成员数量()
+            );
+        }
+
+        注销军团(军团);
+        return false;
+    }
+
+    /**
+     * 本维度刚变为空闲（包括从存档恢复后的第一刻）时整理军团：
+     * 维度中没有玩家，任何军团的目标都不在本维度，能休眠的军团进入休眠，其余军团注销
+     * 空闲期间军团调度暂停，整理后本维度不再有计入并发上限的军团
+     * 时间复杂度：O(n) - n为本维度军团成员总数
+     */
+    private void 整理空闲维度军团() {
+        for (ZombieLegion 军团 : new ArrayList<>(活跃军团.values())) {
+            if (军团.是否休眠()) {
+                continue;
+            }
+            if (可以休眠(军团)) {
+                休眠军团(军团);
+                continue;
+            }
+            if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info(
+                    "[军团系统] 清理军团 {} - 原因: 维度中没有玩家, 成员数量: {}", 军团.get军团ID(), 军团.get成员数量());
+            }
+            注销军团(军团);
+        }
+    }
+
+    // 军团休眠
+
+    private static double 休眠半径() {
+        return EnhancedZombiesConfig.快照().军团休眠半径;
+    }
+
+    /**
+     * 唤醒半径小于休眠半径，玩家在边界附近徘徊时不会反复休眠和唤醒
+     */
+    private static double 唤醒半径() {
+        return EnhancedZombiesConfig.快照().军团唤醒半径;
+    }
+
+    /**
+     * 本维度是否有玩家在指定位置的半径内（旁观者模式的玩家不计）
+     * 时间复杂度：O(p) - p为本维度在线玩家数量
+     */
+    private boolean 附近有玩家(double x, double y, double z, double 半径) {
+        if (Double.isNaN(x)) {
+            return false;
+        }
+        double 半径平方 = 半径 * 半径;
+        for (UUID 玩家UUID : OnlinePlayerIndex.getInstance().获取维度玩家(世界.dimension())) {
+            ServerPlayer 玩家 = OnlinePlayerIndex.getInstance().获取玩家(玩家UUID, 世界.dimension());
+            if (玩家 != null && !玩家.isSpectator() && 玩家.distanceToSqr(x, y, z) <= 半径平方) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 军团是否可以进入休眠：已生成完毕、未解散、有成员，并且休眠半径内没有玩家
+     */
+    private boolean 可以休眠(ZombieLegion 军团) {
+        if (!EnhancedZombiesConfig.快照().启用军团休眠 || 军团.是否休眠() || 军团.是否成员生成中()
+            || 军团.get当前状态() == ZombieLegion.军团状态.已解散
+            || 军团.get成员数量() + 军团.get待恢复成员数量() == 0) {
+            return false;
+        }
+        if (军团.有空间数据()) {
+            return !附近有玩家(军团.get质心X(), 军团.get质心Y(), 军团.get质心Z(), 休眠半径());
+        }
+        BlockPos 生成位置 = 军团.get初始生成位置();
+        return !附近有玩家(生成位置.getX() + 0.5, 生成位置.getY(), 生成位置.getZ() + 0.5, 休眠半径());
+    }
+
+    /**
+     * 让军团进入休眠
+     * 算法：把已加载成员的位置、装备模板、生命值和智能等级写入休眠记录，解除成员映射后移除实体；
+     *       未加载的成员留在所在区块，区块加载时由重新绑定僵尸()并入休眠记录；
+     *       上次唤醒时尚未恢复的成员一并并入休眠记录
+     * 时间复杂度：O(n) - n为成员数量
+     */
+    private void 休眠军团(ZombieLegion 军团) {
+        DormantLegionRecord 记录 = new DormantLegionRecord();
+        List<EnhancedZombie> 待移除 = new ArrayList<>();
+        LegionMemberTable 成员表 = 军团.get成员表();
+        UUID 军团长 = 军团.get军团长UUID();
+
+        for (int 行 = 0; 行 < 成员表.数量(); 行++) {
+            EnhancedZombie 实体 = 军团.获取成员实体(行);
+            if (实体 == null) {
+                continue;
+            }
+            记录.添加(实体.getX(), 实体.getY(), 实体.getZ(), LegionEquipmentTemplate.编码(实体),
+                实体.getHealth(), 实体.get智能等级(), 成员表.是否为(行, 军团长));
+            待移除.add(实体);
+        }
+        DormantLegionRecord 待恢复 = 军团.取出待恢复成员();
+        if (待恢复 != null) {
+            for (int 行 = 0; 行 < 待恢复.数量(); 行++) {
+                记录.添加行(待恢复, 行);
+            }
+        }
+
+        // 先解除成员映射，移除实体触发的离开世界事件不会再计为成员死亡
+        for (UUID 僵尸UUID : 军团.get成员列表()) {
+            僵尸军团映射.remove(僵尸UUID);
+        }
+        军团.进入休眠(记录);
+        for (EnhancedZombie 实体 : 待移除) {
+            实体.discard();
+        }
+
+        if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 军团 {} 进入休眠，记录成员 {} 个",
+                军团.get军团ID(), 记录.数量());
+        }
+    }
+
+    /**
+     * 唤醒休眠军团，按休眠记录把成员加入生成队列
+     */
+    private void 唤醒军团(ZombieLegion 军团) {
+        DormantLegionRecord 记录 = 军团.结束休眠();
+        if (记录.数量() == 0) {
+            return;
+        }
+
+        军团.set成员生成中(true);
+        BlockPos 中心位置 = BlockPos.containing(记录.质心X(), 记录.质心Y(), 记录.质心Z());
+        生成队列.addLast(new 军团生成任务(军团, 中心位置, 记录));
+        队列待生成数量 += 记录.数量();
+
+        if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 军团 {} 被唤醒，{} 个成员已加入生成队列",
+                军团.get军团ID(), 记录.数量());
+        }
+    }
+
+    /**
+     * 把所在区块已经加载的待恢复成员加入生成队列，区块仍未加载的成员继续保留
+     * 时间复杂度：O(p) - p为待恢复成员数量
+     */
+    private void 恢复已加载成员(ZombieLegion 军团) {
+        DormantLegionRecord 待恢复 = 军团.get待恢复记录();
+        if (军团.是否成员生成中()) {
+            return;
+        }
+
+        BlockPos.MutableBlockPos 位置 = new BlockPos.MutableBlockPos();
+        DormantLegionRecord 已加载 = new DormantLegionRecord();
+        DormantLegionRecord 未加载 = new DormantLegionRecord();
+        for (int 行 = 0; 行 < 待恢复.数量(); 行++) {
+            位置.set(待恢复.位置X(行), 待恢复.位置Y(行), 待恢复.位置Z(行));
+            if (世界.hasChunkAt(位置)) {
+                已加载.添加行(待恢复, 行);
+            } else {
+                未加载.添加行(待恢复, 行);
+            }
+        }
+        if (已加载.数量() == 0) {
+            return;
+        }
+
+        军团.取出待恢复成员();
+        if (未加载.数量() > 0) {
+            军团.保留待恢复成员(未加载);
+        }
+        军团.set成员生成中(true);
+        生成队列.addLast(new 军团生成任务(军团, BlockPos.containing(已加载.质心X(), 已加载.质心Y(), 已加载.质心Z()), 已加载));
+        队列待生成数量 += 已加载.数量();
+    }
+
+    /**
+     * 检查是否需要生成新军团
+     * 算法：全局生成间隔（所有维度共享，与原来的全局计时器相同）未到时直接返回，到期玩家留在队列中；
+     *       否则从本维度的玩家调度器中弹出已到期的玩家，依次检查冷却、已有军团、概率和预警条件，
+     *       不满足条件的玩家按原因重新安排下次检查时间，启动一次预警后重新开始全局间隔
+     * 时间复杂度：O(k log n) - k为本次到期的玩家数量，n为本维度调度中的玩家数量
+     */
+    private void 检查生成新军团() {
+        MinecraftServer 服务器 = 世界.getServer();
+        // 每刻都会调用，开发模式日志每秒只输出一次
+        boolean 输出日志 = com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式() && tick计数器 % 20 == 0;
+
+        // 开局保护：服务器启动后5分钟内不生成军团
+        long 服务器运行时间 = 服务器.getTickCount() * 50; // tick转毫秒
+        if (服务器运行时间 < 300000) { // 5分钟 = 300000毫秒
+            if (输出日志) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 开局保护期内，跳过生成 (剩余: {}秒)",
+                    (300000 - 服务器运行时间) / 1000);
+            }
+            return;
+        }
+
+        long 当前刻 = 服务器.getTickCount();
+        int 本次检查上限 = 玩家调度器.数量();
+
+        for (int i = 0; i < 本次检查上限; i++) {
+            // 配置的生成间隔限制整个服务器两次预警之间的时间，不随在线玩家数量增加
+            if (当前刻 < 管理器.get下次允许预警刻()) {
+                return;
+            }
+
+            // 检查所有维度的军团总数限制（由负载调节器决定），达到上限时到期玩家留在队列中等待下次检查
+            int 军团总数 = 管理器.获取计入上限的军团数量();
+            int 军团上限 = LegionGovernor.getInstance().get最大并发军团数();
+            if (军团总数 >= 军团上限) {
+                if (输出日志) {
+                    com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 活跃军团数量已达上限: {}/{}", 军团总数, 军团上限);
+                }
+                return;
+            }
+
+            UUID 玩家UUID = 玩家调度器.弹出到期玩家(当前刻);
+            if (玩家UUID == null) {
+                return;
+            }
+
+            ServerPlayer 目标玩家 = OnlinePlayerIndex.getInstance().获取玩家(玩家UUID, 世界.dimension());
+            if (目标玩家 == null) {
+                // 玩家已离线或已离开本维度，登出和切换维度事件会处理，这里直接丢弃
+                continue;
+            }
+
+            玩家调度器.安排(玩家UUID, 检查玩家并启动预警(目标玩家, 当前刻));
+        }
+    }
+
+    /**
+     * 检查单个到期玩家是否可以成为军团目标，可以时启动预警
+     * @return 该玩家下次被检查的游戏刻
+     */
+    private long 检查玩家并启动预警(ServerPlayer 目标玩家, long 当前刻) {
+        long 下次检查刻 = 当前刻 + 随机生成间隔刻();
+
+        if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 检查目标玩家: {}", 目标玩家.getName().getString());
+        }
+
+        // 检查该玩家是否最近被攻击过，冷却结束时再检查
+        long 剩余冷却 = 管理器.获取剩余冷却刻数(目标玩家.getUUID());
+        if (剩余冷却 > 0) {
+            if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 玩家 {} 最近被攻击过，冷却结束后再检查", 目标玩家.getName().getString());
+            }
+            return 当前刻 + 剩余冷却;
+        }
+
+        // 检查该玩家是否已有活跃军团正在攻击
+        if (玩家是否有活跃军团(目标玩家.getUUID())) {
+            if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 玩家 {} 已有活跃军团攻击，跳过生成", 目标玩家.getName().getString());
+            }
+            return 下次检查刻;
+        }
+
+        // 检查生成概率
+        double 随机值 = Math.random();
+        double 生成概率 = LegionGovernor.getInstance().调整生成概率(EnhancedZombiesConfig.快照().军团生成概率);
+        if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 概率检查 - 随机值: {}, 需要概率: {}", 随机值, 生成概率);
+        }
+        if (随机值 > 生成概率) {
+            if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 概率检查失败，跳过生成");
+            }
+            return 下次检查刻;
+        }
+
+        // 检查是否已有预警
+        if (管理器.玩家是否有预警(目标玩家.getUUID())) {
+            if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 玩家 {} 已有预警，跳过生成", 目标玩家.getName().getString());
+            }
+            return 下次检查刻;
+        }
+
+        // 启动预警系统，军团生成成功后会按冷却时间重新安排该玩家
+        管理器.启动军团预警(目标玩家);
+        管理器.set下次允许预警刻(当前刻 + 随机生成间隔刻());
+        return 下次检查刻;
+    }
+
+    /**
+     * 按配置的生成间隔范围随机一个间隔（游戏刻）
+     */
+    private long 随机生成间隔刻() {
+        ConfigSnapshot 配置 = EnhancedZombiesConfig.快照();
+        int 最小间隔 = 配置.军团生成最小间隔刻;
+        int 最大间隔 = 配置.军团生成最大间隔刻;
+        return 最小间隔 + 随机数生成器.nextInt((最大间隔 - 最小间隔) / 20 + 1) * 20L;
+    }
+
+    // 玩家调度（由管理器在登录、登出、切换维度时调用）
+
+    /**
+     * 把玩家加入本维度的生成调度
+     * @param 到期刻 指定的到期游戏刻，小于0时按配置间隔随机安排
+     */
+    void 加入调度(UUID 玩家UUID, long 到期刻) {
+        long 当前刻 = 世界.getServer().getTickCount();
+        玩家调度器.安排(玩家UUID, 到期刻 >= 0 ? Math.max(到期刻, 当前刻) : 当前刻 + 随机生成间隔刻());
+    }
+
+    /**
+     * 把玩家移出本维度的生成调度
+     * @return 玩家原来的到期游戏刻，不在调度中时返回-1
+     */
+    long 移出调度(UUID 玩家UUID) {
+        return 玩家调度器.移除(玩家UUID);
+    }
+
+    /**
+     * 军团生成成功后，冷却结束时再检查该玩家
+     */
+    void 按冷却重新安排(UUID 玩家UUID, long 冷却刻数) {
+        if (玩家调度器.包含(玩家UUID)) {
+            玩家调度器.安排(玩家UUID, 世界.getServer().getTickCount() + 冷却刻数);
+        }
+    }
+
+    /**
+     * 生成新的僵尸军团
+     * 算法：在玩家周围寻找合适的生成位置，创建军团并生成僵尸
+     */
+    boolean 生成军团(Player 目标玩家) {
+        // 检查时间条件（非开发模式下只在夜晚生成）
+        if (!com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+            long 世界时间 = 世界.getDayTime() % 24000;
+            if (世界时间 >= 0 && 世界时间 < 13000) { // 白天时间 0-13000
+                return false;
+            }
+        }
+
+        // 寻找生成位置
+        BlockPos 生成位置 = 寻找军团生成位置(目标玩家);
+        if (生成位置 == null) {
+            return false;
+        }
+
+        // 创建新军团
+        int 军团ID = 管理器.分配军团ID();
+        int 军团大小 = LegionGovernor.getInstance().调整军团大小(EnhancedZombiesConfig.get随机军团大小());
+
+        ZombieLegion 新军团 = new ZombieLegion(军团ID, 目标玩家.getUUID(), 生成位置, 世界.dimension(), 世界.getGameTime());
+        注册军团(新军团);
+
+        // 生成军团成员
+        return 生成军团成员(新军团, 生成位置, 军团大小);
+    }
+
+    /**
+     * 强制生成军团（用于命令系统），跳过冷却、概率和时间检查
+     */
+    boolean 强制生成军团(Player 目标玩家, int 军团大小) {
+        // 寻找合适的生成位置
+        BlockPos 生成位置 = 寻找军团生成位置(目标玩家);
+        if (生成位置 == null) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.warn("[命令生成] 找不到合适的生成位置，玩家: {}", 目标玩家.getName().getString());
+            return false;
+        }
+
+        // 创建新军团，成员由生成队列分批生成
+        int 军团ID = 管理器.分配军团ID();
+        ZombieLegion 新军团 = new ZombieLegion(军团ID, 目标玩家.getUUID(), 生成位置, 世界.dimension(), 世界.getGameTime());
+        注册军团(新军团);
+        boolean 生成成功 = 生成军团成员(新军团, 生成位置, 军团大小);
+
+        if (生成成功) {
+            // 开发模式下输出调试信息
+            if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info(
+                    "[命令生成] 为玩家 {} 加入了 {} 个僵尸的军团生成任务，位置: {}",
+                    目标玩家.getName().getString(), 军团大小, 生成位置
+                );
+            }
+        } else {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.warn("[命令生成] 生成军团成员失败，玩家: {}", 目标玩家.getName().getString());
+        }
+
+        return 生成成功;
+    }
+
+    /**
+     * 生成军团成员
+     * 只把成员加入生成队列，由处理生成队列()在后续游戏刻中按预算分批生成
+     * 时间复杂度：O(1)
+     */
+    private boolean 生成军团成员(ZombieLegion 军团, BlockPos 中心位置, int 数量) {
+        // 向附近玩家发送军团来袭警告
+        发送军团来袭警告(中心位置, 军团.get目标玩家UUID());
+
+        军团.set成员生成中(true);
+        生成队列.addLast(new 军团生成任务(军团, 中心位置, 数量));
+        队列待生成数量 += 数量;
+
+        if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 军团 {} 的 {} 个成员已加入生成队列，队列深度: {}",
+                军团.get军团ID(), 数量, 队列待生成数量);
+        }
+
+        return true;
+    }
+
+    /**
+     * 处理生成队列
+     * 每个游戏刻在实体数量和纳秒预算内生成成员，每刻至少生成一个以保证队列推进
+     * 时间复杂度：O(b) - b为每刻生成预算
+     */
+    private void 处理生成队列() {
+        if (生成队列.isEmpty()) return;
+
+        ConfigSnapshot 配置 = EnhancedZombiesConfig.快照();
+        int 最大生成数量 = 配置.每刻最大生成数量;
+        long 时间预算纳秒 = 配置.每刻生成时间预算纳秒;
+        long 开始时间 = System.nanoTime();
+        int 本刻生成数量 = 0;
+
+        while (!生成队列.isEmpty() && 本刻生成数量 < 最大生成数量) {
+            if (本刻生成数量 > 0 && System.nanoTime() - 开始时间 >= 时间预算纳秒) {
+                break;
+            }
+
+            军团生成任务 任务 = 生成队列.peekFirst();
+
+            // 军团已被清理时丢弃剩余任务
+            if (活跃军团.get(任务.军团.get军团ID()) != 任务.军团) {
+                队列待生成数量 -= 任务.剩余数量();
+                生成队列.pollFirst();
+                continue;
+            }
+
+            生成单个成员(任务);
+            任务.已尝试数量++;
+            队列待生成数量--;
+            本刻生成数量++;
+
+            if (任务.剩余数量() <= 0) {
+                生成队列.pollFirst();
+                完成生成任务(任务);
+            }
+        }
+    }
+
+    /**
+     * 生成单个军团成员
+     */
+    private void 生成单个成员(军团生成任务 任务) {
+        ZombieLegion 军团 = 任务.军团;
+        DormantLegionRecord 记录 = 任务.休眠记录;
+        int 记录行 = 任务.已尝试数量;
+
+        BlockPos 生成点;
+        if (记录 != null) {
+            // 唤醒时回到休眠前的位置；所在区块未加载时保留到区块加载后再生成，找不到地面时使用原位置
+            BlockPos 原位置 = BlockPos.containing(记录.位置X(记录行), 记录.位置Y(记录行), 记录.位置Z(记录行));
+            if (!世界.hasChunkAt(原位置)) {
+                任务.保留未加载成员(记录行);
+                return;
+            }
+            BlockPos 地面位置 = 智能调整到地面高度(原位置);
+            生成点 = 地面位置 != null ? 地面位置 : 原位置;
+        } else {
+            // 新军团在中心位置周围随机选择生成点，并调整Y坐标到地面
+            生成点 = 智能调整到地面高度(任务.中心位置.offset(
+                随机数生成器.nextInt(10) - 5,
+                0,
+                随机数生成器.nextInt(10) - 5
+            ));
+            if (生成点 == null) return;
+        }
+
+        // 创建增强僵尸
+        EnhancedZombie 僵尸 = new EnhancedZombie(com.enhancedzombies.mod.EnhancedZombiesMod.ENHANCED_ZOMBIE.get(), 世界);
+        僵尸.moveTo(生成点.getX() + 0.5, 生成点.getY(), 生成点.getZ() + 0.5, 0, 0);
+
+        // 军团还没有军团长时第一个成功生成的僵尸担任，唤醒时由记录中的军团长行担任
+        // 在初始化装备之前指定，军团长装备只由finalizeSpawn生成一次
+        boolean 设为军团长 = 记录 != null && 记录.军团长行() >= 0
+            ? 记录行 == 记录.军团长行()
+            : 军团.get军团长UUID() == null;
+        if (设为军团长) {
+            僵尸.设置为军团长(); // 使用专门的方法设置军团长
+        }
+
+        // 初始化僵尸装备和属性
+        僵尸.finalizeSpawn(世界, 世界.getCurrentDifficultyAt(生成点), MobSpawnType.NATURAL, null, null);
+
+        // 设置军团信息
+        僵尸.set军团ID(军团.get军团ID());
+
+        // 唤醒时恢复休眠前的装备、智能等级和生命值（军团长保留刚生成的附魔装备）
+        if (记录 != null) {
+            if (!设为军团长) {
+                LegionEquipmentTemplate.应用(僵尸, 记录.装备模板(记录行));
+            }
+            僵尸.set智能等级(记录.智能等级(记录行));
+            僵尸.setHealth(Math.min(记录.生命值(记录行), 僵尸.getMaxHealth()));
+        }
+
+        // 设置目标玩家
+        Player 目标玩家 = OnlinePlayerIndex.getInstance().获取玩家(军团.get目标玩家UUID(), 世界.dimension());
+        if (目标玩家 != null) {
+            僵尸.setTarget(目标玩家);
+        }
+
+        // 生成到世界
+        if (世界.addFreshEntity(僵尸)) {
+            if (设为军团长) {
+                军团.set军团长UUID(僵尸.getUUID());
+            }
+            军团.添加成员(僵尸.getUUID());
+            军团.更新成员实体(僵尸);
+            僵尸军团映射.put(僵尸.getUUID(), 军团.get军团ID());
+            任务.成功数量++;
+        }
+    }
+
+    /**
+     * 生成任务完成后的收尾
+     * 新军团生成的僵尸太少时删除军团，否则让军团离开初始化状态；
+     * 唤醒任务不删除军团，区块未加载的成员留在军团中等待区块加载
+     */
+    private void 完成生成任务(军团生成任务 任务) {
+        ZombieLegion 军团 = 任务.军团;
+        军团.set成员生成中(false);
+
+        if (任务.休眠记录 != null) {
+            if (任务.未加载记录 != null) {
+                军团.保留待恢复成员(任务.未加载记录);
+            }
+            if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 军团 {} 恢复了 {}/{} 个成员，{} 个等待区块加载",
+                    军团.get军团ID(), 任务.成功数量, 任务.目标数量, 军团.get待恢复成员数量());
+            }
+            return;
+        }
+
+        if (任务.成功数量 < 任务.目标数量 / 2) {
+            注销军团(军团);
+
+            if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 军团 {} 只生成了 {}/{} 个成员，已删除",
+                    军团.get军团ID(), 任务.成功数量, 任务.目标数量);
+            }
+            return;
+        }
+
+        if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 军团 {} 生成完毕，成员数量: {}/{}",
+                军团.get军团ID(), 任务.成功数量, 任务.目标数量);
+        }
+    }
+
+    /**
+     * 寻找合适的军团生成位置
+     * 算法：查询区块加载时建立的生成位置索引，只在玩家周围60-80格环形内已加载的区块中选点
+     * 时间复杂度：O(c + k) - c为环内区块数，k为复核的候选列数，不会触发区块同步加载
+     */
+    private BlockPos 寻找军团生成位置(Player 玩家) {
+        int 最小距离 = 60; // 确保最小60格距离，避免与玩家重叠
+        int 最大距离 = 80; // 最大距离80格
+        int 最大高度差 = 15; // 允许的相对玩家高度差
+
+        BlockPos 生成位置 = LegionSpawnSiteIndex.getInstance().寻找生成位置(
+            世界, 玩家.blockPosition(), 最小距离, 最大距离, 最大高度差, 随机数生成器);
+
+        if (生成位置 == null && com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 生成位置索引中没有合适位置，已索引区块数: {}",
+                LegionSpawnSiteIndex.getInstance().获取已索引区块数量(世界.dimension()));
+        }
+
+        return 生成位置;
+    }
+
+    /**
+     * 智能调整位置到合适的地面高度
+     * 算法：优先向下搜索，然后向上搜索，支持多种地形类型
+     */
+    private BlockPos 智能调整到地面高度(BlockPos 位置) {
+        int 搜索范围 = 20; // 增加搜索范围
+
+        // 区块未加载时直接放弃，避免在服务器线程上同步加载区块
+        if (!世界.hasChunkAt(位置)) {
+            return null;
+        }
+
+        // 向下搜索地面（优先）
+        for (int y = 位置.getY(); y > Math.max(世界.getMinBuildHeight(), 位置.getY() - 搜索范围); y--) {
+            BlockPos 检查位置 = new BlockPos(位置.getX(), y, 位置.getZ());
+            if (是否为合适的地面位置(检查位置)) {
+                return 检查位置.above();
+            }
+        }
+
+        // 向上搜索地面
+        for (int y = 位置.getY() + 1; y < Math.min(世界.getMaxBuildHeight() - 2, 位置.getY() + 搜索范围); y++) {
+            BlockPos 检查位置 = new BlockPos(位置.getX(), y, 位置.getZ());
+            if (是否为合适的地面位置(检查位置)) {
+                return 检查位置.above();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 判断是否为合适的地面位置
+     */
+    private boolean 是否为合适的地面位置(BlockPos 位置) {
+        // 检查当前位置是否为实体方块
+        if (世界.getBlockState(位置).isAir()) {
+            return false;
+        }
+
+        // 检查上方是否有足够空间（2格高度）
+        if (!世界.getBlockState(位置.above()).isAir() ||
+            !世界.getBlockState(位置.above(2)).isAir()) {
+            return false;
+        }
+
+        // 检查是否为危险方块
+        net.minecraft.world.level.block.Block 危险方块 = 世界.getBlockState(位置).getBlock();
+        if (危险方块 instanceof net.minecraft.world.level.block.CactusBlock ||
+            危险方块 instanceof net.minecraft.world.level.block.MagmaBlock ||
+            危险方块.toString().contains("lava")) {
+            return false;
+        }
+
+        // 检查是否为可站立的方块（排除一些特殊方块）
+        net.minecraft.world.level.block.Block 方块 = 世界.getBlockState(位置).getBlock();
+        if (方块 instanceof net.minecraft.world.level.block.FenceBlock ||
+            方块 instanceof net.minecraft.world.level.block.WallBlock ||
+            方块 instanceof net.minecraft.world.level.block.FenceGateBlock) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * 检查军团距离并决定是否清理
+     * @param 军团 要检查的军团
+     * @return 是否应该清理
+     */
+    private boolean 检查军团距离并决定清理(ZombieLegion 军团) {
+        try {
+            // 获取目标玩家
+            Player 目标玩家 = OnlinePlayerIndex.getInstance().获取玩家(军团.get目标玩家UUID());
+
+            // 如果目标玩家不在线，清理军团
+            // 从存档恢复的军团给予5分钟宽限，等待目标玩家重新登录
+            if (目标玩家 == null) {
+                return 军团.get恢复游戏刻() < 0 || 世界.getGameTime() - 军团.get恢复游戏刻() > 6000;
+            }
+
+            // 检查距离（128格，即8个区块）
+            double 最大距离 = 128.0;
+            double 当前距离 = 目标玩家.blockPosition().distSqr(军团.get初始生成位置());
+
+            if (当前距离 > 最大距离 * 最大距离) {
+                // 距离过远，但给予一定的宽限时间（5分钟）
+                long 军团存在刻数 = 世界.getGameTime() - 军团.get创建游戏刻();
+
+                // 如果军团存在超过5分钟且距离过远，则清理
+                if (军团存在刻数 > 6000) { // 5分钟 = 6000刻
+                    return true;
+                }
+            }
+
+        } catch (Exception e) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.error("检查军团距离时出错: {}", e.getMessage());
+            return false;
+        }
+
+        return false;
+    }
+
+    /**
+     * 注册军团并写入目标玩家索引
+     */
+    void 注册军团(ZombieLegion 军团) {
+        活跃军团.put(军团.get军团ID(), 军团);
+        更新调度器.加入(军团, tick计数器);
+        目标军团索引.computeIfAbsent(军团.get目标玩家UUID(), k -> new IntArraySet(2)).add(军团.get军团ID());
+    }
+
+    /**
+     * 注销军团，同时清理成员映射和目标玩家索引
+     */
+    private void 注销军团(ZombieLegion 军团) {
+        活跃军团.remove(军团.get军团ID());
+        移除目标索引(军团);
+        for (UUID 僵尸UUID : 军团.get成员列表()) {
+            僵尸军团映射.remove(僵尸UUID);
+        }
+    }
+
+    /**
+     * 从目标玩家索引中移除军团
+     */
+    private void 移除目标索引(ZombieLegion 军团) {
+        IntArraySet 军团集合 = 目标军团索引.get(军团.get目标玩家UUID());
+        if (军团集合 != null) {
+            军团集合.remove(军团.get军团ID());
+            if (军团集合.isEmpty()) {
+                目标军团索引.remove(军团.get目标玩家UUID());
+            }
+        }
+    }
+
+    /**
+     * 玩家在本维度是否已有活跃军团（有成员、成员仍在生成中或有等待区块加载的成员）
+     * 休眠军团不计入：玩家离开休眠军团后仍可以遇到新的军团，旧的休眠军团按清理规则移除
+     * 时间复杂度：O(k) - k为以该玩家为目标的军团数量，通常为0或1
+     */
+    public boolean 玩家是否有活跃军团(UUID 玩家UUID) {
+        IntArraySet 军团集合 = 目标军团索引.get(玩家UUID);
+        if (军团集合 == null) {
+            return false;
+        }
+
+        IntIterator 迭代器 = 军团集合.iterator();
+        while (迭代器.hasNext()) {
+            ZombieLegion 军团 = 活跃军团.get(迭代器.nextInt());
+            if (军团 != null && !军团.是否休眠()
+                && (军团.get成员数量() > 0 || 军团.是否成员生成中() || 军团.get待恢复成员数量() > 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取本维度中以指定玩家为目标的军团数量
+     */
+    public int 获取玩家军团数量(UUID 玩家UUID) {
+        IntArraySet 军团集合 = 目标军团索引.get(玩家UUID);
+        return 军团集合 != null ? 军团集合.size() : 0;
+    }
+
+    /**
+     * 获取军团信息
+     */
+    public ZombieLegion 获取军团(int 军团ID) {
+        return 活跃军团.get(军团ID);
+    }
+
+    /**
+     * 获取僵尸所属的军团ID
+     */
+    public int 获取僵尸军团ID(UUID 僵尸UUID) {
+        return 僵尸军团映射.getOrDefault(僵尸UUID, -1);
+    }
+
+    /**
+     * 移除僵尸
+     */
+    void 移除僵尸(UUID 僵尸UUID) {
+        Integer 军团ID = 僵尸军团映射.remove(僵尸UUID);
+        if (军团ID != null) {
+            ZombieLegion 军团 = 活跃军团.get(军团ID);
+            if (军团 != null) {
+                军团.移除成员(僵尸UUID);
+            }
+        }
+    }
+
+    /**
+     * 僵尸加入本维度时重新绑定到所属军团
+     * 从存档恢复的军团只记录了成员UUID，成员实体随区块加载陆续加入世界时在这里挂回军团
+     * @param 从存档加载 实体是否随区块从磁盘加载
+     * @return 是否允许僵尸加入世界，所属军团已不存在的存档僵尸返回false
+     */
+    boolean 重新绑定僵尸(EnhancedZombie 僵尸, boolean 从存档加载) {
+        int 军团ID = 僵尸.get军团ID();
+        if (军团ID <= 0) {
+            // 军团ID从1开始分配，缺少NBT标签时读出的0同样视为不属于任何军团
+            return true;
+        }
+
+        // 军团只属于创建它的维度，其他维度中的同ID僵尸不会在本分片中找到军团
+        ZombieLegion 军团 = 活跃军团.get(军团ID);
+        if (军团 != null && 军团.是否休眠()) {
+            // 休眠时未加载的成员随区块加载回来，并入休眠记录后不再加入世界
+            军团.get休眠记录().添加(僵尸.getX(), 僵尸.getY(), 僵尸.getZ(), LegionEquipmentTemplate.编码(僵尸),
+                僵尸.getHealth(), 僵尸.get智能等级(), 僵尸.是否为军团长());
+            return false;
+        }
+        if (军团 != null) {
+            if (!军团.包含成员(僵尸.getUUID())) {
+                军团.添加成员(僵尸.getUUID());
+            }
+            军团.更新成员实体(僵尸);
+            僵尸军团映射.put(僵尸.getUUID(), 军团ID);
+            return true;
+        }
+
+        if (从存档加载) {
+            // 军团已解散或被清理，遗留的成员不再加入世界
+            if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+                com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.info("[军团系统] 丢弃已不存在的军团 {} 的遗留成员: {}", 军团ID, 僵尸.getUUID());
+            }
+            return false;
+        }
+
+        僵尸.set军团ID(-1);
+        return true;
+    }
+
+    /**
+     * 获取军团成员的活实体（经由所属军团的弱引用缓存）
+     * @return 成员实体，不属于本维度任何军团或实体未加载时返回null
+     */
+    public EnhancedZombie 获取成员实体(UUID 僵尸UUID) {
+        Integer 军团ID = 僵尸军团映射.get(僵尸UUID);
+        if (军团ID == null) {
+            return null;
+        }
+        ZombieLegion 军团 = 活跃军团.get(军团ID);
+        return 军团 != null ? 军团.获取成员实体(僵尸UUID) : null;
+    }
+
+    /**
+     * 使僵尸的实体缓存失效（实体离开世界时调用）
+     */
+    void 清除实体缓存(UUID 僵尸UUID) {
+        Integer 军团ID = 僵尸军团映射.get(僵尸UUID);
+        if (军团ID != null) {
+            ZombieLegion 军团 = 活跃军团.get(军团ID);
+            if (军团 != null) {
+                军团.清除成员实体引用(僵尸UUID);
+            }
+        }
+    }
+
+    /**
+     * 方块变化时递增所在区段的可达性版本，让路线经过此位置的寻路失败缓存失效，
+     * 并标记搜索范围包含此位置的流场需要重新搜索
+     * 位置不在军团关注范围内时只做一次包围盒比较，不访问其缓存条目
+     * 时间复杂度：O(L + r × k) - L为军团数量，r为关注范围包含该位置的军团数量，k为每个军团的缓存条目数
+     */
+    void 记录方块变化(BlockPos 位置) {
+        可达性判定.方块变化(位置);
+        for (ZombieLegion 军团 : 活跃军团.values()) {
+            if (!军团.方块变化可能相关(位置)) {
+                continue;
+            }
+            军团.get路径失败缓存().方块变化(位置);
+            军团.get流场().方块变化(位置);
+        }
+    }
+
+    /**
+     * 查询僵尸能否走到目标（只读缓存，未命中时登记请求并返回未知）
+     */
+    ReachabilityOracle.结果 查询可达性(EnhancedZombie 僵尸, LivingEntity 目标) {
+        int 军团ID = 获取僵尸军团ID(僵尸.getUUID());
+        ZombieLegion 军团 = 军团ID != -1 ? 活跃军团.get(军团ID) : null;
+        return 可达性判定.查询(僵尸, 目标, 军团, 世界.getGameTime());
+    }
+
+    /**
+     * 获取本维度的所有军团（只读视图）
+     */
+    public Collection<ZombieLegion> 获取所有军团() {
+        return Collections.unmodifiableCollection(活跃军团.values());
+    }
+
+    /**
+     * 移除本维度所有军团的成员实体（用于命令系统）
+     * @return 移除的实体数量
+     */
+    int 移除所有成员实体() {
+        int 清除数量 = 0;
+        // 移除实体会触发离开世界事件并修改成员表，因此先复制成员UUID
+        for (ZombieLegion 军团 : new ArrayList<>(活跃军团.values())) {
+            for (UUID 僵尸UUID : new ArrayList<>(军团.get成员列表())) {
+                Entity 实体 = 军团.获取成员实体(僵尸UUID);
+                if (实体 != null) {
+                    实体.remove(Entity.RemovalReason.DISCARDED);
+                    清除数量++;
+                }
+            }
+        }
+        return 清除数量;
+    }
+
+    /**
+     * 清理本维度所有军团和生成任务（玩家调度保留）
+     */
+    void 清理所有军团() {
+        for (军团生成任务 任务 : 生成队列) {
+            任务.军团.set成员生成中(false);
+        }
+        生成队列.clear();
+        队列待生成数量 = 0;
+        活跃军团.clear();
+        更新调度器.清空();
+        目标军团索引.clear();
+        僵尸军团映射.clear();
+        可达性判定.清空();
+    }
+
+    /**
+     * 获取本维度的活跃军团数量
+     */
+    public int 获取活跃军团数量() {
+        return 活跃军团.size();
+    }
+
+    /**
+     * 获取本维度计入并发上限的军团数量：空闲维度为0（整理后只剩休眠军团），否则为未休眠的军团数量
+     * 时间复杂度：O(n) - n为本维度军团数量
+     */
+    public int 获取计入上限的军团数量() {
+        return 空闲 ? 0 : 活跃军团.size() - 获取休眠军团数量();
+    }
+
+    /**
+     * 获取本维度的休眠军团数量
+     * 时间复杂度：O(n) - n为本维度军团数量
+     */
+    public int 获取休眠军团数量() {
+        int 数量 = 0;
+        for (ZombieLegion 军团 : 活跃军团.values()) {
+            if (军团.是否休眠()) {
+                数量++;
+            }
+        }
+        return 数量;
+    }
+
+    /**
+     * 获取本维度休眠记录中的成员数量
+     */
+    public int 获取休眠成员数量() {
+        int 数量 = 0;
+        for (ZombieLegion 军团 : 活跃军团.values()) {
+            数量 += 军团.get休眠成员数量();
+        }
+        return 数量;
+    }
+
+    /**
+     * 获取本维度的军团僵尸数量
+     */
+    public int 获取总僵尸数量() {
+        return 僵尸军团映射.size();
+    }
+
+    /**
+     * 获取生成队列深度（尚未生成的成员数量）
+     */
+    public int 获取生成队列深度() {
+        return 队列待生成数量;
+    }
+
+    /**
+     * 获取生成任务数量
+     */
+    public int 获取生成任务数量() {
+        return 生成队列.size();
+    }
+
+    /**
+     * 获取本维度生成调度中的玩家数量
+     */
+    public int 获取调度玩家数量() {
+        return 玩家调度器.数量();
+    }
+
+    /**
+     * 获取更新调度中的军团数量（含尚未丢弃的已注销军团）
+     */
+    public int 获取更新调度数量() {
+        return 更新调度器.数量();
+    }
+
+    public ServerLevel get世界() {
+        return 世界;
+    }
+
+    /**
+     * 发送军团来袭警告消息
+     * 向目标玩家和附近玩家发送警告
+     */
+    private void 发送军团来袭警告(BlockPos 生成位置, UUID 目标玩家UUID) {
+        try {
+            // 获取目标玩家
+            Player 目标玩家 = OnlinePlayerIndex.getInstance().获取玩家(目标玩家UUID, 世界.dimension());
+            if (目标玩家 != null) {
+                // 发送标题消息
+                目标玩家.displayClientMessage(
+                    net.minecraft.network.chat.Component.literal("§c§l⚠ 僵尸军团来袭！ ⚠"),
+                    true // 显示在屏幕上方
+                );
+
+                // 发送聊天消息
+                目标玩家.sendSystemMessage(
+                    net.minecraft.network.chat.Component.literal(
+                        "§c[增强僵尸] §f一支僵尸军团正在向你靠近！坐标: §e" +
+                        生成位置.getX() + ", " + 生成位置.getY() + ", " + 生成位置.getZ()
+                    )
+                );
+
+                // 开发模式下显示额外信息
+                if (com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否为开发模式()) {
+                    目标玩家.sendSystemMessage(
+                        net.minecraft.network.chat.Component.literal(
+                            "§7[开发模式] §f军团生成时间: " +
+                            (世界.getDayTime() % 24000 < 13000 ? "白天" : "夜晚")
+                        )
+                    );
+                }
+            }
+
+            // 向附近其他玩家发送警告
+            List<Player> 附近玩家 = 世界.getEntitiesOfClass(
+                Player.class,
+                new net.minecraft.world.phys.AABB(生成位置).inflate(100.0)
+            );
+
+            for (Player 玩家 : 附近玩家) {
+                if (!玩家.getUUID().equals(目标玩家UUID)) {
+                    玩家.sendSystemMessage(
+                        net.minecraft.network.chat.Component.literal(
+                            "§6[增强僵尸] §f附近出现了僵尸军团！"
+                        )
+                    );
+                }
+            }
+
+        } catch (Exception e) {
+            com.enhancedzombies.mod.EnhancedZombiesMod.LOGGER.error("发送军团警告时出错: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 军团生成任务
+     * 记录一个军团尚未生成完毕的成员，由生成队列按预算逐个消费
+     */
+    private static class 军团生成任务 {
+        final ZombieLegion 军团;
+        final BlockPos 中心位置;
+        final int 目标数量;
+        final DormantLegionRecord 休眠记录; // 唤醒任务按记录逐行生成，新军团为null
+        DormantLegionRecord 未加载记录;     // 唤醒任务中所在区块未加载的行，没有时为null
+        int 已尝试数量;
+        int 成功数量;
+
+        军团生成任务(ZombieLegion 军团, BlockPos 中心位置, int 目标数量) {
+            this.军团 = 军团;
+            this.中心位置 = 中心位置;
+            this.目标数量 = 目标数量;
+            this.休眠记录 = null;
+        }
+
+        军团生成任务(ZombieLegion 军团, BlockPos 中心位置, DormantLegionRecord 休眠记录) {
+            this.军团 = 军团;
+            this.中心位置 = 中心位置;
+            this.目标数量 = 休眠记录.数量();
+            this.休眠记录 = 休眠记录;
+        }
+
+        int 剩余数量() {
+            return 目标数量 - 已尝试数量;
+        }
+
+        void 保留未加载成员(int 行) {
+            if (未加载记录 == null) {
+                未加载记录 = new DormantLegionRecord();
+            }
+            未加载记录.添加行(休眠记录, 行);
+        }
+    }
+}
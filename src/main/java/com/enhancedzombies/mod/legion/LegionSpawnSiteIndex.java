@@ -0,0 +1,334 @@
+package com.enhancedzombies.mod.legion;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.tags.FluidTags;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.CactusBlock;
+import net.minecraft.world.level.block.FenceBlock;
+import net.minecraft.world.level.block.FenceGateBlock;
+import net.minecraft.world.level.block.MagmaBlock;
+import net.minecraft.world.level.block.WallBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 军团生成位置索引
+ * 功能：在区块加载时预先计算可生成军团的地表位置
+ * 职责：
+ * 1. 监听区块加载/卸载事件，维护每个区块的候选位置位图
+ * 2. 基于不含树叶的高度图和区块段判断3x3区域是否可站立
+ * 3. 为军团生成提供只访问已加载区块的位置查询
+ *
+ * 每个区块只保存一个256位的位图（long[4]），第 (z << 4 | x) 位表示该列可作为军团中心
+ */
+@Mod.EventBusSubscriber
+public class LegionSpawnSiteIndex {
+
+    private static LegionSpawnSiteIndex INSTANCE;
+
+    // 维度 -> (区块坐标 -> 候选位图)
+    private final Map<ResourceKey<Level>, Map<Long, long[]>> 维度索引 = new ConcurrentHashMap<>();
+
+    // 3x3区域内至少需要的可站立列数（与原随机搜索保持一致）
+    private static final int 最少可用列数 = 5;
+    // 3x3区域内允许的最大高度起伏
+    private static final int 最大局部高度差 = 3;
+
+    private LegionSpawnSiteIndex() {}
+
+    public static LegionSpawnSiteIndex getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new LegionSpawnSiteIndex();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 区块加载时建立索引
+     * 时间复杂度：O(256) - 每列一次高度图读取和一次方块读取
+     */
+    @SubscribeEvent
+    public static void onChunkLoad(ChunkEvent.Load event) {
+        if (!(event.getLevel() instanceof ServerLevel 世界)) return;
+        if (!(event.getChunk() instanceof LevelChunk 区块)) return;
+
+        getInstance().索引区块(世界, 区块);
+    }
+
+    /**
+     * 区块卸载时移除索引
+     */
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (!(event.getLevel() instanceof ServerLevel 世界)) return;
+
+        Map<Long, long[]> 区块索引 = getInstance().维度索引.get(世界.dimension());
+        if (区块索引 != null) {
+            区块索引.remove(event.getChunk().getPos().toLong());
+        }
+    }
+
+    /**
+     * 维度卸载时丢弃整个维度的索引
+     */
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel 世界) {
+            getInstance().维度索引.remove(世界.dimension());
+        }
+    }
+
+    /**
+     * 计算并保存单个区块的候选位图
+     * 只索引3x3区域完全位于区块内部的列，查询时无需访问相邻区块
+     */
+    public void 索引区块(ServerLevel 世界, LevelChunk 区块) {
+        long[] 位图 = new long[4];
+        boolean 有候选 = false;
+
+        // 先计算每列的地面高度和可站立性，避免3x3检查时重复读取
+        int[] 地面高度 = new int[256];
+        boolean[] 可站立 = new boolean[256];
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                int 索引 = z << 4 | x;
+                地面高度[索引] = 区块.getHeight(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, x, z);
+                可站立[索引] = 是否为可站立地面(区块, x, 地面高度[索引], z);
+            }
+        }
+
+        for (int z = 1; z < 15; z++) {
+            for (int x = 1; x < 15; x++) {
+                if (检查区域是否可用(地面高度, 可站立, x, z)) {
+                    int 索引 = z << 4 | x;
+                    位图[索引 >> 6] |= 1L << (索引 & 63);
+                    有候选 = true;
+                }
+            }
+        }
+
+        Map<Long, long[]> 区块索引 = 维度索引.computeIfAbsent(世界.dimension(), k -> new ConcurrentHashMap<>());
+        if (有候选) {
+            区块索引.put(区块.getPos().toLong(), 位图);
+        } else {
+            区块索引.remove(区块.getPos().toLong());
+        }
+    }
+
+    /**
+     * 在玩家周围的环形区域内查找军团生成位置
+     * 算法：随机顺序遍历环内已加载且有候选位的区块，对命中的列用区块当前状态复核
+     * 时间复杂度：O(c + k) - c为环内区块数，k为复核的候选列数；不会触发区块加载
+     * @return 可站立的生成位置（地面上方一格），找不到时返回null
+     */
+    public BlockPos 寻找生成位置(ServerLevel 世界, BlockPos 玩家位置, int 最小距离, int 最大距离,
+                            int 最大高度差, Random 随机数生成器) {
+        Map<Long, long[]> 区块索引 = 维度索引.get(世界.dimension());
+        if (区块索引 == null || 区块索引.isEmpty()) {
+            return null;
+        }
+
+        long 最小距离平方 = (long) 最小距离 * 最小距离;
+        long 最大距离平方 = (long) 最大距离 * 最大距离;
+
+        // 收集与环形区域相交的区块
+        List<Long> 候选区块 = new ArrayList<>();
+        int 最小区块X = (玩家位置.getX() - 最大距离) >> 4;
+        int 最大区块X = (玩家位置.getX() + 最大距离) >> 4;
+        int 最小区块Z = (玩家位置.getZ() - 最大距离) >> 4;
+        int 最大区块Z = (玩家位置.getZ() + 最大距离) >> 4;
+        for (int 区块X = 最小区块X; 区块X <= 最大区块X; 区块X++) {
+            for (int 区块Z = 最小区块Z; 区块Z <= 最大区块Z; 区块Z++) {
+                long 键 = ChunkPos.asLong(区块X, 区块Z);
+                if (区块索引.containsKey(键) && 区块与环形相交(区块X, 区块Z, 玩家位置, 最小距离平方, 最大距离平方)) {
+                    候选区块.add(键);
+                }
+            }
+        }
+        Collections.shuffle(候选区块, 随机数生成器);
+
+        for (long 键 : 候选区块) {
+            long[] 位图 = 区块索引.get(键);
+            if (位图 == null) continue;
+
+            int 区块X = ChunkPos.getX(键);
+            int 区块Z = ChunkPos.getZ(键);
+
+            // 只使用已经加载的区块，绝不触发同步加载
+            LevelChunk 区块 = 世界.getChunkSource().getChunkNow(区块X, 区块Z);
+            if (区块 == null) {
+                区块索引.remove(键);
+                continue;
+            }
+
+            int 起始位 = 随机数生成器.nextInt(256);
+            for (int i = 0; i < 256; i++) {
+                int 索引 = (起始位 + i) & 255;
+                if ((位图[索引 >> 6] & (1L << (索引 & 63))) == 0) continue;
+
+                int 本地X = 索引 & 15;
+                int 本地Z = 索引 >> 4;
+                int 世界X = (区块X << 4) + 本地X;
+                int 世界Z = (区块Z << 4) + 本地Z;
+
+                long dx = 世界X - 玩家位置.getX();
+                long dz = 世界Z - 玩家位置.getZ();
+                long 距离平方 = dx * dx + dz * dz;
+                if (距离平方 < 最小距离平方 || 距离平方 > 最大距离平方) continue;
+
+                int 地面Y = 区块.getHeight(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, 本地X, 本地Z);
+                if (Math.abs(地面Y + 1 - 玩家位置.getY()) > 最大高度差) continue;
+
+                // 索引建立后方块可能已改变，用区块当前状态复核一次
+                if (!复核位置(区块, 本地X, 本地Z)) {
+                    位图[索引 >> 6] &= ~(1L << (索引 & 63));
+                    continue;
+                }
+
+                return new BlockPos(世界X, 地面Y + 1, 世界Z);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 获取指定维度已索引的区块数量
+     */
+    public int 获取已索引区块数量(ResourceKey<Level> 维度) {
+        Map<Long, long[]> 区块索引 = 维度索引.get(维度);
+        return 区块索引 == null ? 0 : 区块索引.size();
+    }
+
+    /**
+     * 用区块当前的高度图和方块复核一个候选列
+     */
+    private boolean 复核位置(LevelChunk 区块, int 中心X, int 中心Z) {
+        int[] 地面高度 = new int[9];
+        boolean[] 可站立 = new boolean[9];
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int 索引 = (dz + 1) * 3 + (dx + 1);
+                地面高度[索引] = 区块.getHeight(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, 中心X + dx, 中心Z + dz);
+                可站立[索引] = 是否为可站立地面(区块, 中心X + dx, 地面高度[索引], 中心Z + dz);
+            }
+        }
+
+        if (!可站立[4]) return false;
+
+        int 可用列数 = 0;
+        for (int i = 0; i < 9; i++) {
+            if (可站立[i] && Math.abs(地面高度[i] - 地面高度[4]) <= 最大局部高度差) {
+                可用列数++;
+            }
+        }
+        return 可用列数 >= 最少可用列数;
+    }
+
+    /**
+     * 检查以(x, z)为中心的3x3区域是否适合生成
+     * 中心列必须可站立，且至少5列可站立并与中心高度差不超过3格
+     */
+    private boolean 检查区域是否可用(int[] 地面高度, boolean[] 可站立, int x, int z) {
+        int 中心索引 = z << 4 | x;
+        if (!可站立[中心索引]) return false;
+
+        int 中心高度 = 地面高度[中心索引];
+        int 可用列数 = 0;
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int 索引 = (z + dz) << 4 | (x + dx);
+                if (可站立[索引] && Math.abs(地面高度[索引] - 中心高度) <= 最大局部高度差) {
+                    可用列数++;
+                }
+            }
+        }
+        return 可用列数 >= 最少可用列数;
+    }
+
+    /**
+     * 判断某列的最高阻挡方块是否可以站立
+     * MOTION_BLOCKING_NO_LEAVES高度图不计树叶，树冠不会被当作地面；地面以上除树叶外没有阻挡移动的方块，
+     * 因此头顶空间只需排除树叶
+     */
+    private static boolean 是否为可站立地面(LevelChunk 区块, int 本地X, int 地面Y, int 本地Z) {
+        if (地面Y < 区块.getMinBuildHeight() || 地面Y + 2 >= 区块.getMaxBuildHeight()) {
+            return false;
+        }
+
+        LevelChunkSection 区块段 = 区块.getSection(区块.getSectionIndex(地面Y));
+        if (区块段.hasOnlyAir()) {
+            return false;
+        }
+
+        BlockState 地面方块 = 区块段.getBlockState(本地X, 地面Y & 15, 本地Z);
+        if (地面方块.isAir() || !地面方块.getFluidState().isEmpty()) {
+            return false;
+        }
+
+        if (是否为危险方块(地面方块)) {
+            return false;
+        }
+
+        // 树冠下方的地面需要两格不被树叶占据的头顶空间
+        if (读取方块(区块, 本地X, 地面Y + 1, 本地Z).is(BlockTags.LEAVES)
+            || 读取方块(区块, 本地X, 地面Y + 2, 本地Z).is(BlockTags.LEAVES)) {
+            return false;
+        }
+
+        // 排除栅栏、围墙等无法正常站立的方块
+        Block 方块 = 地面方块.getBlock();
+        return !(方块 instanceof FenceBlock ||
+                 方块 instanceof WallBlock ||
+                 方块 instanceof FenceGateBlock);
+    }
+
+    /**
+     * 直接从区块段读取方块，不创建BlockPos
+     */
+    private static BlockState 读取方块(LevelChunk 区块, int 本地X, int y, int 本地Z) {
+        return 区块.getSection(区块.getSectionIndex(y)).getBlockState(本地X, y & 15, 本地Z);
+    }
+
+    /**
+     * 判断是否为危险方块（岩浆、仙人掌、岩浆块）
+     */
+    private static boolean 是否为危险方块(BlockState 方块状态) {
+        Block 方块 = 方块状态.getBlock();
+        return 方块 instanceof CactusBlock ||
+               方块 instanceof MagmaBlock ||
+               方块状态.getFluidState().is(FluidTags.LAVA);
+    }
+
+    /**
+     * 判断区块是否与环形区域相交
+     */
+    private static boolean 区块与环形相交(int 区块X, int 区块Z, BlockPos 中心, long 最小距离平方, long 最大距离平方) {
+        int 最小X = 区块X << 4, 最大X = 最小X + 15;
+        int 最小Z = 区块Z << 4, 最大Z = 最小Z + 15;
+
+        // 区块内离中心最近的点
+        long 近dx = Math.max(0, Math.max(最小X - 中心.getX(), 中心.getX() - 最大X));
+        long 近dz = Math.max(0, Math.max(最小Z - 中心.getZ(), 中心.getZ() - 最大Z));
+        if (近dx * 近dx + 近dz * 近dz > 最大距离平方) return false;
+
+        // 区块内离中心最远的点
+        long 远dx = Math.max(Math.abs(最小X - 中心.getX()), Math.abs(最大X - 中心.getX()));
+        long 远dz = Math.max(Math.abs(最小Z - 中心.getZ()), Math.abs(最大Z - 中心.getZ()));
+        return 远dx * 远dx + 远dz * 远dz >= 最小距离平方;
+    }
+}
@@ -0,0 +1,130 @@
+package com.enhancedzombies.mod.legion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 军团更新调度器
+ * 功能：把军团分散到环形的游戏刻槽位中轮流更新，取代每20刻集中更新一次
+ * 职责：
+ * 1. 按军团状态决定更新间隔（战斗中频繁，搜索中、撤退中和休眠稀疏），再乘以负载调节器给出的倍数
+ * 2. 新军团按军团ID错开初始槽位，避免同一刻集中到期
+ * 3. 每刻最多更新指定数量的军团，超出的顺延到下一刻，单刻开销有上限
+ *
+ * 已注销的军团不主动从槽位中删除，到期时由处理器返回false丢弃（惰性删除）
+ */
+class LegionUpdateScheduler {
+
+    // 槽位数量必须是2的幂，并且大于最长的更新间隔（40刻 × 最大倍数4）
+    private static final int 槽位数量 = 256;
+
+    @SuppressWarnings("unchecked")
+    private final List<ZombieLegion>[] 槽位 = new List[槽位数量];
+    private List<ZombieLegion> 处理缓冲 = new ArrayList<>();
+    private int 数量;
+
+    LegionUpdateScheduler() {
+        for (int i = 0; i < 槽位数量; i++) {
+            槽位[i] = new ArrayList<>();
+        }
+    }
+
+    /**
+     * 军团处理器，返回false表示军团已注销，不再调度
+     */
+    @FunctionalInterface
+    interface 军团处理器 {
+        boolean 处理(ZombieLegion 军团);
+    }
+
+    /**
+     * 按军团状态和当前负载决定的更新间隔（游戏刻），休眠军团只需检查唤醒，按最长间隔处理
+     */
+    static int 更新间隔刻(ZombieLegion 军团) {
+        int 基础间隔 = 军团.是否休眠() ? 40 : 基础间隔刻(军团.get当前状态());
+        return 基础间隔 * LegionGovernor.getInstance().get更新间隔倍数();
+    }
+
+    private static int 基础间隔刻(ZombieLegion.军团状态 状态) {
+        switch (状态) {
+            case 战斗中:
+            case 解散中:
+                return 5;
+            case 追击中:
+            case 集结中:
+                return 10;
+            case 搜索中:
+            case 撤退中:
+                return 40;
+            default:
+                return 20;
+        }
+    }
+
+    /**
+     * 加入新军团，初始槽位按军团ID在一个更新间隔内错开
+     * 时间复杂度：O(1)
+     */
+    void 加入(ZombieLegion 军团, long 当前刻) {
+        int 间隔 = 更新间隔刻(军团);
+        放入(军团, 当前刻 + 1 + Math.floorMod(军团.get军团ID(), 间隔));
+    }
+
+    /**
+     * 处理当前刻到期的军团，处理后按新状态重新安排
+     * 时间复杂度：O(min(k, 上限)) - k为本槽位中的军团数量
+     * @param 上限 本刻最多处理的军团数量，超出的顺延到下一刻
+     * @return 本刻处理的军团数量
+     */
+    int 处理到期(long 当前刻, int 上限, 军团处理器 处理器) {
+        int 槽 = (int) (当前刻 & (槽位数量 - 1));
+        List<ZombieLegion> 到期列表 = 槽位[槽];
+        if (到期列表.isEmpty()) {
+            return 0;
+        }
+
+        // 换入空缓冲，处理期间重新安排的军团不会写回正在遍历的列表
+        槽位[槽] = 处理缓冲;
+        处理缓冲 = 到期列表;
+        数量 -= 到期列表.size();
+
+        int 已处理 = 0;
+        for (int i = 0; i < 到期列表.size(); i++) {
+            ZombieLegion 军团 = 到期列表.get(i);
+            if (已处理 >= 上限) {
+                // 超出本刻预算，顺延到下一刻
+                放入(军团, 当前刻 + 1);
+                continue;
+            }
+            if (处理器.处理(军团)) {
+                放入(军团, 当前刻 + 更新间隔刻(军团));
+            }
+            已处理++;
+        }
+
+        到期列表.clear();
+        return 已处理;
+    }
+
+    private void 放入(ZombieLegion 军团, long 到期刻) {
+        槽位[(int) (到期刻 & (槽位数量 - 1))].add(军团);
+        数量++;
+    }
+
+    /**
+     * 调度中的军团数量（含尚未丢弃的已注销军团）
+     */
+    int 数量() {
+        return 数量;
+    }
+
+    /**
+     * 清空调度
+     */
+    void 清空() {
+        for (List<ZombieLegion> 列表 : 槽位) {
+            列表.clear();
+        }
+        数量 = 0;
+    }
+}
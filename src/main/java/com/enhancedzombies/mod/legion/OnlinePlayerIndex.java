@@ -0,0 +1,184 @@
+package com.enhancedzombies.mod.legion;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 在线玩家索引
+ * 功能：按UUID缓存在线玩家及其所在维度
+ * 职责：
+ * 1. 监听登录、登出、切换维度和重生事件维护索引
+ * 2. 提供O(1)的UUID到ServerPlayer和所在世界的查询
+ * 3. 提供按维度列出玩家的查询，替代遍历所有世界
+ *
+ * 重生会创建新的ServerPlayer对象，因此重生事件也要刷新索引
+ */
+@Mod.EventBusSubscriber
+public class OnlinePlayerIndex {
+
+    private static OnlinePlayerIndex INSTANCE;
+
+    private final Map<UUID, ServerPlayer> 在线玩家 = new ConcurrentHashMap<>();
+    private final Map<ResourceKey<Level>, Set<UUID>> 维度玩家 = new ConcurrentHashMap<>();
+    private final Map<UUID, ResourceKey<Level>> 玩家维度 = new ConcurrentHashMap<>();
+
+    private OnlinePlayerIndex() {}
+
+    public static OnlinePlayerIndex getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new OnlinePlayerIndex();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 登录时加入索引，优先于其他监听器执行，保证军团系统的登录处理能查到玩家
+     */
+    @SubscribeEvent(priority = EventPriority.HIGH)
+    public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        if (event.getEntity() instanceof ServerPlayer 玩家) {
+            getInstance().更新玩家(玩家);
+        }
+    }
+
+    /**
+     * 登出时移出索引
+     */
+    @SubscribeEvent(priority = EventPriority.LOW)
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        getInstance().移除玩家(event.getEntity().getUUID());
+    }
+
+    /**
+     * 切换维度时更新所在维度
+     */
+    @SubscribeEvent(priority = EventPriority.HIGH)
+    public static void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+        if (event.getEntity() instanceof ServerPlayer 玩家) {
+            getInstance().更新玩家(玩家);
+        }
+    }
+
+    /**
+     * 重生后替换为新的玩家对象（可能同时切换了维度）
+     */
+    @SubscribeEvent(priority = EventPriority.HIGH)
+    public static void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+        if (event.getEntity() instanceof ServerPlayer 玩家) {
+            getInstance().更新玩家(玩家);
+        }
+    }
+
+    /**
+     * 服务器关闭后清空索引
+     */
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        OnlinePlayerIndex 索引 = getInstance();
+        索引.在线玩家.clear();
+        索引.维度玩家.clear();
+        索引.玩家维度.clear();
+    }
+
+    /**
+     * 写入或刷新玩家的索引条目
+     * 时间复杂度：O(1)
+     */
+    private void 更新玩家(ServerPlayer 玩家) {
+        UUID 玩家UUID = 玩家.getUUID();
+        ResourceKey<Level> 新维度 = 玩家.level().dimension();
+        在线玩家.put(玩家UUID, 玩家);
+
+        ResourceKey<Level> 旧维度 = 玩家维度.put(玩家UUID, 新维度);
+        if (旧维度 != null && !旧维度.equals(新维度)) {
+            Set<UUID> 旧集合 = 维度玩家.get(旧维度);
+            if (旧集合 != null) {
+                旧集合.remove(玩家UUID);
+            }
+        }
+        维度玩家.computeIfAbsent(新维度, k -> ConcurrentHashMap.newKeySet()).add(玩家UUID);
+    }
+
+    /**
+     * 移除玩家的索引条目
+     * 时间复杂度：O(1)
+     */
+    private void 移除玩家(UUID 玩家UUID) {
+        在线玩家.remove(玩家UUID);
+        ResourceKey<Level> 维度 = 玩家维度.remove(玩家UUID);
+        if (维度 != null) {
+            Set<UUID> 集合 = 维度玩家.get(维度);
+            if (集合 != null) {
+                集合.remove(玩家UUID);
+            }
+        }
+    }
+
+    /**
+     * 按UUID获取在线玩家
+     * 时间复杂度：O(1)
+     * @return 在线玩家，不在线时返回null
+     */
+    public ServerPlayer 获取玩家(UUID 玩家UUID) {
+        return 在线玩家.get(玩家UUID);
+    }
+
+    /**
+     * 按UUID获取指定维度中的在线玩家
+     * 时间复杂度：O(1)
+     * @return 在该维度中的玩家，不在线或不在该维度时返回null
+     */
+    public ServerPlayer 获取玩家(UUID 玩家UUID, ResourceKey<Level> 维度) {
+        ServerPlayer 玩家 = 在线玩家.get(玩家UUID);
+        return 玩家 != null && 维度.equals(玩家维度.get(玩家UUID)) ? 玩家 : null;
+    }
+
+    /**
+     * 获取玩家所在的世界
+     * 时间复杂度：O(1)
+     */
+    public ServerLevel 获取玩家所在世界(UUID 玩家UUID) {
+        ServerPlayer 玩家 = 在线玩家.get(玩家UUID);
+        return 玩家 != null ? 玩家.serverLevel() : null;
+    }
+
+    /**
+     * 获取指定维度中所有在线玩家的UUID（只读视图）
+     */
+    public Set<UUID> 获取维度玩家(ResourceKey<Level> 维度) {
+        Set<UUID> 集合 = 维度玩家.get(维度);
+        return 集合 != null ? Collections.unmodifiableSet(集合) : Collections.emptySet();
+    }
+
+    /**
+     * 指定维度中是否有在线玩家（不创建只读视图）
+     */
+    public boolean 维度有玩家(ResourceKey<Level> 维度) {
+        Set<UUID> 集合 = 维度玩家.get(维度);
+        return 集合 != null && !集合.isEmpty();
+    }
+
+    /**
+     * 玩家是否在线
+     */
+    public boolean 是否在线(UUID 玩家UUID) {
+        return 在线玩家.containsKey(玩家UUID);
+    }
+
+    /**
+     * 在线玩家数量
+     */
+    public int 在线玩家数量() {
+        return 在线玩家.size();
+    }
+}
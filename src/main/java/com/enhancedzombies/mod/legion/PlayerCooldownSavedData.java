@@ -0,0 +1,73 @@
+package com.enhancedzombies.mod.legion;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.saveddata.SavedData;
+
+/**
+ * 玩家冷却存档数据
+ * 功能：把仍在冷却中的玩家保存在主世界的存档中，服务器重启后冷却继续生效
+ * 职责：
+ * 1. 保存时从PlayerLegionStateStore导出剩余冷却刻数（每个玩家三个long）
+ * 2. 主世界加载时把存档中的冷却导入状态存储
+ *
+ * 存的是剩余刻数而不是绝对游戏刻，服务器游戏刻每次启动都从0开始
+ */
+public class PlayerCooldownSavedData extends SavedData {
+
+    private static final String 数据名称 = "enhancedzombies_player_cooldowns";
+    private static final String 数据键 = "cooldowns";
+
+    private long[] 待导入数据;
+    private boolean 上次保存为空 = true;
+
+    private PlayerCooldownSavedData() {}
+
+    /**
+     * 获取（或创建）主世界中的玩家冷却存档数据
+     */
+    public static PlayerCooldownSavedData 获取(ServerLevel 主世界) {
+        return 主世界.getDataStorage().computeIfAbsent(
+            PlayerCooldownSavedData::读取,
+            PlayerCooldownSavedData::new,
+            数据名称
+        );
+    }
+
+    private static PlayerCooldownSavedData 读取(CompoundTag 标签) {
+        PlayerCooldownSavedData 数据 = new PlayerCooldownSavedData();
+        数据.待导入数据 = 标签.getLongArray(数据键);
+        数据.上次保存为空 = 数据.待导入数据.length == 0;
+        return 数据;
+    }
+
+    /**
+     * 把存档中的冷却导入状态存储（只在主世界加载时调用一次）
+     */
+    void 导入到(PlayerLegionStateStore 存储) {
+        if (待导入数据 != null) {
+            存储.导入冷却(待导入数据);
+            待导入数据 = null;
+        }
+    }
+
+    /**
+     * 冷却随时间减少，有冷却记录或上次保存不为空时每次世界保存都重新写入
+     */
+    @Override
+    public boolean isDirty() {
+        if (!com.enhancedzombies.mod.config.EnhancedZombiesConfig.是否持久化玩家冷却()) {
+            return false;
+        }
+        PlayerLegionStateStore 存储 = ZombieLegionManager.getInstance().get玩家状态存储();
+        return !上次保存为空 || 存储.数量() > 0 || 存储.离线冷却数量() > 0;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag 标签) {
+        long[] 数据 = ZombieLegionManager.getInstance().get玩家状态存储().导出冷却();
+        标签.putLongArray(数据键, 数据);
+        上次保存为空 = 数据.length == 0;
+        return 标签;
+    }
+}
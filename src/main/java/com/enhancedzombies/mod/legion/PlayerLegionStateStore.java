@@ -0,0 +1,243 @@
+package com.enhancedzombies.mod.legion;
+
+import net.minecraft.core.BlockPos;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 玩家军团状态存储
+ * 功能：把每个玩家的被攻击冷却和预警合并为一条记录，保存在会自动过期的表中
+ * 职责：
+ * 1. 记录在冷却结束且没有预警时由时间轮回调淘汰（TTL），不再随访问过的玩家数量无限增长
+ * 2. 玩家登出时淘汰记录；开启持久化时仍在冷却中的玩家转入离线冷却表，重新登录时恢复
+ * 3. 离线冷却可写入存档，服务器重启后冷却继续生效
+ * 4. 提供记录数量和淘汰次数等统计
+ *
+ * 时间均为服务器游戏刻（与时间轮一致），只在服务器线程上访问，因此不做同步
+ */
+public class PlayerLegionStateStore {
+
+    /**
+     * 单个玩家的军团状态
+     */
+    private static final class 玩家状态 {
+        long 冷却结束刻;          // 不在冷却中时小于等于当前刻
+        long 预警开始刻 = -1;     // -1表示没有预警
+        BlockPos 预警位置;
+    }
+
+    private final TickTimerWheel 定时轮;
+    private final Map<UUID, 玩家状态> 状态表 = new HashMap<>();
+    private final Map<UUID, Long> 离线冷却 = new HashMap<>(); // 玩家UUID -> 冷却结束刻
+
+    // 统计
+    private int 峰值数量;
+    private long 过期淘汰次数;
+    private long 登出淘汰次数;
+
+    PlayerLegionStateStore(TickTimerWheel 定时轮) {
+        this.定时轮 = 定时轮;
+    }
+
+    // 冷却
+
+    /**
+     * 记录玩家被军团攻击，开始冷却
+     * 时间复杂度：O(1)
+     */
+    void 开始冷却(UUID 玩家UUID, long 冷却刻数) {
+        玩家状态 状态 = 获取或创建(玩家UUID);
+        状态.冷却结束刻 = 定时轮.当前刻() + 冷却刻数;
+        安排过期(玩家UUID, 冷却刻数);
+    }
+
+    /**
+     * 玩家剩余的冷却刻数，不在冷却中时返回0
+     */
+    long 剩余冷却刻数(UUID 玩家UUID) {
+        玩家状态 状态 = 状态表.get(玩家UUID);
+        return 状态 != null ? Math.max(0, 状态.冷却结束刻 - 定时轮.当前刻()) : 0;
+    }
+
+    /**
+     * 清除所有冷却（用于重置或调试），预警保留
+     */
+    void 清除所有冷却() {
+        long 当前刻 = 定时轮.当前刻();
+        状态表.values().removeIf(状态 -> {
+            状态.冷却结束刻 = 当前刻;
+            return 状态.预警开始刻 < 0;
+        });
+        离线冷却.clear();
+    }
+
+    // 预警
+
+    /**
+     * 记录玩家的预警
+     */
+    void 开始预警(UUID 玩家UUID, BlockPos 位置) {
+        玩家状态 状态 = 获取或创建(玩家UUID);
+        状态.预警开始刻 = 定时轮.当前刻();
+        状态.预警位置 = 位置;
+    }
+
+    boolean 有预警(UUID 玩家UUID) {
+        玩家状态 状态 = 状态表.get(玩家UUID);
+        return 状态 != null && 状态.预警开始刻 >= 0;
+    }
+
+    /**
+     * 结束玩家的预警
+     * @param 预警开始刻 预警开始时的游戏刻，玩家登出后重新登录并开始了新预警时旧的回调不会结束新预警
+     * @return 预警位置，没有对应的预警（例如玩家已登出）时返回null
+     */
+    BlockPos 结束预警(UUID 玩家UUID, long 预警开始刻) {
+        玩家状态 状态 = 状态表.get(玩家UUID);
+        if (状态 == null || 状态.预警开始刻 < 0 || 状态.预警开始刻 != 预警开始刻) {
+            return null;
+        }
+        BlockPos 位置 = 状态.预警位置;
+        状态.预警开始刻 = -1;
+        状态.预警位置 = null;
+        尝试淘汰(玩家UUID, 状态);
+        return 位置;
+    }
+
+    // 登录和登出
+
+    /**
+     * 玩家登录时恢复离线期间仍未结束的冷却
+     */
+    void 玩家登录(UUID 玩家UUID) {
+        Long 冷却结束刻 = 离线冷却.remove(玩家UUID);
+        if (冷却结束刻 == null) {
+            return;
+        }
+        long 剩余 = 冷却结束刻 - 定时轮.当前刻();
+        if (剩余 > 0) {
+            开始冷却(玩家UUID, 剩余);
+        }
+    }
+
+    /**
+     * 玩家登出时淘汰记录，预警随之取消
+     * @param 保留冷却 是否把仍未结束的冷却转入离线冷却表（开启持久化时）
+     */
+    void 玩家登出(UUID 玩家UUID, boolean 保留冷却) {
+        玩家状态 状态 = 状态表.remove(玩家UUID);
+        if (状态 == null) {
+            return;
+        }
+        登出淘汰次数++;
+        long 剩余 = 状态.冷却结束刻 - 定时轮.当前刻();
+        if (保留冷却 && 剩余 > 0) {
+            离线冷却.put(玩家UUID, 状态.冷却结束刻);
+            安排过期(玩家UUID, 剩余);
+        }
+    }
+
+    // 过期
+
+    private 玩家状态 获取或创建(UUID 玩家UUID) {
+        玩家状态 状态 = 状态表.get(玩家UUID);
+        if (状态 == null) {
+            状态 = new 玩家状态();
+            状态.冷却结束刻 = 定时轮.当前刻();
+            状态表.put(玩家UUID, 状态);
+            峰值数量 = Math.max(峰值数量, 状态表.size());
+        }
+        return 状态;
+    }
+
+    /**
+     * 在冷却结束时检查记录是否可以淘汰
+     * 冷却被延长时旧的回调发现尚未到期会直接忽略
+     */
+    private void 安排过期(UUID 玩家UUID, long 延迟刻数) {
+        定时轮.延时执行(延迟刻数, () -> {
+            玩家状态 状态 = 状态表.get(玩家UUID);
+            if (状态 != null) {
+                尝试淘汰(玩家UUID, 状态);
+            }
+            Long 离线结束刻 = 离线冷却.get(玩家UUID);
+            if (离线结束刻 != null && 离线结束刻 <= 定时轮.当前刻()) {
+                离线冷却.remove(玩家UUID);
+                过期淘汰次数++;
+            }
+            return false;
+        });
+    }
+
+    private void 尝试淘汰(UUID 玩家UUID, 玩家状态 状态) {
+        if (状态.预警开始刻 < 0 && 状态.冷却结束刻 <= 定时轮.当前刻()) {
+            状态表.remove(玩家UUID);
+            过期淘汰次数++;
+        }
+    }
+
+    // 持久化
+
+    /**
+     * 导出仍在冷却中的玩家（在线和离线），每个玩家三个long：UUID高位、UUID低位、剩余冷却刻数
+     * 时间复杂度：O(n)
+     */
+    long[] 导出冷却() {
+        long 当前刻 = 定时轮.当前刻();
+        long[] 数据 = new long[(状态表.size() + 离线冷却.size()) * 3];
+        int 数量 = 0;
+        for (Map.Entry<UUID, 玩家状态> 条目 : 状态表.entrySet()) {
+            数量 = 写入(数据, 数量, 条目.getKey(), 条目.getValue().冷却结束刻 - 当前刻);
+        }
+        for (Map.Entry<UUID, Long> 条目 : 离线冷却.entrySet()) {
+            数量 = 写入(数据, 数量, 条目.getKey(), 条目.getValue() - 当前刻);
+        }
+        return 数量 * 3 == 数据.length ? 数据 : java.util.Arrays.copyOf(数据, 数量 * 3);
+    }
+
+    private static int 写入(long[] 数据, int 数量, UUID 玩家UUID, long 剩余) {
+        if (剩余 <= 0) {
+            return 数量;
+        }
+        数据[数量 * 3] = 玩家UUID.getMostSignificantBits();
+        数据[数量 * 3 + 1] = 玩家UUID.getLeastSignificantBits();
+        数据[数量 * 3 + 2] = 剩余;
+        return 数量 + 1;
+    }
+
+    /**
+     * 从存档导入离线冷却（服务器启动、主世界加载时调用一次）
+     */
+    void 导入冷却(long[] 数据) {
+        long 当前刻 = 定时轮.当前刻();
+        for (int i = 0; i + 2 < 数据.length; i += 3) {
+            UUID 玩家UUID = new UUID(数据[i], 数据[i + 1]);
+            long 剩余 = 数据[i + 2];
+            if (剩余 > 0 && !状态表.containsKey(玩家UUID)) {
+                离线冷却.put(玩家UUID, 当前刻 + 剩余);
+                安排过期(玩家UUID, 剩余);
+            }
+        }
+    }
+
+    /**
+     * 清空所有记录和统计（服务器关闭时调用）
+     */
+    void 清空() {
+        状态表.clear();
+        离线冷却.clear();
+        峰值数量 = 0;
+        过期淘汰次数 = 0;
+        登出淘汰次数 = 0;
+    }
+
+    // 统计
+
+    public int 数量() { return 状态表.size(); }
+    public int 离线冷却数量() { return 离线冷却.size(); }
+    public int get峰值数量() { return 峰值数量; }
+    public long get过期淘汰次数() { return 过期淘汰次数; }
+    public long get登出淘汰次数() { return 登出淘汰次数; }
+}
@@ -0,0 +1,111 @@
+package com.enhancedzombies.mod.legion;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * 玩家军团生成调度器
+ * 功能：按玩家维护"下次可被选为军团目标的游戏刻"
+ * 职责：
+ * 1. 玩家登录时加入调度，登出时移出
+ * 2. 按到期时间从小到大弹出可被检查的玩家
+ * 3. 冷却、概率失败等情况下重新安排玩家的下次检查时间
+ *
+ * 使用小顶堆加惰性删除：重新安排或移除玩家时旧条目留在堆中，弹出时通过映射识别并丢弃
+ */
+class PlayerSpawnScheduler {
+
+    private final PriorityQueue<调度条目> 调度队列 = new PriorityQueue<>();
+    private final Map<UUID, 调度条目> 当前条目 = new HashMap<>();
+
+    /**
+     * 安排玩家在指定游戏刻之后可被检查
+     * 时间复杂度：O(log n)
+     */
+    void 安排(UUID 玩家UUID, long 到期刻) {
+        调度条目 条目 = new 调度条目(玩家UUID, 到期刻);
+        当前条目.put(玩家UUID, 条目);
+        调度队列.add(条目);
+
+        // 失效条目过多时重建堆，避免登录登出频繁的服务器上堆无限增长
+        if (调度队列.size() > 当前条目.size() * 2 + 16) {
+            调度队列.clear();
+            调度队列.addAll(当前条目.values());
+        }
+    }
+
+    /**
+     * 移除玩家的调度（玩家登出或离开本维度）
+     * 时间复杂度：O(1)，堆中的旧条目在弹出时丢弃
+     * @return 玩家原来的到期游戏刻，不在调度中时返回-1
+     */
+    long 移除(UUID 玩家UUID) {
+        调度条目 条目 = 当前条目.remove(玩家UUID);
+        return 条目 != null ? 条目.到期刻 : -1;
+    }
+
+    /**
+     * 弹出一个已经到期的玩家
+     * 时间复杂度：均摊O(log n)
+     * @return 到期玩家的UUID，没有到期玩家时返回null
+     */
+    UUID 弹出到期玩家(long 当前刻) {
+        while (!调度队列.isEmpty()) {
+            调度条目 队首 = 调度队列.peek();
+            if (当前条目.get(队首.玩家UUID) != 队首) {
+                // 已被重新安排或移除的旧条目
+                调度队列.poll();
+                continue;
+            }
+            if (队首.到期刻 > 当前刻) {
+                return null;
+            }
+            调度队列.poll();
+            当前条目.remove(队首.玩家UUID);
+            return 队首.玩家UUID;
+        }
+        return null;
+    }
+
+    /**
+     * 玩家是否在调度中
+     */
+    boolean 包含(UUID 玩家UUID) {
+        return 当前条目.containsKey(玩家UUID);
+    }
+
+    /**
+     * 调度中的玩家数量
+     */
+    int 数量() {
+        return 当前条目.size();
+    }
+
+    /**
+     * 清空调度
+     */
+    void 清空() {
+        调度队列.clear();
+        当前条目.clear();
+    }
+
+    /**
+     * 调度条目
+     */
+    private static final class 调度条目 implements Comparable<调度条目> {
+        final UUID 玩家UUID;
+        final long 到期刻;
+
+        调度条目(UUID 玩家UUID, long 到期刻) {
+            this.玩家UUID = 玩家UUID;
+            this.到期刻 = 到期刻;
+        }
+
+        @Override
+        public int compareTo(调度条目 其他) {
+            return Long.compare(到期刻, 其他.到期刻);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.enhancedzombies.mod.legion;
+
+import com.enhancedzombies.mod.entity.EnhancedZombie;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.ai.attributes.Attributes;
+import net.minecraft.world.level.PathNavigationRegion;
+import net.minecraft.world.level.pathfinder.NodeEvaluator;
+import net.minecraft.world.level.pathfinder.Path;
+import net.minecraft.world.level.pathfinder.PathFinder;
+import net.minecraft.world.level.pathfinder.WalkNodeEvaluator;
+
+import java.util.Set;
+
+/**
+ * 可达性判定表
+ * 功能：回答"僵尸能否走到目标"，结果来自缓存，方块目标的canUse不再直接寻路
+ * 职责：
+ * 1. 条目以起点格子、目标格子（4×4×4方块）和区段版本戳为键，版本戳为起点到目标包围盒内各区段的方块变化版本之和
+ * 2. 方块变化时递增所在区段的版本（按区段坐标散列到固定数量的版本桶），涉及该区段的条目自然失效
+ * 3. 未命中时登记请求并返回未知；请求在分片每刻更新时计算，每个军团（不属于军团的僵尸单独计算）每个间隔最多计算一次
+ * 4. 计算用判定表自己的PathFinder（节点评估器复制僵尸导航的开门、过门和游泳设置），不经过僵尸的导航，
+ *    不会改写导航的目标位置、到达范围和卡住计时；算出不可达时同时记录到军团的寻路失败缓存
+ *
+ * 每个维度一个（由LegionShard持有），只在服务器线程上使用，因此不做同步
+ */
+public class ReachabilityOracle {
+
+    /**
+     * 查询结果
+     */
+    public enum 结果 {
+        可达,
+        不可达,
+        未知     // 尚未计算，请求已登记
+    }
+
+    private static final int 格子位数 = 2;
+    private static final int 版本桶数量 = 4096;        // 2的幂
+    private static final int 计算间隔刻数 = 10;
+    private static final int 条目有效刻数 = 200;
+    private static final int 清理阈值 = 512;
+
+    /**
+     * 缓存条目
+     */
+    private static final class 条目 {
+        long 起点格键;
+        long 目标格键;
+        long 版本戳;
+        boolean 可达;
+        long 过期游戏刻;
+    }
+
+    /**
+     * 待计算的请求，每个预算键（军团）同时只保留一个
+     */
+    private static final class 请求 {
+        EnhancedZombie 僵尸;
+        LivingEntity 目标;
+    }
+
+    private final int[] 区段版本 = new int[版本桶数量];
+    private final Long2ObjectOpenHashMap<条目> 条目表 = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<请求> 待计算 = new Long2ObjectOpenHashMap<>();
+    private final Long2LongOpenHashMap 上次计算游戏刻 = new Long2LongOpenHashMap();
+
+    // 独立的寻路器（最大访问节点数随追踪范围变化时重建）
+    private final WalkNodeEvaluator 节点评估器 = new WalkNodeEvaluator();
+    private PathFinder 寻路器;
+    private int 寻路器最大节点数 = -1;
+
+    // 统计（所有维度共享）
+    private static long 命中次数;
+    private static long 未命中次数;
+    private static long 计算次数;
+
+    ReachabilityOracle() {
+        上次计算游戏刻.defaultReturnValue(Long.MIN_VALUE);
+    }
+
+    /**
+     * 查询僵尸当前能否走到目标
+     * 算法：先看军团流场和寻路失败缓存能否直接回答，再查缓存条目，未命中时登记请求
+     * 时间复杂度：O(s) - s为起点到目标包围盒覆盖的区段数量
+     */
+    public 结果 查询(EnhancedZombie 僵尸, LivingEntity 目标, ZombieLegion 军团, long 游戏刻) {
+        BlockPos 起点 = 僵尸.blockPosition();
+        BlockPos 终点 = 目标.blockPosition();
+
+        if (军团 != null) {
+            LegionFlowField 流场 = 军团.get流场();
+            if (流场.是否为目标(目标) && 流场.剩余步数(起点) >= 0) {
+                命中次数++;
+                return 结果.可达;
+            }
+            if (军团.get路径失败缓存().是否不可达(起点, 终点, 游戏刻)) {
+                命中次数++;
+                return 结果.不可达;
+            }
+        }
+
+        long 起点格键 = 格键(起点);
+        long 目标格键 = 格键(终点);
+        long 键 = 组合键(起点格键, 目标格键);
+        条目 已有 = 条目表.get(键);
+        if (已有 != null && 已有.起点格键 == 起点格键 && 已有.目标格键 == 目标格键
+            && 已有.过期游戏刻 > 游戏刻 && 已有.版本戳 == 版本戳(起点, 终点)) {
+            命中次数++;
+            return 已有.可达 ? 结果.可达 : 结果.不可达;
+        }
+
+        未命中次数++;
+        long 预算键 = 军团 != null ? 军团.get军团ID() : -1L - 僵尸.getId();
+        请求 待算 = 待计算.get(预算键);
+        if (待算 == null) {
+            待算 = new 请求();
+            待计算.put(预算键, 待算);
+        }
+        // 同一军团的新请求覆盖旧请求，计算时使用最近一次提出请求的成员
+        待算.僵尸 = 僵尸;
+        待算.目标 = 目标;
+        return 结果.未知;
+    }
+
+    /**
+     * 计算到期的请求（由LegionShard每刻调用）
+     * 时间复杂度：O(r × P) - r为本刻可以计算的请求数量，P为一次寻路的开销
+     */
+    void 处理请求(long 游戏刻) {
+        if (待计算.isEmpty()) {
+            return;
+        }
+        ObjectIterator<Long2ObjectMap.Entry<请求>> 迭代器 = 待计算.long2ObjectEntrySet().fastIterator();
+        while (迭代器.hasNext()) {
+            Long2ObjectMap.Entry<请求> 项 = 迭代器.next();
+            long 预算键 = 项.getLongKey();
+            if (游戏刻 - 上次计算游戏刻.get(预算键) < 计算间隔刻数) {
+                continue;
+            }
+            请求 待算 = 项.getValue();
+            迭代器.remove();
+
+            EnhancedZombie 僵尸 = 待算.僵尸;
+            LivingEntity 目标 = 待算.目标;
+            if (僵尸.isRemoved() || 目标.isRemoved() || 目标.level() != 僵尸.level()) {
+                continue;
+            }
+            上次计算游戏刻.put(预算键, 游戏刻);
+            if (!僵尸.onGround() && !僵尸.isInWater() && !僵尸.isInLava() && !僵尸.isPassenger()) {
+                continue; // 与地面导航一致：不在地面、液体中或坐骑上时不寻路，此时无法判断是否可达
+            }
+            Path 路径 = 计算路径(僵尸, 目标);
+            计算次数++;
+            boolean 可达 = 路径 != null && 路径.canReach();
+            写入条目(僵尸.blockPosition(), 目标.blockPosition(), 可达, 游戏刻);
+            if (!可达 && 僵尸.getTarget() == 目标) {
+                僵尸.记录目标不可达();
+            }
+        }
+
+        if (条目表.size() > 清理阈值) {
+            条目表.values().removeIf(已有 -> 已有.过期游戏刻 <= 游戏刻);
+        }
+        if (上次计算游戏刻.size() > 清理阈值) {
+            ObjectIterator<Long2LongMap.Entry> 计算记录 = 上次计算游戏刻.long2LongEntrySet().fastIterator();
+            while (计算记录.hasNext()) {
+                if (游戏刻 - 计算记录.next().getLongValue() >= 计算间隔刻数) {
+                    计算记录.remove();
+                }
+            }
+        }
+    }
+
+    boolean 有待计算请求() {
+        return !待计算.isEmpty();
+    }
+
+    /**
+     * 用独立的寻路器计算僵尸到目标的路径，搜索区域和范围与PathNavigation.createPath(Entity, int)相同
+     * 时间复杂度：O(P) - P为一次寻路访问的节点数（不超过追踪范围×16）
+     */
+    private Path 计算路径(EnhancedZombie 僵尸, LivingEntity 目标) {
+        NodeEvaluator 导航评估器 = 僵尸.getNavigation().getNodeEvaluator();
+        节点评估器.setCanPassDoors(导航评估器.canPassDoors());
+        节点评估器.setCanOpenDoors(导航评估器.canOpenDoors());
+        节点评估器.setCanFloat(导航评估器.canFloat());
+
+        int 最大节点数 = Mth.floor(僵尸.getAttributeBaseValue(Attributes.FOLLOW_RANGE) * 16.0);
+        if (寻路器 == null || 最大节点数 != 寻路器最大节点数) {
+            寻路器 = new PathFinder(节点评估器, 最大节点数);
+            寻路器最大节点数 = 最大节点数;
+        }
+
+        float 追踪范围 = (float) 僵尸.getAttributeValue(Attributes.FOLLOW_RANGE);
+        BlockPos 中心 = 僵尸.blockPosition().above();
+        int 区域半径 = (int) (追踪范围 + 16.0F);
+        PathNavigationRegion 区域 = new PathNavigationRegion(僵尸.level(),
+            中心.offset(-区域半径, -区域半径, -区域半径), 中心.offset(区域半径, 区域半径, 区域半径));
+        return 寻路器.findPath(区域, 僵尸, Set.of(目标.blockPosition()), 追踪范围, 0, 1.0F);
+    }
+
+    /**
+     * 方块变化：递增所在区段的版本
+     */
+    void 方块变化(BlockPos 位置) {
+        区段版本[版本桶(SectionPos.blockToSectionCoord(位置.getX()),
+            SectionPos.blockToSectionCoord(位置.getY()), SectionPos.blockToSectionCoord(位置.getZ()))]++;
+    }
+
+    void 清空() {
+        条目表.clear();
+        待计算.clear();
+        上次计算游戏刻.clear();
+    }
+
+    private void 写入条目(BlockPos 起点, BlockPos 终点, boolean 可达, long 游戏刻) {
+        long 起点格键 = 格键(起点);
+        long 目标格键 = 格键(终点);
+        long 键 = 组合键(起点格键, 目标格键);
+        条目 新条目 = 条目表.get(键);
+        if (新条目 == null) {
+            新条目 = new 条目();
+            条目表.put(键, 新条目);
+        }
+        新条目.起点格键 = 起点格键;
+        新条目.目标格键 = 目标格键;
+        新条目.版本戳 = 版本戳(起点, 终点);
+        新条目.可达 = 可达;
+        新条目.过期游戏刻 = 游戏刻 + 条目有效刻数;
+    }
+
+    /**
+     * 起点到目标包围盒覆盖的所有区段的版本之和（版本只增不减，任一区段变化都会改变版本戳）
+     */
+    private long 版本戳(BlockPos 起点, BlockPos 终点) {
+        int 最小X = SectionPos.blockToSectionCoord(Math.min(起点.getX(), 终点.getX()));
+        int 最小Y = SectionPos.blockToSectionCoord(Math.min(起点.getY(), 终点.getY()));
+        int 最小Z = SectionPos.blockToSectionCoord(Math.min(起点.getZ(), 终点.getZ()));
+        int 最大X = SectionPos.blockToSectionCoord(Math.max(起点.getX(), 终点.getX()));
+        int 最大Y = SectionPos.blockToSectionCoord(Math.max(起点.getY(), 终点.getY()));
+        int 最大Z = SectionPos.blockToSectionCoord(Math.max(起点.getZ(), 终点.getZ()));
+        long 和 = 0;
+        for (int x = 最小X; x <= 最大X; x++) {
+            for (int y = 最小Y; y <= 最大Y; y++) {
+                for (int z = 最小Z; z <= 最大Z; z++) {
+                    和 += 区段版本[版本桶(x, y, z)];
+                }
+            }
+        }
+        return 和;
+    }
+
+    private static int 版本桶(int x, int y, int z) {
+        int 散列 = x * 73856093 ^ y * 19349663 ^ z * 83492791;
+        return 散列 & (版本桶数量 - 1);
+    }
+
+    private static long 格键(BlockPos 位置) {
+        return BlockPos.asLong(位置.getX() >> 格子位数, 位置.getY() >> 格子位数, 位置.getZ() >> 格子位数);
+    }
+
+    private static long 组合键(long 起点格键, long 目标格键) {
+        return 起点格键 * 31 + Long.rotateLeft(目标格键, 32);
+    }
+
+    public static long get命中次数() { return 命中次数; }
+    public static long get未命中次数() { return 未命中次数; }
+    public static long get计算次数() { return 计算次数; }
+}
@@ -0,0 +1,209 @@
+package com.enhancedzombies.mod.legion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分层时间轮
+ * 功能：按游戏刻调度一次性和周期性任务，取代分散在各处的毫秒时间表和每刻自增的计时器
+ * 职责：
+ * 1. 三层时间轮：第0层256个槽位每槽1刻，第1层64个槽位每槽256刻，第2层64个槽位每槽16384刻（约13.7分钟，整层约14.5小时）
+ * 2. 每推进一刻只处理当前槽位，高层槽位在低层转完一圈时下放到低层
+ * 3. 周期任务由回调返回值决定是否继续，任务句柄可随时取消（惰性删除）
+ *
+ * 时间完全按推进的游戏刻计算，服务器卡顿时超时随游戏时间顺延，不随墙上时间提前触发
+ * 只在服务器线程上使用，因此不做同步
+ */
+public class TickTimerWheel {
+
+    private static final int 第0层位数 = 8;
+    private static final int 高层位数 = 6;
+    private static final int 第0层槽数 = 1 << 第0层位数;                  // 256
+    private static final int 高层槽数 = 1 << 高层位数;                    // 64
+    private static final long 第1层跨度 = 1L << (第0层位数 + 高层位数);       // 16384
+    private static final long 第2层跨度 = 1L << (第0层位数 + 高层位数 * 2);   // 1048576
+
+    private final List<定时任务>[] 第0层 = 创建槽位(第0层槽数);
+    private final List<定时任务>[] 第1层 = 创建槽位(高层槽数);
+    private final List<定时任务>[] 第2层 = 创建槽位(高层槽数);
+    private List<定时任务> 处理缓冲 = new ArrayList<>();
+
+    private long 当前刻;
+    private int 任务数量;
+    private long 已执行次数;
+
+    /**
+     * 定时回调，返回false表示周期任务不再继续（一次性任务忽略返回值）
+     */
+    @FunctionalInterface
+    public interface 定时回调 {
+        boolean 执行();
+    }
+
+    /**
+     * 任务句柄
+     */
+    public static final class 定时任务 {
+        private final 定时回调 回调;
+        private final int 周期; // 0表示一次性任务
+        private long 到期刻;
+        private boolean 已取消;
+
+        private 定时任务(定时回调 回调, long 到期刻, int 周期) {
+            this.回调 = 回调;
+            this.到期刻 = 到期刻;
+            this.周期 = 周期;
+        }
+
+        /**
+         * 取消任务，任务在到期时被丢弃
+         */
+        public void 取消() {
+            已取消 = true;
+        }
+
+        public boolean 是否已取消() {
+            return 已取消;
+        }
+
+        public long get到期刻() {
+            return 到期刻;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<定时任务>[] 创建槽位(int 数量) {
+        List<定时任务>[] 槽位 = new List[数量];
+        for (int i = 0; i < 数量; i++) {
+            槽位[i] = new ArrayList<>();
+        }
+        return 槽位;
+    }
+
+    /**
+     * 在指定刻数后执行一次
+     * 时间复杂度：O(1)
+     */
+    public 定时任务 延时执行(long 延迟刻数, 定时回调 回调) {
+        定时任务 任务 = new 定时任务(回调, 当前刻 + Math.max(1, 延迟刻数), 0);
+        放入(任务);
+        return 任务;
+    }
+
+    /**
+     * 在首次延迟后按固定周期重复执行，直到回调返回false或任务被取消
+     * 时间复杂度：O(1)
+     */
+    public 定时任务 周期执行(long 首次延迟刻数, int 周期, 定时回调 回调) {
+        定时任务 任务 = new 定时任务(回调, 当前刻 + Math.max(1, 首次延迟刻数), Math.max(1, 周期));
+        放入(任务);
+        return 任务;
+    }
+
+    /**
+     * 推进到指定游戏刻，依次处理途经各刻到期的任务
+     * 时间复杂度：每刻O(1 + k) - k为该刻到期的任务数量，高层下放的开销均摊到各刻
+     */
+    public void 推进到(long 目标刻) {
+        while (当前刻 < 目标刻) {
+            当前刻++;
+            if ((当前刻 & (第1层跨度 - 1)) == 0) {
+                下放(第2层, (int) ((当前刻 >>> (第0层位数 + 高层位数)) & (高层槽数 - 1)));
+            }
+            if ((当前刻 & (第0层槽数 - 1)) == 0) {
+                下放(第1层, (int) ((当前刻 >>> 第0层位数) & (高层槽数 - 1)));
+            }
+            处理当前槽位();
+        }
+    }
+
+    private void 处理当前槽位() {
+        int 槽 = (int) (当前刻 & (第0层槽数 - 1));
+        List<定时任务> 到期列表 = 第0层[槽];
+        if (到期列表.isEmpty()) {
+            return;
+        }
+
+        // 换入空缓冲，回调中新加入的任务不会写回正在遍历的列表
+        第0层[槽] = 处理缓冲;
+        处理缓冲 = 到期列表;
+        任务数量 -= 到期列表.size();
+
+        for (int i = 0; i < 到期列表.size(); i++) {
+            定时任务 任务 = 到期列表.get(i);
+            if (任务.已取消) {
+                continue;
+            }
+            已执行次数++;
+            boolean 继续 = 任务.回调.执行();
+            if (任务.周期 > 0 && 继续 && !任务.已取消) {
+                任务.到期刻 = 当前刻 + 任务.周期;
+                放入(任务);
+            }
+        }
+        到期列表.clear();
+    }
+
+    /**
+     * 把高层槽位中的任务按剩余时间重新放入低层
+     */
+    private void 下放(List<定时任务>[] 层, int 槽) {
+        List<定时任务> 列表 = 层[槽];
+        if (列表.isEmpty()) {
+            return;
+        }
+        层[槽] = new ArrayList<>();
+        任务数量 -= 列表.size();
+        for (定时任务 任务 : 列表) {
+            if (!任务.已取消) {
+                放入(任务);
+            }
+        }
+    }
+
+    private void 放入(定时任务 任务) {
+        long 剩余 = 任务.到期刻 - 当前刻;
+        if (剩余 < 第0层槽数) {
+            第0层[(int) (任务.到期刻 & (第0层槽数 - 1))].add(任务);
+        } else if (剩余 < 第1层跨度) {
+            第1层[(int) ((任务.到期刻 >>> 第0层位数) & (高层槽数 - 1))].add(任务);
+        } else {
+            // 超出第2层范围的任务先放在最远的槽位，下放时再按剩余时间重新安排
+            long 放入刻 = 剩余 < 第2层跨度 ? 任务.到期刻 : 当前刻 + 第2层跨度 - 1;
+            第2层[(int) ((放入刻 >>> (第0层位数 + 高层位数)) & (高层槽数 - 1))].add(任务);
+        }
+        任务数量++;
+    }
+
+    /**
+     * 当前游戏刻（时间轮最后推进到的刻）
+     */
+    public long 当前刻() {
+        return 当前刻;
+    }
+
+    /**
+     * 排队中的任务数量（含尚未丢弃的已取消任务）
+     */
+    public int 任务数量() {
+        return 任务数量;
+    }
+
+    /**
+     * 累计执行的回调次数
+     */
+    public long 已执行次数() {
+        return 已执行次数;
+    }
+
+    /**
+     * 清空所有任务并把时间重置为指定游戏刻
+     */
+    public void 重置(long 起始刻) {
+        for (List<定时任务> 列表 : 第0层) 列表.clear();
+        for (List<定时任务> 列表 : 第1层) 列表.clear();
+        for (List<定时任务> 列表 : 第2层) 列表.clear();
+        当前刻 = 起始刻;
+        任务数量 = 0;
+    }
+}
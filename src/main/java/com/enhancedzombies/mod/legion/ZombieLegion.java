@@ -1,11 +1,16 @@
 package com.enhancedzombies.mod.legion;
 
+import com.enhancedzombies.mod.entity.EnhancedZombie;
 import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 僵尸军团数据类
@@ -15,6 +20,8 @@ import java.util.concurrent.ConcurrentHashMap;
  * 2. 跟踪军团状态和目标
  * 3. 管理军团的生命周期
  * 4. 提供军团协作所需的数据接口
+ * 5. 到期更新或成员读取黑板时采样成员位置（每刻最多一次），维护质心、包围盒、离散度和到目标的距离
+ * 6. 休眠时成员实体被移除，成员保存在紧凑的休眠记录中，唤醒后按记录重新生成
  */
 public class ZombieLegion {
     
@@ -22,29 +29,53 @@ public class ZombieLegion {
     private final int 军团ID;
     private final UUID 目标玩家UUID;
     private final BlockPos 初始生成位置;
-    private final long 创建时间;
+    private final ResourceKey<Level> 所在维度;
+    private final long 创建游戏刻; // 按世界游戏时间记录，随存档持久化
+    private long 恢复游戏刻 = -1; // 从存档恢复时的游戏刻，-1表示本次运行中创建
     
     // 军团成员管理
-    private final Set<UUID> 成员列表 = ConcurrentHashMap.newKeySet();
+    private final LegionMemberTable 成员表;
     private UUID 军团长UUID;
-    private final Map<UUID, Long> 成员最后活跃时间 = new ConcurrentHashMap<>();
+    
+    // 成员实体缓存统计（所有军团共享）
+    private static long 实体缓存命中次数;
+    private static long 实体缓存未命中次数;
     
     // 军团状态
     private 军团状态 当前状态;
     private BlockPos 当前目标位置;
-    private long 上次状态更新时间;
+    private long 上次状态更新刻;
     private int 连续失败次数;
+    private boolean 成员生成中; // 生成队列中仍有待生成的成员
+    private DormantLegionRecord 休眠记录; // 休眠中的成员记录，未休眠时为null
+    private long 休眠开始刻;             // 最近一次进入休眠的游戏刻
+    private DormantLegionRecord 待恢复记录; // 唤醒时所在区块未加载的成员，区块加载后再重新生成，没有时为null
     
     // 军团统计
     private int 总击杀数;
     private int 总死亡数;
-    private long 总存活时间;
+    private long 总存活刻;
     
     // 军团行为参数
     private double 军团凝聚度; // 0.0-1.0，表示军团成员的聚集程度
     private double 军团士气;   // 0.0-1.0，影响战斗效率
     private 战术模式 当前战术;
     
+    // 空间聚合（每刻最多采样一次，读取为O(1)）
+    private double 包围盒最小X = Double.NaN, 包围盒最小Y = Double.NaN, 包围盒最小Z = Double.NaN;
+    private double 包围盒最大X = Double.NaN, 包围盒最大Y = Double.NaN, 包围盒最大Z = Double.NaN;
+    private double 目标距离 = -1; // 质心到目标玩家的距离，目标不在本维度或没有已知位置时为-1
+    private long 上次采样游戏刻 = Long.MIN_VALUE;
+    
+    // 成员黑板（与空间聚合一起每刻刷新）
+    private final LegionBlackboard 黑板 = new LegionBlackboard();
+    
+    // 寻路失败缓存（成员共享，方块变化时失效）
+    private final LegionPathFailureCache 路径失败缓存 = new LegionPathFailureCache();
+    
+    // 通往目标的流场（成员共享，按需重新搜索）
+    private final LegionFlowField 流场 = new LegionFlowField();
+    
     /**
      * 军团状态枚举
      */
@@ -74,13 +105,15 @@ public class ZombieLegion {
     /**
      * 构造函数
      */
-    public ZombieLegion(int 军团ID, UUID 目标玩家UUID, BlockPos 初始生成位置) {
+    public ZombieLegion(int 军团ID, UUID 目标玩家UUID, BlockPos 初始生成位置, ResourceKey<Level> 所在维度, long 创建游戏刻) {
         this.军团ID = 军团ID;
         this.目标玩家UUID = 目标玩家UUID;
         this.初始生成位置 = 初始生成位置;
-        this.创建时间 = System.currentTimeMillis();
+        this.所在维度 = 所在维度;
+        this.创建游戏刻 = 创建游戏刻;
+        this.成员表 = new LegionMemberTable(初始生成位置.getX() + 0.5, 初始生成位置.getY(), 初始生成位置.getZ() + 0.5);
         this.当前状态 = 军团状态.初始化;
-        this.上次状态更新时间 = 创建时间;
+        this.上次状态更新刻 = 创建游戏刻;
         this.军团凝聚度 = 1.0;
         this.军团士气 = 1.0;
         this.当前战术 = 战术模式.直接攻击;
@@ -89,19 +122,22 @@ public class ZombieLegion {
     
     /**
      * 更新军团状态
+     * 所有超时均按所在世界的游戏刻计算，服务器卡顿时随游戏时间顺延
      * 时间复杂度：O(n) - n为成员数量
      */
     public void 更新状态() {
-        long 当前时间 = System.currentTimeMillis();
+        long 当前刻 = 当前游戏刻();
+        // 更新间隔随军团状态变化，按实际经过的游戏时间折算衰减量（以秒为单位，最多按10秒计）
+        double 经过秒数 = Math.min(10.0, Math.max(0, 当前刻 - 上次状态更新刻) / 20.0);
         
         // 清理无效成员
-        清理无效成员();
+        清理无效成员(当前刻);
         
         // 更新军团统计
         更新军团统计();
         
         // 根据当前情况更新状态
-        军团状态 新状态 = 计算新状态();
+        军团状态 新状态 = 计算新状态(当前刻);
         if (新状态 != 当前状态) {
             切换状态(新状态);
         }
@@ -110,22 +146,36 @@ public class ZombieLegion {
         更新战术模式();
         
         // 更新军团属性
-        更新军团属性();
+        更新军团属性(经过秒数, 当前刻);
         
-        上次状态更新时间 = 当前时间;
+        上次状态更新刻 = 当前刻;
+    }
+    
+    /**
+     * 所在世界的当前游戏刻，世界未加载时使用创建游戏刻
+     */
+    private long 当前游戏刻() {
+        net.minecraft.server.MinecraftServer 服务器 = net.minecraftforge.server.ServerLifecycleHooks.getCurrentServer();
+        ServerLevel 世界 = 服务器 != null ? 服务器.getLevel(所在维度) : null;
+        return 世界 != null ? 世界.getGameTime() : Math.max(创建游戏刻, 上次状态更新刻);
     }
     
     /**
      * 计算新的军团状态
      */
-    private 军团状态 计算新状态() {
-        // 如果没有成员，应该解散
-        if (成员列表.isEmpty()) {
+    private 军团状态 计算新状态(long 当前刻) {
+        // 成员仍在分批生成时保持当前状态（新军团为初始化，唤醒的军团保持休眠前的状态）
+        if (成员生成中) {
+            return 当前状态;
+        }
+        
+        // 如果没有成员（也没有等待区块加载的成员），应该解散
+        if (成员表.数量() == 0 && 待恢复记录 == null) {
             return 军团状态.已解散;
         }
         
         // 如果成员太少，考虑解散
-        if (成员列表.size() < 3 && 当前状态 != 军团状态.初始化) {
+        if (成员表.数量() < 3 && 当前状态 != 军团状态.初始化) {
             连续失败次数++;
             if (连续失败次数 > 5) {
                 return 军团状态.解散中;
@@ -138,7 +188,7 @@ public class ZombieLegion {
         switch (当前状态) {
             case 初始化:
                 // 如果大部分成员已生成，进入集结状态
-                if (成员列表.size() >= 5) {
+                if (成员表.数量() >= 5) {
                     return 军团状态.集结中;
                 }
                 break;
@@ -156,7 +206,7 @@ public class ZombieLegion {
                     return 军团状态.战斗中;
                 }
                 // 检查是否失去目标
-                if (检查是否失去目标()) {
+                if (检查是否失去目标(当前刻)) {
                     return 军团状态.搜索中;
                 }
                 break;
@@ -164,7 +214,7 @@ public class ZombieLegion {
             case 战斗中:
                 // 检查战斗是否结束
                 if (!检查是否进入战斗()) {
-                    if (检查是否失去目标()) {
+                    if (检查是否失去目标(当前刻)) {
                         return 军团状态.搜索中;
                     } else {
                         return 军团状态.追击中;
@@ -178,18 +228,18 @@ public class ZombieLegion {
                 
             case 搜索中:
                 // 检查是否重新发现目标
-                if (!检查是否失去目标()) {
+                if (!检查是否失去目标(当前刻)) {
                     return 军团状态.追击中;
                 }
                 // 搜索超时，解散军团
-                if (System.currentTimeMillis() - 上次状态更新时间 > 300000) { // 5分钟
+                if (当前刻 - 上次状态更新刻 > 6000) { // 5分钟
                     return 军团状态.解散中;
                 }
                 break;
                 
             case 撤退中:
                 // 检查是否撤退完成
-                if (检查撤退是否完成()) {
+                if (检查撤退是否完成(当前刻)) {
                     return 军团状态.搜索中;
                 }
                 break;
@@ -218,7 +268,7 @@ public class ZombieLegion {
                 
             case 追击中:
                 // 根据军团大小选择战术
-                if (成员列表.size() >= 8) {
+                if (成员表.数量() >= 8) {
                     当前战术 = 战术模式.包围战术;
                 } else {
                     当前战术 = 战术模式.直接攻击;
@@ -251,7 +301,7 @@ public class ZombieLegion {
         if (当前状态 == 军团状态.战斗中) {
             if (军团士气 < 0.3) {
                 当前战术 = 战术模式.游击战术;
-            } else if (成员列表.size() >= 10) {
+            } else if (成员表.数量() >= 10) {
                 当前战术 = 战术模式.包围战术;
             } else if (军团凝聚度 < 0.5) {
                 当前战术 = 战术模式.分散战术;
@@ -262,36 +312,41 @@ public class ZombieLegion {
     /**
      * 更新军团属性
      */
-    private void 更新军团属性() {
+    private void 更新军团属性(double 经过秒数, long 当前刻) {
         // 更新凝聚度（基于成员之间的距离）
-        更新军团凝聚度();
+        更新军团凝聚度(经过秒数);
         
         // 更新士气（基于战斗结果和损失）
-        更新军团士气();
+        更新军团士气(经过秒数);
         
         // 更新存活时间
-        总存活时间 = System.currentTimeMillis() - 创建时间;
+        总存活刻 = 当前刻 - 创建游戏刻;
     }
     
     /**
      * 更新军团凝聚度
+     * 算法：由成员到质心的均方根距离换算目标凝聚度（3格内为1.0，21格以上为0.1），
+     *       按经过时间向目标值平滑靠拢，避免单次采样抖动导致战术频繁切换
      */
-    private void 更新军团凝聚度() {
-        // 简化版本：基于成员数量变化
-        if (成员列表.size() >= 8) {
-            军团凝聚度 = Math.min(1.0, 军团凝聚度 + 0.05);
-        } else if (成员列表.size() <= 3) {
-            军团凝聚度 = Math.max(0.1, 军团凝聚度 - 0.1);
+    private void 更新军团凝聚度(double 经过秒数) {
+        if (成员表.已知位置数量() < 2) {
+            // 还没有足够的位置数据，保持当前凝聚度
+            return;
         }
+        
+        double 离散度 = 成员表.均方根离散度();
+        double 目标凝聚度 = Math.max(0.1, Math.min(1.0, 1.0 - (离散度 - 3.0) / 20.0));
+        double 平滑系数 = Math.min(1.0, 经过秒数 * 0.5);
+        军团凝聚度 += (目标凝聚度 - 军团凝聚度) * 平滑系数;
     }
     
     /**
      * 更新军团士气
      */
-    private void 更新军团士气() {
-        // 基于成员数量和时间的士气衰减
-        double 衰减率 = 0.001;
-        if (成员列表.size() < 5) {
+    private void 更新军团士气(double 经过秒数) {
+        // 基于成员数量和时间的士气衰减（每秒）
+        double 衰减率 = 0.001 * 经过秒数;
+        if (成员表.数量() < 5) {
             衰减率 *= 2;
         }
         
@@ -300,52 +355,49 @@ public class ZombieLegion {
     
     /**
      * 清理无效成员
+     * 倒序遍历成员表，交换删除只会把已检查过的最后一行移到当前位置
      */
-    private void 清理无效成员() {
-        long 当前时间 = System.currentTimeMillis();
-        Iterator<UUID> 迭代器 = 成员列表.iterator();
-        
-        while (迭代器.hasNext()) {
-            UUID 成员UUID = 迭代器.next();
-            Long 最后活跃时间 = 成员最后活跃时间.get(成员UUID);
-            
-            // 如果成员超过5分钟没有活跃，认为已死亡或离线
-            if (最后活跃时间 == null || 当前时间 - 最后活跃时间 > 300000) {
-                迭代器.remove();
-                成员最后活跃时间.remove(成员UUID);
-                
-                // 如果移除的是军团长，选择新的军团长
-                if (成员UUID.equals(军团长UUID)) {
-                    选择新军团长();
+    private void 清理无效成员(long 当前刻) {
+        boolean 军团长被移除 = false;
+        
+        for (int 行 = 成员表.数量() - 1; 行 >= 0; 行--) {
+            // 如果成员超过5分钟（6000刻）没有活跃，认为已死亡或离线
+            if (当前刻 - 成员表.最后活跃刻(行) > 6000) {
+                if (成员表.是否为(行, 军团长UUID)) {
+                    军团长被移除 = true;
                 }
-                
+                成员表.移除行(行);
                 总死亡数++;
             }
         }
+        
+        // 如果移除的是军团长，选择新的军团长
+        if (军团长被移除) {
+            选择新军团长();
+        }
     }
     
     /**
      * 选择新的军团长
      */
     private void 选择新军团长() {
-        if (成员列表.isEmpty()) {
+        if (成员表.数量() == 0) {
             军团长UUID = null;
             return;
         }
         
         // 选择最早加入的成员作为新军团长
-        UUID 新军团长 = null;
+        int 新军团长行 = -1;
         long 最早时间 = Long.MAX_VALUE;
         
-        for (UUID 成员UUID : 成员列表) {
-            Long 活跃时间 = 成员最后活跃时间.get(成员UUID);
-            if (活跃时间 != null && 活跃时间 < 最早时间) {
-                最早时间 = 活跃时间;
-                新军团长 = 成员UUID;
+        for (int 行 = 0; 行 < 成员表.数量(); 行++) {
+            if (成员表.最后活跃刻(行) < 最早时间) {
+                最早时间 = 成员表.最后活跃刻(行);
+                新军团长行 = 行;
             }
         }
         
-        军团长UUID = 新军团长;
+        军团长UUID = 成员表.成员UUID(新军团长行);
     }
     
     /**
@@ -359,27 +411,31 @@ public class ZombieLegion {
     // 状态检查方法
     private boolean 检查军团是否集结() {
         // 简化版本：如果有足够的成员，认为已集结
-        return 成员列表.size() >= 5;
+        return 成员表.数量() >= 5;
     }
     
     private boolean 检查是否进入战斗() {
+        // 有位置数据时按质心到目标的距离判断（16格内视为交战）
+        if (目标距离 >= 0) {
+            return 目标距离 <= 16.0;
+        }
         // 简化版本：基于状态和时间判断
         return 当前状态 == 军团状态.战斗中;
     }
     
-    private boolean 检查是否失去目标() {
+    private boolean 检查是否失去目标(long 当前刻) {
         // 简化版本：基于时间判断
-        return System.currentTimeMillis() - 上次状态更新时间 > 60000; // 1分钟
+        return 当前刻 - 上次状态更新刻 > 1200; // 1分钟
     }
     
     private boolean 检查是否需要撤退() {
         // 如果成员数量过少或士气过低
-        return 成员列表.size() < 3 || 军团士气 < 0.2;
+        return 成员表.数量() < 3 || 军团士气 < 0.2;
     }
     
-    private boolean 检查撤退是否完成() {
+    private boolean 检查撤退是否完成(long 当前刻) {
         // 简化版本：撤退一定时间后认为完成
-        return System.currentTimeMillis() - 上次状态更新时间 > 30000; // 30秒
+        return 当前刻 - 上次状态更新刻 > 600; // 30秒
     }
     
     /**
@@ -387,8 +443,7 @@ public class ZombieLegion {
      */
     private void 开始解散流程() {
         // 清理所有数据
-        成员列表.clear();
-        成员最后活跃时间.clear();
+        成员表.清空();
         军团长UUID = null;
     }
     
@@ -398,16 +453,14 @@ public class ZombieLegion {
      * 添加成员
      */
     public void 添加成员(UUID 成员UUID) {
-        成员列表.add(成员UUID);
-        成员最后活跃时间.put(成员UUID, System.currentTimeMillis());
+        成员表.添加(成员UUID, 当前游戏刻());
     }
     
     /**
      * 移除成员
      */
     public void 移除成员(UUID 成员UUID) {
-        成员列表.remove(成员UUID);
-        成员最后活跃时间.remove(成员UUID);
+        成员表.移除(成员UUID);
         
         if (成员UUID.equals(军团长UUID)) {
             选择新军团长();
@@ -416,43 +469,249 @@ public class ZombieLegion {
         总死亡数++;
     }
     
+    /**
+     * 是否包含指定成员
+     */
+    public boolean 包含成员(UUID 成员UUID) {
+        return 成员表.包含(成员UUID);
+    }
+    
+    /**
+     * 从存档恢复军团状态（由LegionSavedData调用）
+     * @param 当前刻 恢复时所在世界的游戏刻
+     */
+    void 恢复存档状态(军团状态 状态, 战术模式 战术, double 士气, double 凝聚度,
+                    int 击杀数, int 死亡数, UUID 军团长, long 当前刻) {
+        this.当前状态 = 状态;
+        this.当前战术 = 战术;
+        this.军团士气 = 士气;
+        this.军团凝聚度 = 凝聚度;
+        this.总击杀数 = 击杀数;
+        this.总死亡数 = 死亡数;
+        this.军团长UUID = 军团长;
+        this.恢复游戏刻 = 当前刻;
+        this.上次状态更新刻 = 当前刻;
+    }
+    
+    /**
+     * 从存档恢复成员，成员实体在所在区块加载时再重新绑定
+     */
+    void 恢复成员(UUID 成员UUID, long 最后活跃刻) {
+        成员表.添加(成员UUID, 最后活跃刻);
+    }
+    
+    /**
+     * 进入休眠：成员表清空，成员改由休眠记录保存
+     * 调用方负责在此之前读取成员实体并在之后移除它们
+     */
+    void 进入休眠(DormantLegionRecord 记录) {
+        休眠记录 = 记录;
+        休眠开始刻 = 当前游戏刻();
+        成员表.清空();
+        军团长UUID = null;
+        目标距离 = -1;
+        包围盒最小X = 包围盒最小Y = 包围盒最小Z = Double.NaN;
+        包围盒最大X = 包围盒最大Y = 包围盒最大Z = Double.NaN;
+        黑板.清空();
+        路径失败缓存.清空();
+        流场.清空();
+    }
+    
+    /**
+     * 保留唤醒时所在区块未加载、暂时无法重新生成的成员
+     */
+    void 保留待恢复成员(DormantLegionRecord 记录) {
+        if (待恢复记录 == null) {
+            待恢复记录 = 记录;
+            return;
+        }
+        for (int 行 = 0; 行 < 记录.数量(); 行++) {
+            待恢复记录.添加行(记录, 行);
+        }
+    }
+    
+    /**
+     * 取出所有待恢复的成员，调用方负责重新生成或放回
+     */
+    DormantLegionRecord 取出待恢复成员() {
+        DormantLegionRecord 记录 = 待恢复记录;
+        待恢复记录 = null;
+        return 记录;
+    }
+    
+    /**
+     * 结束休眠，成员由调用方按返回的记录重新生成
+     * 休眠期间不更新状态，这里重置状态更新时间，避免唤醒后立即判定为失去目标
+     */
+    DormantLegionRecord 结束休眠() {
+        DormantLegionRecord 记录 = 休眠记录;
+        休眠记录 = null;
+        上次状态更新刻 = 当前游戏刻();
+        return 记录;
+    }
+    
     /**
      * 更新成员活跃时间
      */
     public void 更新成员活跃时间(UUID 成员UUID) {
-        if (成员列表.contains(成员UUID)) {
-            成员最后活跃时间.put(成员UUID, System.currentTimeMillis());
+        int 行 = 成员表.行号(成员UUID);
+        if (行 >= 0) {
+            成员表.设置最后活跃刻(行, 当前游戏刻());
+        }
+    }
+    
+    /**
+     * 记录成员实体的最新状态（实体ID、位置、生命值比例）
+     */
+    public void 更新成员实体(LivingEntity 成员) {
+        int 行 = 成员表.行号(成员.getUUID());
+        if (行 >= 0) {
+            成员表.设置实体状态(行, 成员.getId(), 成员.getX(), 成员.getY(), 成员.getZ(), 
+                成员.getHealth() / 成员.getMaxHealth());
+            if (成员 instanceof EnhancedZombie 僵尸 && 成员表.缓存实体(行) != 僵尸) {
+                成员表.设置实体引用(行, 僵尸);
+            }
+        }
+    }
+    
+    /**
+     * 采样成员位置并刷新空间聚合和成员黑板（每个游戏刻每个军团最多一次）
+     * 只读取弱引用缓存中仍在世界里的成员实体，不做世界查询；
+     * 未加载的成员保留最后已知位置，质心和离散度由成员表按位置增量维护；
+     * 黑板只收录本刻已加载的成员
+     * 时间复杂度：O(n) - n为成员数量
+     */
+    public void 采样空间聚合(long 当前游戏刻) {
+        if (当前游戏刻 == 上次采样游戏刻) {
+            return;
+        }
+        上次采样游戏刻 = 当前游戏刻;
+        
+        double 最小X = Double.POSITIVE_INFINITY, 最小Y = Double.POSITIVE_INFINITY, 最小Z = Double.POSITIVE_INFINITY;
+        double 最大X = Double.NEGATIVE_INFINITY, 最大Y = Double.NEGATIVE_INFINITY, 最大Z = Double.NEGATIVE_INFINITY;
+        
+        黑板.开始刷新(当前游戏刻);
+        for (int 行 = 0; 行 < 成员表.数量(); 行++) {
+            EnhancedZombie 实体 = 成员表.缓存实体(行);
+            if (实体 != null && !实体.isRemoved()) {
+                成员表.设置位置(行, 实体.getX(), 实体.getY(), 实体.getZ());
+                if (实体.level().dimension().equals(所在维度)) {
+                    黑板.记录成员(实体);
+                }
+            }
+            if (!成员表.位置已知(行)) {
+                continue;
+            }
+            double x = 成员表.位置X(行), y = 成员表.位置Y(行), z = 成员表.位置Z(行);
+            最小X = Math.min(最小X, x); 最大X = Math.max(最大X, x);
+            最小Y = Math.min(最小Y, y); 最大Y = Math.max(最大Y, y);
+            最小Z = Math.min(最小Z, z); 最大Z = Math.max(最大Z, z);
+        }
+        黑板.结束刷新();
+        
+        if (成员表.已知位置数量() == 0) {
+            包围盒最小X = 包围盒最小Y = 包围盒最小Z = Double.NaN;
+            包围盒最大X = 包围盒最大Y = 包围盒最大Z = Double.NaN;
+            目标距离 = -1;
+            return;
+        }
+        
+        包围盒最小X = 最小X; 包围盒最小Y = 最小Y; 包围盒最小Z = 最小Z;
+        包围盒最大X = 最大X; 包围盒最大Y = 最大Y; 包围盒最大Z = 最大Z;
+        
+        Player 目标玩家 = OnlinePlayerIndex.getInstance().获取玩家(目标玩家UUID, 所在维度);
+        if (目标玩家 != null) {
+            double dx = 目标玩家.getX() - 成员表.质心X();
+            double dy = 目标玩家.getY() - 成员表.质心Y();
+            double dz = 目标玩家.getZ() - 成员表.质心Z();
+            目标距离 = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        } else {
+            目标距离 = -1;
         }
     }
     
+    /**
+     * 获取成员的活实体
+     * 优先使用成员表中的弱引用缓存，缓存失效时才按UUID查询军团所在世界
+     * 时间复杂度：命中O(1)，未命中为一次世界实体查询
+     * @return 成员实体，不是成员、未加载或已移除时返回null
+     */
+    public EnhancedZombie 获取成员实体(UUID 成员UUID) {
+        int 行 = 成员表.行号(成员UUID);
+        return 行 >= 0 ? 获取成员实体(行) : null;
+    }
+    
+    /**
+     * 按成员表行号获取成员的活实体（用于forEachMember内部）
+     */
+    public EnhancedZombie 获取成员实体(int 行) {
+        EnhancedZombie 缓存 = 成员表.缓存实体(行);
+        if (缓存 != null && !缓存.isRemoved() && 缓存.level().dimension().equals(所在维度)) {
+            实体缓存命中次数++;
+            return 缓存;
+        }
+        
+        实体缓存未命中次数++;
+        net.minecraft.server.MinecraftServer 服务器 = net.minecraftforge.server.ServerLifecycleHooks.getCurrentServer();
+        ServerLevel 世界 = 服务器 != null ? 服务器.getLevel(所在维度) : null;
+        EnhancedZombie 僵尸 = null;
+        if (世界 != null && 世界.getEntity(成员表.成员UUID(行)) instanceof EnhancedZombie 实体 && !实体.isRemoved()) {
+            僵尸 = 实体;
+        }
+        成员表.设置实体引用(行, 僵尸);
+        return 僵尸;
+    }
+    
+    /**
+     * 使成员的实体缓存失效（实体离开世界、死亡或被移除时调用）
+     */
+    public void 清除成员实体引用(UUID 成员UUID) {
+        int 行 = 成员表.行号(成员UUID);
+        if (行 >= 0) {
+            成员表.设置实体引用(行, null);
+        }
+    }
+    
+    public static long get实体缓存命中次数() { return 实体缓存命中次数; }
+    public static long get实体缓存未命中次数() { return 实体缓存未命中次数; }
+    
+    /**
+     * 不分配对象地遍历成员表，访问器通过get成员表()读取各列
+     * 遍历期间不要增删成员
+     */
+    public void forEachMember(LegionMemberTable.成员访问器 访问器) {
+        成员表.forEachMember(访问器);
+    }
+    
     /**
      * 检查军团是否应该被清理
      */
     public boolean 应该被清理() {
-        // 基本清理条件
+        // 成员尚未生成完毕时不清理
+        if (成员生成中) {
+            return false;
+        }
+        
+        // 基本清理条件（休眠军团的成员在休眠记录中）
+        int 成员数量 = (休眠记录 != null ? 休眠记录.数量() : 成员表.数量()) + get待恢复成员数量();
         if (当前状态 == 军团状态.已解散 || 
-            (成员列表.isEmpty() && System.currentTimeMillis() - 创建时间 > 60000)) {
+            (成员数量 == 0 && 当前游戏刻() - 创建游戏刻 > 1200)) {
             return true;
         }
         
+        // 休眠军团由休眠时限清理，不按目标距离清理
+        if (休眠记录 != null) {
+            return false;
+        }
+        
         // 距离检查：如果目标玩家距离军团过远，清理军团
-        try {
-            net.minecraft.server.MinecraftServer 服务器 = net.minecraftforge.server.ServerLifecycleHooks.getCurrentServer();
-            if (服务器 != null) {
-                for (net.minecraft.server.level.ServerLevel 世界 : 服务器.getAllLevels()) {
-                    net.minecraft.world.entity.player.Player 目标玩家 = 世界.getPlayerByUUID(目标玩家UUID);
-                    if (目标玩家 != null) {
-                        double 距离 = 目标玩家.blockPosition().distSqr(初始生成位置);
-                        // 如果玩家距离军团超过128格（16384 = 128^2），清理军团
-                        if (距离 > 16384) {
-                            return true;
-                        }
-                        break; // 找到玩家就退出循环
-                    }
-                }
+        net.minecraft.server.level.ServerPlayer 目标玩家 = OnlinePlayerIndex.getInstance().获取玩家(目标玩家UUID);
+        if (目标玩家 != null) {
+            double 距离 = 目标玩家.blockPosition().distSqr(初始生成位置);
+            // 如果玩家距离军团超过128格（16384 = 128^2），清理军团
+            if (距离 > 16384) {
+                return true;
             }
-        } catch (Exception e) {
-            // 如果检查过程中出现异常，不清理军团
         }
         
         return false;
@@ -462,22 +721,63 @@ public class ZombieLegion {
     public int get军团ID() { return 军团ID; }
     public UUID get目标玩家UUID() { return 目标玩家UUID; }
     public BlockPos get初始生成位置() { return 初始生成位置; }
-    public long get创建时间() { return 创建时间; }
-    public Set<UUID> get成员列表() { return new HashSet<>(成员列表); }
+    public ResourceKey<Level> get所在维度() { return 所在维度; }
+    public long get创建游戏刻() { return 创建游戏刻; }
+    public long get恢复游戏刻() { return 恢复游戏刻; }
+    public Set<UUID> get成员列表() { return 成员表.只读视图(); } // 只读视图，迭代期间不要增删成员
+    public LegionMemberTable get成员表() { return 成员表; } // 修改方法仅包内可见
     public UUID get军团长UUID() { return 军团长UUID; }
     public 军团状态 get当前状态() { return 当前状态; }
     public BlockPos get当前目标位置() { return 当前目标位置; }
-    public int get成员数量() { return 成员列表.size(); }
+    public int get成员数量() { return 成员表.数量(); }
     public double get军团凝聚度() { return 军团凝聚度; }
     public double get军团士气() { return 军团士气; }
     public 战术模式 get当前战术() { return 当前战术; }
+    public boolean 是否成员生成中() { return 成员生成中; }
+    public boolean 是否休眠() { return 休眠记录 != null; }
+    public long get休眠开始刻() { return 休眠开始刻; }
+    public int get休眠成员数量() { return 休眠记录 != null ? 休眠记录.数量() : 0; }
+    DormantLegionRecord get休眠记录() { return 休眠记录; }
+    public int get待恢复成员数量() { return 待恢复记录 != null ? 待恢复记录.数量() : 0; }
+    DormantLegionRecord get待恢复记录() { return 待恢复记录; }
+    public LegionBlackboard get黑板() { return 黑板; }
+    public LegionPathFailureCache get路径失败缓存() { return 路径失败缓存; }
+    public LegionFlowField get流场() { return 流场; }
+    
+    /**
+     * 该位置的方块变化是否可能影响军团的寻路失败缓存或流场
+     * 成员包围盒不含目标一端的路线，因此按缓存的路线包围盒并集和流场的搜索范围判断
+     * 时间复杂度：O(1)
+     */
+    boolean 方块变化可能相关(BlockPos 位置) {
+        return 路径失败缓存.可能包含(位置) || 流场.范围包含(位置);
+    }
     public int get总击杀数() { return 总击杀数; }
     public int get总死亡数() { return 总死亡数; }
-    public long get总存活时间() { return 总存活时间; }
+    public long get总存活刻() { return 总存活刻; }
+    
+    // 空间聚合（只读，由采样空间聚合()刷新，没有已知位置时坐标为NaN）
+    public boolean 有空间数据() { return 成员表.已知位置数量() > 0; }
+    public double get质心X() { return 成员表.质心X(); }
+    public double get质心Y() { return 成员表.质心Y(); }
+    public double get质心Z() { return 成员表.质心Z(); }
+    public Vec3 get质心() { return new Vec3(成员表.质心X(), 成员表.质心Y(), 成员表.质心Z()); }
+    public double get均方根离散度() { return 成员表.均方根离散度(); }
+    public double get目标距离() { return 目标距离; }
+    public double get包围盒最小X() { return 包围盒最小X; }
+    public double get包围盒最小Y() { return 包围盒最小Y; }
+    public double get包围盒最小Z() { return 包围盒最小Z; }
+    public double get包围盒最大X() { return 包围盒最大X; }
+    public double get包围盒最大Y() { return 包围盒最大Y; }
+    public double get包围盒最大Z() { return 包围盒最大Z; }
+    public AABB get包围盒() {
+        return 有空间数据() ? new AABB(包围盒最小X, 包围盒最小Y, 包围盒最小Z, 包围盒最大X, 包围盒最大Y, 包围盒最大Z) : null;
+    }
     
     // Setter方法
     public void set军团长UUID(UUID 军团长UUID) { this.军团长UUID = 军团长UUID; }
     public void set当前目标位置(BlockPos 位置) { this.当前目标位置 = 位置; }
+    public void set成员生成中(boolean 生成中) { this.成员生成中 = 生成中; }
     public void 增加击杀数() { this.总击杀数++; }
     
     /**
@@ -485,8 +785,9 @@ public class ZombieLegion {
      */
     public String get详细信息() {
         return String.format(
-            "军团ID: %d, 状态: %s, 成员: %d, 战术: %s, 士气: %.2f, 凝聚度: %.2f, 击杀: %d, 死亡: %d",
-            军团ID, 当前状态, 成员列表.size(), 当前战术, 军团士气, 军团凝聚度, 总击杀数, 总死亡数
+            "军团ID: %d, 状态: %s%s, 成员: %d, 战术: %s, 士气: %.2f, 凝聚度: %.2f, 击杀: %d, 死亡: %d",
+            军团ID, 当前状态, 是否休眠() ? "(休眠)" : "", 是否休眠() ? 休眠记录.数量() : 成员表.数量(),
+            当前战术, 军团士气, 军团凝聚度, 总击杀数, 总死亡数
         );
     }
 }
\ No newline at end of file